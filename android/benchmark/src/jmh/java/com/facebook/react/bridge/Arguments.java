@@ -0,0 +1,70 @@
+package com.facebook.react.bridge;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stand-in for the React Native bridge type of the same name, see {@link WritableNativeMap}.
+ */
+public class Arguments {
+
+  public static WritableMap createMap() {
+    return new WritableNativeMap();
+  }
+
+  public static WritableArray createArray() {
+    return new WritableNativeArray();
+  }
+
+  /**
+   * Builds bridge params the way they arrive from JS: nested Maps and Lists become maps and arrays,
+   * numbers become doubles.
+   */
+  @SuppressWarnings("unchecked")
+  public static WritableMap makeNativeMap(Map<String, Object> map) {
+    WritableMap writableMap = createMap();
+    for (Map.Entry<String, Object> entry : map.entrySet()) {
+      Object value = entry.getValue();
+      String key = entry.getKey();
+      if (value == null) {
+        writableMap.putNull(key);
+      } else if (value instanceof Boolean) {
+        writableMap.putBoolean(key, (Boolean) value);
+      } else if (value instanceof Number) {
+        writableMap.putDouble(key, ((Number) value).doubleValue());
+      } else if (value instanceof String) {
+        writableMap.putString(key, (String) value);
+      } else if (value instanceof Map) {
+        writableMap.putMap(key, makeNativeMap((Map<String, Object>) value));
+      } else if (value instanceof List) {
+        writableMap.putArray(key, makeNativeArray((List<Object>) value));
+      } else {
+        throw new IllegalArgumentException("Could not convert " + value.getClass());
+      }
+    }
+    return writableMap;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static WritableArray makeNativeArray(List<Object> list) {
+    WritableArray writableArray = createArray();
+    for (Object value : list) {
+      if (value == null) {
+        writableArray.pushNull();
+      } else if (value instanceof Boolean) {
+        writableArray.pushBoolean((Boolean) value);
+      } else if (value instanceof Number) {
+        writableArray.pushDouble(((Number) value).doubleValue());
+      } else if (value instanceof String) {
+        writableArray.pushString((String) value);
+      } else if (value instanceof Map) {
+        writableArray.pushMap(makeNativeMap((Map<String, Object>) value));
+      } else if (value instanceof List) {
+        writableArray.pushArray(makeNativeArray((List<Object>) value));
+      } else {
+        throw new IllegalArgumentException("Could not convert " + value.getClass());
+      }
+    }
+    return writableArray;
+  }
+}
@@ -0,0 +1,11 @@
+package com.facebook.react.bridge;
+
+/**
+ * Stand-in for the React Native bridge type of the same name, see {@link WritableNativeMap}.
+ */
+public class NoSuchKeyException extends RuntimeException {
+
+  public NoSuchKeyException(String msg) {
+    super(msg);
+  }
+}
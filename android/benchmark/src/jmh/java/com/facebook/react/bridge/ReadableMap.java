@@ -0,0 +1,30 @@
+package com.facebook.react.bridge;
+
+import java.util.HashMap;
+
+/**
+ * Stand-in for the React Native bridge type of the same name, see {@link WritableNativeMap}.
+ */
+public interface ReadableMap {
+  boolean hasKey(String name);
+
+  boolean isNull(String name);
+
+  boolean getBoolean(String name);
+
+  double getDouble(String name);
+
+  int getInt(String name);
+
+  String getString(String name);
+
+  ReadableArray getArray(String name);
+
+  ReadableMap getMap(String name);
+
+  ReadableType getType(String name);
+
+  ReadableMapKeySetIterator keySetIterator();
+
+  HashMap<String, Object> toHashMap();
+}
@@ -0,0 +1,20 @@
+package com.facebook.react.bridge;
+
+/**
+ * Stand-in for the React Native bridge type of the same name, see {@link WritableNativeMap}.
+ */
+public interface WritableArray extends ReadableArray {
+  void pushNull();
+
+  void pushBoolean(boolean value);
+
+  void pushDouble(double value);
+
+  void pushInt(int value);
+
+  void pushString(String value);
+
+  void pushArray(WritableArray array);
+
+  void pushMap(WritableMap map);
+}
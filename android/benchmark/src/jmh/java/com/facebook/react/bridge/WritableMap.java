@@ -0,0 +1,20 @@
+package com.facebook.react.bridge;
+
+/**
+ * Stand-in for the React Native bridge type of the same name, see {@link WritableNativeMap}.
+ */
+public interface WritableMap extends ReadableMap {
+  void putNull(String key);
+
+  void putBoolean(String key, boolean value);
+
+  void putDouble(String key, double value);
+
+  void putInt(String key, int value);
+
+  void putString(String key, String value);
+
+  void putArray(String key, WritableArray value);
+
+  void putMap(String key, WritableMap value);
+}
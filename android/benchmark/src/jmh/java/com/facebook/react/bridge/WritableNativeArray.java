@@ -0,0 +1,125 @@
+package com.facebook.react.bridge;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pure-Java stand-in for the JNI backed array, see {@link WritableNativeMap}.
+ */
+public class WritableNativeArray implements WritableArray {
+
+  private final List<Object> values = new ArrayList<>();
+
+  @Override
+  public int size() {
+    return values.size();
+  }
+
+  @Override
+  public boolean isNull(int index) {
+    return values.get(index) == null;
+  }
+
+  @Override
+  public boolean getBoolean(int index) {
+    return (Boolean) values.get(index);
+  }
+
+  @Override
+  public double getDouble(int index) {
+    return (Double) values.get(index);
+  }
+
+  @Override
+  public int getInt(int index) {
+    return ((Double) values.get(index)).intValue();
+  }
+
+  @Override
+  public String getString(int index) {
+    return (String) values.get(index);
+  }
+
+  @Override
+  public ReadableArray getArray(int index) {
+    return (ReadableArray) values.get(index);
+  }
+
+  @Override
+  public ReadableMap getMap(int index) {
+    return (ReadableMap) values.get(index);
+  }
+
+  @Override
+  public ReadableType getType(int index) {
+    return typeOf(values.get(index));
+  }
+
+  @Override
+  public ArrayList<Object> toArrayList() {
+    ArrayList<Object> list = new ArrayList<>();
+    for (Object value : values) {
+      list.add(toJava(value));
+    }
+    return list;
+  }
+
+  @Override
+  public void pushNull() {
+    values.add(null);
+  }
+
+  @Override
+  public void pushBoolean(boolean value) {
+    values.add(value);
+  }
+
+  @Override
+  public void pushDouble(double value) {
+    values.add(value);
+  }
+
+  @Override
+  public void pushInt(int value) {
+    values.add((double) value);
+  }
+
+  @Override
+  public void pushString(String value) {
+    values.add(value);
+  }
+
+  @Override
+  public void pushArray(WritableArray array) {
+    values.add(array);
+  }
+
+  @Override
+  public void pushMap(WritableMap map) {
+    values.add(map);
+  }
+
+  static ReadableType typeOf(Object value) {
+    if (value == null) {
+      return ReadableType.Null;
+    } else if (value instanceof Boolean) {
+      return ReadableType.Boolean;
+    } else if (value instanceof Double) {
+      return ReadableType.Number;
+    } else if (value instanceof String) {
+      return ReadableType.String;
+    } else if (value instanceof ReadableMap) {
+      return ReadableType.Map;
+    }
+    return ReadableType.Array;
+  }
+
+  static Object toJava(Object value) {
+    if (value instanceof ReadableMap) {
+      return ((ReadableMap) value).toHashMap();
+    } else if (value instanceof ReadableArray) {
+      return ((ReadableArray) value).toArrayList();
+    }
+    return value;
+  }
+}
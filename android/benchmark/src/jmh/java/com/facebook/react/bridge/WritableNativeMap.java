@@ -0,0 +1,127 @@
+package com.facebook.react.bridge;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pure-Java stand-in for the JNI backed map React Native hands to and takes from native modules, so the library
+ * code runs unchanged on the plain JVM. Like values coming from JS, every number is kept as a double.
+ */
+public class WritableNativeMap implements WritableMap {
+
+  private final Map<String, Object> values = new LinkedHashMap<>();
+
+  @Override
+  public boolean hasKey(String name) {
+    return values.containsKey(name);
+  }
+
+  @Override
+  public boolean isNull(String name) {
+    return values.get(name) == null;
+  }
+
+  @Override
+  public boolean getBoolean(String name) {
+    return (Boolean) require(name);
+  }
+
+  @Override
+  public double getDouble(String name) {
+    return (Double) require(name);
+  }
+
+  @Override
+  public int getInt(String name) {
+    return ((Double) require(name)).intValue();
+  }
+
+  @Override
+  public String getString(String name) {
+    return (String) values.get(name);
+  }
+
+  @Override
+  public ReadableArray getArray(String name) {
+    return (ReadableArray) values.get(name);
+  }
+
+  @Override
+  public ReadableMap getMap(String name) {
+    return (ReadableMap) values.get(name);
+  }
+
+  @Override
+  public ReadableType getType(String name) {
+    return WritableNativeArray.typeOf(require(name));
+  }
+
+  @Override
+  public ReadableMapKeySetIterator keySetIterator() {
+    final Iterator<String> keys = values.keySet().iterator();
+    return new ReadableMapKeySetIterator() {
+      @Override
+      public boolean hasNextKey() {
+        return keys.hasNext();
+      }
+
+      @Override
+      public String nextKey() {
+        return keys.next();
+      }
+    };
+  }
+
+  @Override
+  public HashMap<String, Object> toHashMap() {
+    HashMap<String, Object> map = new HashMap<>();
+    for (Map.Entry<String, Object> entry : values.entrySet()) {
+      map.put(entry.getKey(), WritableNativeArray.toJava(entry.getValue()));
+    }
+    return map;
+  }
+
+  @Override
+  public void putNull(String key) {
+    values.put(key, null);
+  }
+
+  @Override
+  public void putBoolean(String key, boolean value) {
+    values.put(key, value);
+  }
+
+  @Override
+  public void putDouble(String key, double value) {
+    values.put(key, value);
+  }
+
+  @Override
+  public void putInt(String key, int value) {
+    values.put(key, (double) value);
+  }
+
+  @Override
+  public void putString(String key, String value) {
+    values.put(key, value);
+  }
+
+  @Override
+  public void putArray(String key, WritableArray value) {
+    values.put(key, value);
+  }
+
+  @Override
+  public void putMap(String key, WritableMap value) {
+    values.put(key, value);
+  }
+
+  private Object require(String name) {
+    if (!values.containsKey(name)) {
+      throw new NoSuchKeyException(name);
+    }
+    return values.get(name);
+  }
+}
@@ -0,0 +1,193 @@
+package com.gettipsi.stripe;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReadableMap;
+import com.stripe.android.model.PaymentMethod;
+import com.stripe.android.model.Source;
+import com.stripe.android.model.Token;
+
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Realistic Stripe API responses (src/jmh/resources/fixtures) parsed into SDK models, and bridge params shaped
+ * like the ones the JS side sends. Metadata-heavy variants add {@code metadataEntries} generated key/value pairs.
+ */
+final class Fixtures {
+
+  /**
+   * Projections the converter benchmarks compare, "listItem" is what a list screen row typically reads.
+   */
+  static final String PROJECTION_ALL = "all";
+  static final String PROJECTION_OMIT_NULLS = "omitNulls";
+  static final String PROJECTION_LIST_ITEM = "listItem";
+
+  private Fixtures() {
+  }
+
+  static Token token(String name) throws Exception {
+    return Token.fromJson(json(name));
+  }
+
+  static Source source(String name, int metadataEntries) throws Exception {
+    JSONObject json = json(name);
+    json.put("metadata", new JSONObject(metadata(metadataEntries)));
+    return Source.fromJson(json);
+  }
+
+  static PaymentMethod paymentMethod(String name, int metadataEntries) throws Exception {
+    JSONObject json = json(name);
+    json.put("metadata", new JSONObject(metadata(metadataEntries)));
+    return PaymentMethod.fromJson(json);
+  }
+
+  static ReadableMap projection(String kind, String... listItemPaths) {
+    Map<String, Object> options = new HashMap<>();
+    if (PROJECTION_OMIT_NULLS.equals(kind)) {
+      options.put("omitNulls", true);
+    } else if (PROJECTION_LIST_ITEM.equals(kind)) {
+      options.put("projection", new ArrayList<Object>(Arrays.asList((Object[]) listItemPaths)));
+      options.put("omitNulls", true);
+    }
+    return Arguments.makeNativeMap(options);
+  }
+
+  static Map<String, Object> cardParams() {
+    Map<String, Object> card = new LinkedHashMap<>();
+    card.put("number", "4242424242424242");
+    card.put("expMonth", 8);
+    card.put("expYear", 2030);
+    card.put("cvc", "123");
+    card.put("name", "Jenny Rosen");
+    card.put("addressLine1", "510 Townsend St");
+    card.put("addressLine2", "Floor 3");
+    card.put("addressCity", "San Francisco");
+    card.put("addressState", "CA");
+    card.put("addressZip", "94103");
+    card.put("addressCountry", "US");
+    card.put("currency", "usd");
+    return card;
+  }
+
+  static Map<String, Object> paymentMethodParams(int metadataEntries) {
+    Map<String, Object> card = new LinkedHashMap<>();
+    card.put("number", "4242424242424242");
+    card.put("expMonth", 8);
+    card.put("expYear", 2030);
+    card.put("cvc", "123");
+
+    Map<String, Object> address = new LinkedHashMap<>();
+    address.put("city", "San Francisco");
+    address.put("country", "US");
+    address.put("line1", "510 Townsend St");
+    address.put("line2", "Floor 3");
+    address.put("postalCode", "94103");
+    address.put("state", "CA");
+
+    Map<String, Object> billingDetails = new LinkedHashMap<>();
+    billingDetails.put("address", address);
+    billingDetails.put("email", "jenny.rosen@example.com");
+    billingDetails.put("name", "Jenny Rosen");
+    billingDetails.put("phone", "+15555550100");
+
+    Map<String, Object> params = new LinkedHashMap<>();
+    params.put("card", card);
+    params.put("billingDetails", billingDetails);
+    params.put("metadata", new LinkedHashMap<String, Object>(metadata(metadataEntries)));
+    return params;
+  }
+
+  static Map<String, Object> confirmPaymentIntentParams() {
+    Map<String, Object> params = new LinkedHashMap<>();
+    params.put("clientSecret", "pi_1FiqPo2eZvKYlo2C9hnXQ1bT_secret_3VGfDPnzO6OGZ1tDuVGGMDSjK");
+    params.put("paymentMethod", paymentMethodParams(0));
+    params.put("returnURL", "example://stripe-redirect");
+    params.put("savePaymentMethod", true);
+    return params;
+  }
+
+  static Map<String, Object> confirmSetupIntentParams() {
+    Map<String, Object> params = new LinkedHashMap<>();
+    params.put("clientSecret", "seti_1FiqQ42eZvKYlo2CmvHbYgrx_secret_GFKJ3jWfBj4hlFmfTqbQQrlXlEsIvlg");
+    params.put("paymentMethodId", "pm_1FiqNF2eZvKYlo2CvRQd5Zu2");
+    return params;
+  }
+
+  static Map<String, Object> idealSourceParams() {
+    Map<String, Object> params = new LinkedHashMap<>();
+    params.put("type", "ideal");
+    params.put("amount", 1099);
+    params.put("name", "Jenny Rosen");
+    params.put("returnURL", "example://stripe-redirect");
+    params.put("statementDescriptor", "ORDER AT11990");
+    params.put("bank", "ing");
+    return params;
+  }
+
+  static Map<String, Object> shippingCountriesParams(int countries) {
+    List<Object> codes = new ArrayList<>();
+    String[] known = Locale.getISOCountries();
+    for (int i = 0; i < countries; i++) {
+      codes.add(known[i % known.length]);
+    }
+    Map<String, Object> params = new LinkedHashMap<>();
+    params.put("shipping_countries", codes);
+    return params;
+  }
+
+  /**
+   * Shaped like Source.getSourceTypeData() of an iDEAL source, plus {@code extraEntries} metadata-like strings.
+   * The nested variant adds a map and a list, which the converter used to drop.
+   */
+  static Map<String, Object> sourceTypeData(int extraEntries, boolean nested) {
+    Map<String, Object> data = new LinkedHashMap<>();
+    data.put("bank", "ing");
+    data.put("bic", "INGBNL2A");
+    data.put("iban_last4", "1234");
+    data.put("statement_descriptor", "ORDER AT11990");
+    data.put("amount", 1099);
+    data.put("three_d_secure_supported", Boolean.TRUE);
+    data.putAll(metadata(extraEntries));
+    if (nested) {
+      Map<String, Object> owner = new LinkedHashMap<>();
+      owner.put("name", "Jenny Rosen");
+      owner.put("verified", Boolean.FALSE);
+      data.put("owner", owner);
+      data.put("networks", new ArrayList<Object>(Arrays.asList("visa", "mastercard", 3L)));
+    }
+    return data;
+  }
+
+  private static Map<String, String> metadata(int entries) {
+    Map<String, String> metadata = new LinkedHashMap<>();
+    for (int i = 0; i < entries; i++) {
+      metadata.put("order_item_" + i, "sku_" + (100000 + i) + "|qty=1|note=gift wrap requested");
+    }
+    return metadata;
+  }
+
+  private static JSONObject json(String name) throws Exception {
+    try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name + ".json")) {
+      if (in == null) {
+        throw new IOException("Missing fixture " + name);
+      }
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return new JSONObject(out.toString("UTF-8"));
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package com.gettipsi.stripe;
+
+import com.facebook.react.bridge.WritableMap;
+import com.gettipsi.stripe.util.Converters;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+
+/**
+ * Converters.mapToWritableMap on its own, as used for Source.getSourceTypeData().
+ */
+@State(Scope.Benchmark)
+public class MapConversionBenchmark {
+
+  @Param({"0", "16", "256"})
+  public int extraEntries;
+
+  private Map<String, Object> flat;
+  private Map<String, Object> nested;
+
+  @Setup
+  public void setUp() {
+    flat = Fixtures.sourceTypeData(extraEntries, false);
+    nested = Fixtures.sourceTypeData(extraEntries, true);
+  }
+
+  @Benchmark
+  public WritableMap mapToWritableMap() {
+    return Converters.mapToWritableMap(flat);
+  }
+
+  @Benchmark
+  public WritableMap mapToWritableMapNested() {
+    return Converters.mapToWritableMap(nested);
+  }
+}
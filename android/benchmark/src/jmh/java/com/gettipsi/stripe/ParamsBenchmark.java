@@ -0,0 +1,78 @@
+package com.gettipsi.stripe;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReadableMap;
+import com.gettipsi.stripe.util.Converters;
+import com.stripe.android.model.Card;
+import com.stripe.android.model.ConfirmPaymentIntentParams;
+import com.stripe.android.model.ConfirmSetupIntentParams;
+import com.stripe.android.model.PaymentMethodCreateParams;
+import com.stripe.android.model.SourceParams;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collection;
+
+/**
+ * Parsing of the bridge params each call receives from JS, before any network work starts.
+ */
+@State(Scope.Benchmark)
+public class ParamsBenchmark {
+
+  private ReadableMap cardParams;
+  private ReadableMap shippingCountriesParams;
+  private ReadableMap paymentMethodParams;
+  private ReadableMap metadataHeavyPaymentMethodParams;
+  private ReadableMap confirmPaymentIntentParams;
+  private ReadableMap confirmSetupIntentParams;
+  private ReadableMap sourceParams;
+
+  @Setup
+  public void setUp() {
+    cardParams = Arguments.makeNativeMap(Fixtures.cardParams());
+    shippingCountriesParams = Arguments.makeNativeMap(Fixtures.shippingCountriesParams(40));
+    paymentMethodParams = Arguments.makeNativeMap(Fixtures.paymentMethodParams(0));
+    metadataHeavyPaymentMethodParams = Arguments.makeNativeMap(Fixtures.paymentMethodParams(256));
+    confirmPaymentIntentParams = Arguments.makeNativeMap(Fixtures.confirmPaymentIntentParams());
+    confirmSetupIntentParams = Arguments.makeNativeMap(Fixtures.confirmSetupIntentParams());
+    sourceParams = Arguments.makeNativeMap(Fixtures.idealSourceParams());
+  }
+
+  @Benchmark
+  public Card createCard() {
+    return Converters.createCard(cardParams);
+  }
+
+  @Benchmark
+  public Collection<String> getAllowedShippingCountryCodes() {
+    return Converters.getAllowedShippingCountryCodes(shippingCountriesParams);
+  }
+
+  @Benchmark
+  public PaymentMethodCreateParams paymentMethodCreateParams() {
+    return ParamsParsers.paymentMethodCreateParams(paymentMethodParams);
+  }
+
+  @Benchmark
+  public PaymentMethodCreateParams paymentMethodCreateParamsMetadataHeavy() {
+    return ParamsParsers.paymentMethodCreateParams(metadataHeavyPaymentMethodParams);
+  }
+
+  @Benchmark
+  public ConfirmPaymentIntentParams confirmPaymentIntentParams() {
+    return ParamsParsers.confirmPaymentIntentParams(confirmPaymentIntentParams);
+  }
+
+  @Benchmark
+  public ConfirmSetupIntentParams confirmSetupIntentParams() {
+    return ParamsParsers.confirmSetupIntentParams(confirmSetupIntentParams);
+  }
+
+  @Benchmark
+  public SourceParams sourceParams() {
+    return ParamsParsers.sourceParams(sourceParams);
+  }
+}
@@ -0,0 +1,37 @@
+package com.gettipsi.stripe;
+
+import com.facebook.react.bridge.WritableMap;
+import com.gettipsi.stripe.util.Converters;
+import com.gettipsi.stripe.util.Projection;
+import com.stripe.android.model.PaymentMethod;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class PaymentMethodConversionBenchmark {
+
+  @Param({"payment_method_minimal", "payment_method_card"})
+  public String fixture;
+
+  @Param({Fixtures.PROJECTION_ALL, Fixtures.PROJECTION_OMIT_NULLS, Fixtures.PROJECTION_LIST_ITEM})
+  public String projectionKind;
+
+  private PaymentMethod paymentMethod;
+  private Projection projection;
+
+  @Setup
+  public void setUp() throws Exception {
+    paymentMethod = Fixtures.paymentMethod(fixture, 0);
+    projection = Projection.fromOptions(
+      Fixtures.projection(projectionKind, "id", "card.brand", "card.last4", "card.expMonth", "card.expYear"));
+  }
+
+  @Benchmark
+  public WritableMap convertPaymentMethodToWritableMap() {
+    return Converters.convertPaymentMethodToWritableMap(paymentMethod, projection);
+  }
+}
@@ -0,0 +1,37 @@
+package com.gettipsi.stripe;
+
+import com.facebook.react.bridge.WritableMap;
+import com.gettipsi.stripe.util.Converters;
+import com.gettipsi.stripe.util.Projection;
+import com.stripe.android.model.Source;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class SourceConversionBenchmark {
+
+  @Param({"0", "16", "256"})
+  public int metadataEntries;
+
+  @Param({Fixtures.PROJECTION_ALL, Fixtures.PROJECTION_OMIT_NULLS, Fixtures.PROJECTION_LIST_ITEM})
+  public String projectionKind;
+
+  private Source source;
+  private Projection projection;
+
+  @Setup
+  public void setUp() throws Exception {
+    source = Fixtures.source("source_ideal", metadataEntries);
+    projection = Projection.fromOptions(
+      Fixtures.projection(projectionKind, "sourceId", "status", "amount", "currency", "owner.name"));
+  }
+
+  @Benchmark
+  public WritableMap convertSourceToWritableMap() {
+    return Converters.convertSourceToWritableMap(source, projection);
+  }
+}
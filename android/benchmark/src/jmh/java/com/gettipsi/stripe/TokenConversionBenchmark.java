@@ -0,0 +1,30 @@
+package com.gettipsi.stripe;
+
+import com.facebook.react.bridge.WritableMap;
+import com.gettipsi.stripe.util.Converters;
+import com.stripe.android.model.Token;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class TokenConversionBenchmark {
+
+  @Param({"token_card", "token_bank_account"})
+  public String fixture;
+
+  private Token token;
+
+  @Setup
+  public void setUp() throws Exception {
+    token = Fixtures.token(fixture);
+  }
+
+  @Benchmark
+  public WritableMap convertTokenToWritableMap() {
+    return Converters.convertTokenToWritableMap(token);
+  }
+}
@@ -0,0 +1,157 @@
+# Stripe model -> WritableMap converters, compiled into GeneratedConverters by converters.gradle.
+#
+#   converter <Name> <java type> [unknownStatusIfNull]
+#     let <local> <java type> <expression>
+#     <kind> <js key> <expression> [<converter name>]
+#
+# `value` is the object being converted. Field kinds:
+#   string, int, double, boolean   put as is
+#   string?                         put only when not null
+#   string!                         put only when not empty
+#   map                             nested converter, an empty map when the value is null
+#   map?                            nested converter, omitted when the value is null
+#   stringMap, objectMap            Map<String, String> / Map<String, Object>
+#
+# A null model converts to an empty map, or to { status: "unknown" } with unknownStatusIfNull.
+#
+# Every converter also has an overload taking a util.Projection: fields it does not include are
+# never read, and with omitNulls the null values of string, map, stringMap and objectMap fields are left out.
+
+converter Token com.stripe.android.model.Token
+  string    tokenId           value.getId()
+  boolean   livemode          value.getLivemode()
+  boolean   used              value.getUsed()
+  double    created           value.getCreated().getTime()
+  map?      card              value.getCard()                   Card
+  map?      bankAccount       value.getBankAccount()            BankAccount
+
+converter Card com.stripe.android.model.Card
+  string    cardId            value.getId()
+  string    number            value.getNumber()
+  string    cvc               value.getCVC()
+  int       expMonth          value.getExpMonth()
+  int       expYear           value.getExpYear()
+  string    name              value.getName()
+  string    addressLine1      value.getAddressLine1()
+  string    addressLine2      value.getAddressLine2()
+  string    addressCity       value.getAddressCity()
+  string    addressState      value.getAddressState()
+  string    addressZip        value.getAddressZip()
+  string    addressCountry    value.getAddressCountry()
+  string    last4             value.getLast4()
+  string    brand             value.getBrand()
+  string    funding           value.getFunding()
+  string    fingerprint       value.getFingerprint()
+  string    country           value.getCountry()
+  string    currency          value.getCurrency()
+
+converter BankAccount com.stripe.android.model.BankAccount
+  string    routingNumber     value.getRoutingNumber()
+  string    accountNumber     value.getAccountNumber()
+  string    countryCode       value.getCountryCode()
+  string    currency          value.getCurrency()
+  string    accountHolderName value.getAccountHolderName()
+  string    accountHolderType value.getAccountHolderType()
+  string    fingerprint       value.getFingerprint()
+  string    bankName          value.getBankName()
+  string    last4             value.getLast4()
+
+converter Source com.stripe.android.model.Source
+  string    sourceId          value.getId()
+  int       amount            value.getAmount().intValue()
+  int       created           value.getCreated().intValue()
+  map       codeVerification  value.getCodeVerification()       CodeVerification
+  string    currency          value.getCurrency()
+  string    flow              value.getFlow()
+  boolean   livemode          value.isLiveMode()
+  stringMap metadata          value.getMetaData()
+  map       owner             value.getOwner()                  Owner
+  map       receiver          value.getReceiver()               Receiver
+  map       redirect          value.getRedirect()               Redirect
+  objectMap sourceTypeData    value.getSourceTypeData()
+  string    status            value.getStatus()
+  string    type              value.getType()
+  string    typeRaw           value.getTypeRaw()
+  string    usage             value.getUsage()
+
+converter CodeVerification com.stripe.android.model.SourceCodeVerification
+  int       attemptsRemaining value.getAttemptsRemaining()
+  string    status            value.getStatus()
+
+converter Owner com.stripe.android.model.SourceOwner
+  map       address           value.getAddress()                Address
+  string    email             value.getEmail()
+  string    name              value.getName()
+  string    phone             value.getPhone()
+  string    verifiedEmail     value.getVerifiedEmail()
+  string    verifiedPhone     value.getVerifiedPhone()
+  string    verifiedName      value.getVerifiedName()
+  map       verifiedAddress   value.getVerifiedAddress()        Address
+
+converter Receiver com.stripe.android.model.SourceReceiver
+  int       amountCharged     (int) value.getAmountCharged()
+  int       amountReceived    (int) value.getAmountReceived()
+  int       amountReturned    (int) value.getAmountReturned()
+  string    address           value.getAddress()
+
+converter Redirect com.stripe.android.model.SourceRedirect
+  string    returnUrl         value.getReturnUrl()
+  string    status            value.getStatus()
+  string    url               value.getUrl()
+
+converter Address com.stripe.android.model.Address
+  string    city              value.getCity()
+  string    country           value.getCountry()
+  string    line1             value.getLine1()
+  string    line2             value.getLine2()
+  string    postalCode        value.getPostalCode()
+  string    state             value.getState()
+
+converter PaymentIntentResult com.stripe.android.PaymentIntentResult unknownStatusIfNull
+  let       intent            com.stripe.android.model.PaymentIntent value.getIntent()
+  string    status            intent.getStatus().toString()
+  string    paymentIntentId   intent.getId()
+
+converter SetupIntentResult com.stripe.android.SetupIntentResult unknownStatusIfNull
+  let       intent            com.stripe.android.model.SetupIntent value.getIntent()
+  string    status            intent.getStatus().toString()
+  string    setupIntentId     intent.getId()
+  string?   paymentMethodId   intent.getPaymentMethodId()
+
+converter PaymentMethod com.stripe.android.model.PaymentMethod
+  string    id                value.id
+  int       created           value.created.intValue()
+  boolean   livemode          value.liveMode
+  string    type              value.type
+  map       billingDetails    value.billingDetails              BillingDetails
+  map       card              value.card                        PaymentMethodCard
+  string    customerId        value.customerId
+
+converter PaymentMethodCard com.stripe.android.model.PaymentMethod.Card
+  string    brand             value.brand
+  string    country           value.country
+  int       expMonth          value.expiryMonth
+  int       expYear           value.expiryYear
+  string    funding           value.funding
+  string    last4             value.last4
+
+converter BillingDetails com.stripe.android.model.PaymentMethod.BillingDetails
+  map       address           value.address                     Address
+  string    email             value.email
+  string    name              value.name
+  string    phone             value.phone
+
+converter UserAddress com.google.android.gms.identity.intents.model.UserAddress
+  string!   address1          value.getAddress1()
+  string!   address2          value.getAddress2()
+  string!   address3          value.getAddress3()
+  string!   address4          value.getAddress4()
+  string!   address5          value.getAddress5()
+  string!   administrativeArea value.getAdministrativeArea()
+  string!   companyName       value.getCompanyName()
+  string!   countryCode       value.getCountryCode()
+  string!   locality          value.getLocality()
+  string!   name              value.getName()
+  string!   phoneNumber       value.getPhoneNumber()
+  string!   postalCode        value.getPostalCode()
+  string!   sortingCode       value.getSortingCode()
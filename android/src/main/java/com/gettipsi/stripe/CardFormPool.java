@@ -0,0 +1,122 @@
+package com.gettipsi.stripe;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.devmarvel.creditcardentry.library.CreditCardForm;
+import com.facebook.react.bridge.ReactContext;
+import com.gettipsi.stripe.util.Metrics;
+import com.gettipsi.stripe.util.Tracing;
+
+import java.util.ArrayDeque;
+
+/**
+ * Ready-made CreditCardForms for TPSCardField, so mounting a card field does not inflate one on the spot.
+ * Filled on request with {@link #prewarm(ReactContext, int)}, one form per main thread idle pass.
+ * <p>
+ * Pooled forms are built on a {@link MutableContextWrapper}: the current activity while building, so they pick up
+ * its theme, the application context while pooled, so the pool never holds on to an activity, and the mounting
+ * screen's context once taken. Main thread only, apart from {@link #prewarm(ReactContext, int)}.
+ */
+final class CardFormPool {
+
+  static final int MAX_SIZE = 4;
+
+  interface Factory {
+    /**
+     * Builds a form with its listeners wired, ready to be mounted.
+     */
+    @NonNull
+    CreditCardForm create(@NonNull Context context);
+  }
+
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private final ArrayDeque<CreditCardForm> forms = new ArrayDeque<>();
+  @Nullable
+  private Factory factory;
+  private int target;
+  private boolean filling;
+
+  void setFactory(@NonNull Factory factory) {
+    this.factory = factory;
+  }
+
+  /**
+   * Tops the pool up to {@code count} forms (at most {@value #MAX_SIZE}) while the main thread is idle.
+   * Does nothing until a card field manager is registered as the factory.
+   */
+  void prewarm(@NonNull final ReactContext reactContext, int count) {
+    final int size = Math.max(0, Math.min(count, MAX_SIZE));
+    mainHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        target = Math.max(target, size);
+        if (!filling && forms.size() < target) {
+          filling = true;
+          Looper.myQueue().addIdleHandler(new Filler(reactContext));
+        }
+      }
+    });
+  }
+
+  /**
+   * @return a pooled form now running on {@code context}, null when the pool is empty
+   */
+  @Nullable
+  CreditCardForm take(@NonNull Context context) {
+    CreditCardForm form = forms.poll();
+    if (form != null) {
+      ((MutableContextWrapper) form.getContext()).setBaseContext(context);
+    }
+    return form;
+  }
+
+  void clear() {
+    mainHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        target = 0;
+        forms.clear();
+      }
+    });
+  }
+
+  private final class Filler implements MessageQueue.IdleHandler {
+
+    private final ReactContext reactContext;
+
+    Filler(ReactContext reactContext) {
+      this.reactContext = reactContext;
+    }
+
+    // One form per idle pass, input and frames queued meanwhile go first
+    @Override
+    public boolean queueIdle() {
+      if (factory == null || forms.size() >= target || !reactContext.hasActiveCatalystInstance()) {
+        filling = false;
+        return false;
+      }
+
+      Activity activity = reactContext.getCurrentActivity();
+      MutableContextWrapper context = new MutableContextWrapper(activity != null ? activity : reactContext);
+      long start = System.nanoTime();
+      boolean traced = Tracing.beginSection("CardFormPool.build");
+      try {
+        forms.add(factory.create(context));
+      } finally {
+        Tracing.endSection(traced);
+      }
+      context.setBaseContext(reactContext.getApplicationContext());
+      Metrics.recordSince("cardFormPool.build", start);
+
+      filling = forms.size() < target;
+      return filling;
+    }
+  }
+}
@@ -4,6 +4,7 @@ import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.uimanager.events.Event;
 import com.facebook.react.uimanager.events.RCTEventEmitter;
+import com.gettipsi.stripe.util.CardValidator;
 
 /**
  * Created by dmitriy on 11/17/16
@@ -11,13 +12,37 @@ import com.facebook.react.uimanager.events.RCTEventEmitter;
 public class CreditCardFormOnChangeEvent extends Event<CreditCardFormOnChangeEvent> {
 
     private static final String EVENT_NAME = "topChange";
-    private final WritableMap params;
-    private final boolean isValid;
+    private static final String NUMBER = "number";
+    private static final String EXP_MONTH = "expMonth";
+    private static final String EXP_YEAR = "expYear";
+    private static final String CCV = "cvc";
+    // A single key per view: events of a view queued within one frame are merged into one
+    private static final short COALESCING_KEY = 0;
 
-    public CreditCardFormOnChangeEvent(int id, WritableMap params, boolean isValid) {
+    public static final int NUMBER_CHANGED = 1;
+    public static final int EXP_MONTH_CHANGED = 1 << 1;
+    public static final int EXP_YEAR_CHANGED = 1 << 2;
+    public static final int CCV_CHANGED = 1 << 3;
+
+    private final int changedFields;
+    private final String number;
+    private final int expMonth;
+    private final int expYear;
+    private final String cvc;
+    private final CardValidator.Status status;
+
+    /**
+     * Only the fields flagged in {@code changedFields} are sent, the validation state always is.
+     */
+    public CreditCardFormOnChangeEvent(int id, int changedFields, String number, int expMonth, int expYear, String cvc,
+                                       CardValidator.Status status) {
         super(id);
-        this.params = params;
-        this.isValid = isValid;
+        this.changedFields = changedFields;
+        this.number = number;
+        this.expMonth = expMonth;
+        this.expYear = expYear;
+        this.cvc = cvc;
+        this.status = status;
     }
 
     @Override
@@ -25,14 +50,83 @@ public class CreditCardFormOnChangeEvent extends Event<CreditCardFormOnChangeEve
         return EVENT_NAME;
     }
 
+    /**
+     * Events of the same view queued within one frame collapse into one, so a paste or fast typing
+     * reaches JS at most once per frame.
+     */
+    @Override
+    public boolean canCoalesce() {
+        return true;
+    }
+
+    @Override
+    public short getCoalescingKey() {
+        return COALESCING_KEY;
+    }
+
+    /**
+     * Each event only carries its own changes, so instead of keeping the newest event the changes of both are
+     * merged, the newer value winning for a field both changed.
+     */
+    @Override
+    public CreditCardFormOnChangeEvent coalesce(CreditCardFormOnChangeEvent otherEvent) {
+        CreditCardFormOnChangeEvent newer = getTimestampMs() >= otherEvent.getTimestampMs() ? this : otherEvent;
+        CreditCardFormOnChangeEvent older = newer == this ? otherEvent : this;
+        if ((older.changedFields & ~newer.changedFields) == 0) {
+            return newer;
+        }
+
+        return new CreditCardFormOnChangeEvent(
+                getViewTag(),
+                newer.changedFields | older.changedFields,
+                (newer.changedFields & NUMBER_CHANGED) != 0 ? newer.number : older.number,
+                (newer.changedFields & EXP_MONTH_CHANGED) != 0 ? newer.expMonth : older.expMonth,
+                (newer.changedFields & EXP_YEAR_CHANGED) != 0 ? newer.expYear : older.expYear,
+                (newer.changedFields & CCV_CHANGED) != 0 ? newer.cvc : older.cvc,
+                newer.status);
+    }
+
     @Override
     public void dispatch(RCTEventEmitter rctEventEmitter) {
         rctEventEmitter.receiveEvent(getViewTag(), getEventName(), serializeEventData());
     }
 
+    // Built only for the event that survives coalescing
     private WritableMap serializeEventData() {
+        WritableMap params = Arguments.createMap();
+        if ((changedFields & NUMBER_CHANGED) != 0) {
+            params.putString(NUMBER, number);
+        }
+        if ((changedFields & EXP_MONTH_CHANGED) != 0) {
+            params.putInt(EXP_MONTH, expMonth);
+        }
+        if ((changedFields & EXP_YEAR_CHANGED) != 0) {
+            params.putInt(EXP_YEAR, expYear);
+        }
+        if ((changedFields & CCV_CHANGED) != 0) {
+            params.putString(CCV, cvc);
+        }
+
+        WritableMap errors = Arguments.createMap();
+        if (status.numberError != null) {
+            errors.putString(NUMBER, status.numberError);
+        }
+        if (status.expiryError != null) {
+            errors.putString("expiry", status.expiryError);
+        }
+        if (status.cvcError != null) {
+            errors.putString(CCV, status.cvcError);
+        }
+
         WritableMap eventData = Arguments.createMap();
-        eventData.putBoolean("valid", isValid);
+        eventData.putBoolean("valid", status.isValid());
+        eventData.putString("brand", status.brand);
+        eventData.putString("funding", status.funding);
+        eventData.putString("country", status.country);
+        eventData.putBoolean("numberComplete", status.numberComplete);
+        eventData.putBoolean("expiryComplete", status.expiryComplete);
+        eventData.putBoolean("cvcComplete", status.cvcComplete);
+        eventData.putMap("errors", errors);
         eventData.putMap("params", params);
         return eventData;
     }
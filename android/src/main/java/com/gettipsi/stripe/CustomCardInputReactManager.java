@@ -1,6 +1,11 @@
 package com.gettipsi.stripe;
 
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
 import android.text.Editable;
+import android.text.TextUtils;
 import android.text.TextWatcher;
 import android.util.AttributeSet;
 import android.util.Log;
@@ -9,15 +14,20 @@ import android.widget.EditText;
 import android.view.inputmethod.InputMethodManager;
 
 import com.devmarvel.creditcardentry.library.CreditCardForm;
-import com.facebook.react.bridge.Arguments;
-import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.ReactContext;
 import com.facebook.react.uimanager.SimpleViewManager;
 import com.facebook.react.uimanager.ThemedReactContext;
 import com.facebook.react.uimanager.UIManagerModule;
 import com.facebook.react.uimanager.annotations.ReactProp;
+import com.gettipsi.stripe.util.BinTable;
+import com.gettipsi.stripe.util.CardValidator;
+import com.gettipsi.stripe.util.Metrics;
 
 import org.xmlpull.v1.XmlPullParser;
 
+import java.util.Map;
+import java.util.WeakHashMap;
+
 /**
  * Created by dmitriy on 11/15/16
  */
@@ -26,38 +36,90 @@ public class CustomCardInputReactManager extends SimpleViewManager<CreditCardFor
 
   public static final String REACT_CLASS = "TPSCardField";
   private static final String TAG = CustomCardInputReactManager.class.getSimpleName();
-  private static final String NUMBER = "number";
-  private static final String EXP_MONTH = "expMonth";
-  private static final String EXP_YEAR = "expYear";
-  private static final String CCV = "cvc";
 
-  private ThemedReactContext reactContext;
-  private WritableMap currentParams;
+  // Several card fields can be mounted at once, each keeps its own values and throttling state
+  private final Map<CreditCardForm, FieldState> fieldStates = new WeakHashMap<>();
+  private final CardFormPool pool;
+  private AttributeSet attributes;
+
+  private static final class FieldState {
+    // Normalized values, "" and 0 are what JS starts with (EMPTY_PARAMS in PaymentCardTextField.js)
+    String currentNumber = "";
+    int currentMonth;
+    int currentYear;
+    String currentCCV = "";
+    // Fed from the text watchers, replaces re-validating the whole card on every keystroke
+    final CardValidator validator = new CardValidator();
+
+    // What the last dispatched event left JS with
+    String sentNumber = "";
+    int sentMonth;
+    int sentYear;
+    String sentCCV = "";
+    CardValidator.Status sentStatus;
+
+    int throttleMs;
+    long lastDispatchAt;
+    Runnable trailingDispatch;
+
+    int changedFields() {
+      int changed = 0;
+      if (!TextUtils.equals(currentNumber, sentNumber)) {
+        changed |= CreditCardFormOnChangeEvent.NUMBER_CHANGED;
+      }
+      if (currentMonth != sentMonth) {
+        changed |= CreditCardFormOnChangeEvent.EXP_MONTH_CHANGED;
+      }
+      if (currentYear != sentYear) {
+        changed |= CreditCardFormOnChangeEvent.EXP_YEAR_CHANGED;
+      }
+      if (!TextUtils.equals(currentCCV, sentCCV)) {
+        changed |= CreditCardFormOnChangeEvent.CCV_CHANGED;
+      }
+      return changed;
+    }
+
+    boolean statusChanged() {
+      return !validator.status().equals(sentStatus);
+    }
 
-  private String currentNumber;
-  private int currentMonth;
-  private int currentYear;
-  private String currentCCV;
+    void markSent(CardValidator.Status status) {
+      sentNumber = currentNumber;
+      sentMonth = currentMonth;
+      sentYear = currentYear;
+      sentCCV = currentCCV;
+      sentStatus = status;
+    }
+  }
 
   @Override
   public String getName() {
     return REACT_CLASS;
   }
 
+  public CustomCardInputReactManager() {
+    this(new CardFormPool());
+  }
+
+  CustomCardInputReactManager(@NonNull CardFormPool pool) {
+    this.pool = pool;
+    pool.setFactory(new CardFormPool.Factory() {
+      @NonNull
+      @Override
+      public CreditCardForm create(@NonNull Context context) {
+        return createForm(context);
+      }
+    });
+  }
+
   @Override
   protected CreditCardForm createViewInstance(final ThemedReactContext reactContext) {
-    XmlPullParser parser = reactContext.getResources().getXml(R.xml.stub_material);
-    try {
-      parser.next();
-      parser.nextTag();
-    } catch (Exception e) {
-      e.printStackTrace();
-    }
+    long start = System.nanoTime();
+    // Read off the UI thread, the first keystrokes fall back to prefix rules until it is there
+    BinTable.preload(reactContext);
 
-    AttributeSet attr = Xml.asAttributeSet(parser);
-    final CreditCardForm creditCardForm = new CreditCardForm(reactContext, attr);
-    setListeners(creditCardForm);
-    this.reactContext = reactContext;
+    CreditCardForm pooled = pool.take(reactContext);
+    final CreditCardForm creditCardForm = pooled != null ? pooled : createForm(reactContext);
     creditCardForm.post(new Runnable() {
       @Override
       public void run() {
@@ -66,9 +128,49 @@ public class CustomCardInputReactManager extends SimpleViewManager<CreditCardFor
         creditCardForm.focusCreditCard();
       }
     });
+    Metrics.recordSince(pooled != null ? "cardField.pooled" : "cardField.create", start);
+    return creditCardForm;
+  }
+
+  private CreditCardForm createForm(Context context) {
+    CreditCardForm creditCardForm = new CreditCardForm(context, attributesOf(context));
+    setListeners(creditCardForm);
     return creditCardForm;
   }
 
+  // The stub never changes, its parser is positioned on the root tag once and reused as the AttributeSet
+  private AttributeSet attributesOf(Context context) {
+    if (attributes == null) {
+      XmlPullParser parser = context.getResources().getXml(R.xml.stub_material);
+      try {
+        parser.next();
+        parser.nextTag();
+      } catch (Exception e) {
+        e.printStackTrace();
+      }
+      attributes = Xml.asAttributeSet(parser);
+    }
+    return attributes;
+  }
+
+  @Override
+  public void onDropViewInstance(CreditCardForm view) {
+    super.onDropViewInstance(view);
+    FieldState state = fieldStates.remove(view);
+    if (state != null && state.trailingDispatch != null) {
+      view.removeCallbacks(state.trailingDispatch);
+    }
+  }
+
+  /**
+   * At most one change event per {@code throttleMs}, the latest values are sent once the interval is over.
+   * 0, the default, sends every change (still coalesced to one event per frame).
+   */
+  @ReactProp(name = "onChangeThrottleMs")
+  public void setOnChangeThrottleMs(CreditCardForm view, int throttleMs) {
+    stateOf(view).throttleMs = Math.max(0, throttleMs);
+  }
+
   @ReactProp(name = "enabled")
   public void setEnabled(CreditCardForm view, boolean enabled) {
     view.setEnabled(enabled);
@@ -112,6 +214,7 @@ public class CustomCardInputReactManager extends SimpleViewManager<CreditCardFor
 
 
   private void setListeners(final CreditCardForm view){
+    final FieldState state = stateOf(view);
 
     final EditText ccNumberEdit = (EditText) view.findViewById(R.id.cc_card);
     final EditText ccExpEdit = (EditText) view.findViewById(R.id.cc_exp);
@@ -125,7 +228,8 @@ public class CustomCardInputReactManager extends SimpleViewManager<CreditCardFor
       @Override
       public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
         Log.d(TAG, "onTextChanged: cardNumber = "+charSequence);
-        currentNumber = charSequence.toString().replaceAll(" ", "");
+        state.currentNumber = charSequence.toString().replaceAll(" ", "");
+        state.validator.setNumber(charSequence);
         postEvent(view);
       }
 
@@ -143,16 +247,17 @@ public class CustomCardInputReactManager extends SimpleViewManager<CreditCardFor
       public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
         Log.d(TAG, "onTextChanged: EXP_YEAR = "+charSequence);
         try {
-          currentMonth = view.getCreditCard().getExpMonth();
+          state.currentMonth = view.getCreditCard().getExpMonth();
         }catch (Exception e){
           if (charSequence.length() == 0)
-            currentMonth = 0;
+            state.currentMonth = 0;
         }
         try {
-          currentYear = view.getCreditCard().getExpYear();
+          state.currentYear = view.getCreditCard().getExpYear();
         }catch (Exception e){
-          currentYear = 0;
+          state.currentYear = 0;
         }
+        state.validator.setExpiry(charSequence);
         postEvent(view);
       }
 
@@ -169,7 +274,8 @@ public class CustomCardInputReactManager extends SimpleViewManager<CreditCardFor
       @Override
       public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
         Log.d(TAG, "onTextChanged: CCV = "+charSequence);
-        currentCCV = charSequence.toString();
+        state.currentCCV = charSequence.toString();
+        state.validator.setCvc(charSequence);
         postEvent(view);
       }
 
@@ -179,15 +285,64 @@ public class CustomCardInputReactManager extends SimpleViewManager<CreditCardFor
     });
   }
 
-  private void postEvent(CreditCardForm view){
-    currentParams = Arguments.createMap();
-    currentParams.putString(NUMBER, currentNumber);
-    currentParams.putInt(EXP_MONTH, currentMonth);
-    currentParams.putInt(EXP_YEAR, currentYear);
-    currentParams.putString(CCV, currentCCV);
-    reactContext.getNativeModule(UIManagerModule.class)
+  private FieldState stateOf(CreditCardForm view) {
+    FieldState state = fieldStates.get(view);
+    if (state == null) {
+      state = new FieldState();
+      fieldStates.put(view, state);
+    }
+    return state;
+  }
+
+  private void postEvent(final CreditCardForm view){
+    final FieldState state = stateOf(view);
+    // Reformatting and re-entering the same text leave the normalized values as they are
+    if (state.changedFields() == 0 && !state.statusChanged()) {
+      return;
+    }
+    if (state.throttleMs > 0) {
+      long wait = state.lastDispatchAt + state.throttleMs - SystemClock.uptimeMillis();
+      if (wait > 0) {
+        // The trailing dispatch reads the values when it runs, one pending dispatch is enough
+        if (state.trailingDispatch == null) {
+          state.trailingDispatch = new Runnable() {
+            @Override
+            public void run() {
+              state.trailingDispatch = null;
+              dispatchChange(view, state);
+            }
+          };
+          view.postDelayed(state.trailingDispatch, wait);
+        }
+        return;
+      }
+    }
+    dispatchChange(view, state);
+  }
+
+  private void dispatchChange(CreditCardForm view, FieldState state) {
+    int changedFields = state.changedFields();
+    CardValidator.Status status = state.validator.status();
+    if (changedFields == 0 && status.equals(state.sentStatus)) {
+      // A trailing dispatch whose changes were undone in the meantime
+      return;
+    }
+
+    state.lastDispatchAt = SystemClock.uptimeMillis();
+    state.markSent(status);
+    reactContextOf(view).getNativeModule(UIManagerModule.class)
       .getEventDispatcher().dispatchEvent(
-      new CreditCardFormOnChangeEvent(view.getId(), currentParams, view.isCreditCardValid()));
+      new CreditCardFormOnChangeEvent(view.getId(), changedFields, state.currentNumber, state.currentMonth,
+        state.currentYear, state.currentCCV, status));
+  }
+
+  // Pooled forms run on a MutableContextWrapper around the screen's context
+  private static ReactContext reactContextOf(CreditCardForm view) {
+    Context context = view.getContext();
+    if (context instanceof MutableContextWrapper) {
+      context = ((MutableContextWrapper) context).getBaseContext();
+    }
+    return (ReactContext) context;
   }
 
   private void updateView(CreditCardForm view){
@@ -20,6 +20,7 @@ public final class Errors {
   public static final String FAILED = "failed";
   public static final String AUTHENTICATION_FAILED = "authenticationFailed";
   public static final String UNEXPECTED = "unexpected";
+  public static final String NOT_FOUND = "notFound";
 
   static {
     exceptionNameToErrorCode.put("APIConnectionException", "apiConnection");
@@ -30,6 +31,7 @@ public final class Errors {
     exceptionNameToErrorCode.put("InvalidRequestException", "invalidRequest");
     exceptionNameToErrorCode.put("RateLimitException", "rateLimit");
     exceptionNameToErrorCode.put("APIException", "api");
+    exceptionNameToErrorCode.put("InvalidParamsException", "invalidParams");
   }
 
   public static String toErrorCode(@NonNull Exception exception) {
@@ -3,12 +3,19 @@ package com.gettipsi.stripe;
 import android.app.Activity;
 import android.content.Intent;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReadableMap;
 import com.gettipsi.stripe.util.ArgCheck;
 import com.gettipsi.stripe.util.Converters;
+import com.gettipsi.stripe.util.ExpiringLruCache;
 import com.gettipsi.stripe.util.Fun0;
+import com.gettipsi.stripe.util.LatencyHistogram;
+import com.gettipsi.stripe.util.Metrics;
+import com.gettipsi.stripe.util.SingleFlight;
+import com.gettipsi.stripe.util.StripeExecutors;
+import com.gettipsi.stripe.util.Tracing;
 import com.google.android.gms.common.api.ApiException;
 import com.google.android.gms.common.api.Status;
 import com.google.android.gms.tasks.OnCompleteListener;
@@ -22,13 +29,15 @@ import com.google.android.gms.wallet.PaymentMethodTokenizationParameters;
 import com.google.android.gms.wallet.PaymentsClient;
 import com.google.android.gms.wallet.ShippingAddressRequirements;
 import com.google.android.gms.wallet.TransactionInfo;
-import com.google.android.gms.wallet.Wallet;
 import com.google.android.gms.wallet.WalletConstants;
 import com.stripe.android.BuildConfig;
 import com.stripe.android.model.Token;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.gettipsi.stripe.Errors.toErrorCode;
 import static com.gettipsi.stripe.util.Converters.convertTokenToWritableMap;
@@ -51,22 +60,75 @@ public final class GoogleApiPayFlowImpl extends PayFlow {
   private static final String TAG = GoogleApiPayFlowImpl.class.getSimpleName();
   private static final int LOAD_PAYMENT_DATA_REQUEST_CODE = 65534;
 
-  private PaymentsClient mPaymentsClient;
-  private Promise payPromise;
+  private static final LatencyHistogram IS_READY_TO_PAY_LATENCY = Metrics.histogram("isReadyToPay.sdk");
+  // From launching the Google Pay sheet to its activity result
+  private static final LatencyHistogram PAYMENT_SHEET_LATENCY = Metrics.histogram("paymentRequestWithAndroidPay.activity");
+  // Main thread time spent in onActivityResult, while the sheet animates out
+  private static final LatencyHistogram RESULT_MAIN_THREAD_LATENCY = Metrics.histogram("paymentRequestWithAndroidPay.mainThread");
+  // Parsing the payment data and converting the token, on the background executor
+  private static final LatencyHistogram RESULT_PARSE_LATENCY = Metrics.histogram("paymentRequestWithAndroidPay.parse");
+
+  private static final long DEFAULT_READINESS_TTL_MS = 30000;
+
+  private enum Readiness {
+    READY,
+    NOT_READY,
+    PLAY_SERVICES_UNAVAILABLE
+  }
+
+  // An outcome reported with one of the module's error codes
+  private static final class UnavailableException extends Exception {
+    final String errorKey;
+
+    UnavailableException(String errorKey) {
+      super(errorKey);
+      this.errorKey = errorKey;
+    }
+  }
+
+  // Prefetched checks only fill the cache
+  private static final SingleFlight.Callback<Readiness> IGNORED_READINESS = new SingleFlight.Callback<Readiness>() {
+    @Override
+    public void onSuccess(Readiness value) {
+    }
+
+    @Override
+    public void onError(Exception error) {
+    }
+  };
+
+  // Key of payParams referring to a request built by preparePaymentRequest
+  private static final String HANDLE = "handle";
+  private static final int MAX_PREPARED_REQUESTS = 8;
+  private static final long PREPARED_REQUEST_TTL_MS = 30 * 60 * 1000;
+  private static final List<Integer> CARD_NETWORKS = Collections.unmodifiableList(Arrays.asList(
+    WalletConstants.CARD_NETWORK_AMEX,
+    WalletConstants.CARD_NETWORK_DISCOVER,
+    WalletConstants.CARD_NETWORK_VISA,
+    WalletConstants.CARD_NETWORK_MASTERCARD));
+
+  private final PaymentsClientCache mPaymentsClients = new PaymentsClientCache();
+  private final ExpiringLruCache<PreparedRequest> mPreparedRequests = new ExpiringLruCache<>(MAX_PREPARED_REQUESTS);
+  private final AtomicInteger mPreparedIds = new AtomicInteger();
+  // Only depend on the publishable key, rebuilt when it changes
+  private PaymentMethodTokenizationParameters mTokenization;
+  private String mTokenizationKey;
+  private final SingleFlight<Readiness> mReadiness = new SingleFlight<>();
+  private final PendingPayment mPendingPayment = new PendingPayment();
 
   public GoogleApiPayFlowImpl(@NonNull Fun0<Activity> activityProvider) {
     super(activityProvider);
+    mReadiness.setReuseTtlMs(DEFAULT_READINESS_TTL_MS);
   }
 
-  private PaymentsClient createPaymentsClient(@NonNull Activity activity) {
-    return Wallet.getPaymentsClient(
-      activity,
-      new Wallet.WalletOptions.Builder().setEnvironment(getEnvironment()).build());
+  private PaymentsClient getPaymentsClient(@NonNull Activity activity) {
+    return mPaymentsClients.get(activity, getEnvironment());
   }
 
-  private void isReadyToPay(@NonNull Activity activity, boolean isExistingPaymentMethodRequired, @NonNull final Promise promise) {
+  private void isReadyToPay(@NonNull Activity activity, boolean isExistingPaymentMethodRequired,
+                            @NonNull final SingleFlight.Callback<Readiness> callback) {
     ArgCheck.nonNull(activity);
-    ArgCheck.nonNull(promise);
+    ArgCheck.nonNull(callback);
 
     IsReadyToPayRequest request =
       IsReadyToPayRequest.newBuilder()
@@ -74,16 +136,18 @@ public final class GoogleApiPayFlowImpl extends PayFlow {
         .addAllowedPaymentMethod(WalletConstants.PAYMENT_METHOD_TOKENIZED_CARD)
         .setExistingPaymentMethodRequired(isExistingPaymentMethodRequired)
         .build();
-    mPaymentsClient = createPaymentsClient(activity);
-    Task<Boolean> task = mPaymentsClient.isReadyToPay(request);
+    PaymentsClient paymentsClient = getPaymentsClient(activity);
+    final long startedAt = System.nanoTime();
+    Task<Boolean> task = paymentsClient.isReadyToPay(request);
     task.addOnCompleteListener(
       new OnCompleteListener<Boolean>() {
         public void onComplete(Task<Boolean> task) {
+          IS_READY_TO_PAY_LATENCY.record(System.nanoTime() - startedAt);
           try {
             boolean result = task.getResult(ApiException.class);
-            promise.resolve(result);
+            callback.onSuccess(result ? Readiness.READY : Readiness.NOT_READY);
           } catch (ApiException exception) {
-            promise.reject(toErrorCode(exception), exception.getMessage());
+            callback.onError(exception);
           }
         }
       });
@@ -98,7 +162,21 @@ public final class GoogleApiPayFlowImpl extends PayFlow {
       .build();
   }
 
-  private PaymentDataRequest createPaymentDataRequest(ReadableMap payParams) {
+  private PaymentMethodTokenizationParameters getTokenizationParameters() {
+    String publishableKey = getPublishableKey();
+    synchronized (this) {
+      if (mTokenization == null || !publishableKey.equals(mTokenizationKey)) {
+        mTokenization = createPaymentMethodTokenizationParameters();
+        mTokenizationKey = publishableKey;
+      }
+      return mTokenization;
+    }
+  }
+
+  /**
+   * Validates the params and builds everything of the request that does not depend on the cart total.
+   */
+  private PreparedRequest prepare(ReadableMap payParams) {
     final String estimatedTotalPrice = payParams.getString(TOTAL_PRICE);
     final String currencyCode = payParams.getString(CURRENCY_CODE);
     final boolean billingAddressRequired = Converters.getValue(payParams, BILLING_ADDRESS_REQUIRED, false);
@@ -107,73 +185,105 @@ public final class GoogleApiPayFlowImpl extends PayFlow {
     final boolean emailRequired = Converters.getValue(payParams, EMAIL_REQUIRED, false);
     final Collection<String> allowedCountryCodes = getAllowedShippingCountryCodes(payParams);
 
-    return createPaymentDataRequest(
-      estimatedTotalPrice,
+    ArgCheck.isDouble(estimatedTotalPrice);
+    ArgCheck.notEmptyString(currencyCode);
+
+    CardRequirements cardRequirements = CardRequirements.newBuilder()
+      .addAllowedCardNetworks(CARD_NETWORKS)
+      .setBillingAddressRequired(billingAddressRequired)
+      .build();
+    ShippingAddressRequirements shippingAddressRequirements = allowedCountryCodes.size() > 0
+      ? ShippingAddressRequirements.newBuilder().addAllowedCountryCodes(allowedCountryCodes).build()
+      : null;
+
+    return new PreparedRequest(
       currencyCode,
-      billingAddressRequired,
       shippingAddressRequired,
       phoneNumberRequired,
       emailRequired,
-      allowedCountryCodes
-    );
+      cardRequirements,
+      shippingAddressRequirements,
+      getTokenizationParameters(),
+      estimatedTotalPrice);
   }
 
-  private PaymentDataRequest createPaymentDataRequest(@NonNull final String totalPrice,
-                                                      @NonNull final String currencyCode,
-                                                      final boolean billingAddressRequired,
-                                                      final boolean shippingAddressRequired,
-                                                      final boolean phoneNumberRequired,
-                                                      final boolean emailRequired,
-                                                      @NonNull final Collection<String> countryCodes
-  ) {
-
-    ArgCheck.isDouble(totalPrice);
-    ArgCheck.notEmptyString(currencyCode);
+  /**
+   * A request built ahead of the tap. Immutable, only the total and, after a publishable key change,
+   * the tokenization parameters are swapped in by building a new request from the same parts.
+   */
+  private static final class PreparedRequest {
+    final String currencyCode;
+    final boolean shippingAddressRequired;
+    final boolean phoneNumberRequired;
+    final boolean emailRequired;
+    final CardRequirements cardRequirements;
+    @Nullable
+    final ShippingAddressRequirements shippingAddressRequirements;
+    final PaymentMethodTokenizationParameters tokenization;
+    final String totalPrice;
+    final PaymentDataRequest request;
+
+    PreparedRequest(@NonNull String currencyCode,
+                    boolean shippingAddressRequired,
+                    boolean phoneNumberRequired,
+                    boolean emailRequired,
+                    @NonNull CardRequirements cardRequirements,
+                    @Nullable ShippingAddressRequirements shippingAddressRequirements,
+                    @NonNull PaymentMethodTokenizationParameters tokenization,
+                    @NonNull String totalPrice) {
+      this.currencyCode = currencyCode;
+      this.shippingAddressRequired = shippingAddressRequired;
+      this.phoneNumberRequired = phoneNumberRequired;
+      this.emailRequired = emailRequired;
+      this.cardRequirements = cardRequirements;
+      this.shippingAddressRequirements = shippingAddressRequirements;
+      this.tokenization = tokenization;
+      this.totalPrice = totalPrice;
+      this.request = build(totalPrice, tokenization);
+    }
 
-    PaymentDataRequest.Builder builder = PaymentDataRequest.newBuilder();
-    builder.setTransactionInfo(
-      TransactionInfo.newBuilder()
-        .setTotalPriceStatus(WalletConstants.TOTAL_PRICE_STATUS_ESTIMATED)
-        .setTotalPrice(totalPrice)
-        .setCurrencyCode(currencyCode)
-        .build());
-
-    builder
-      .setCardRequirements(
-        CardRequirements.newBuilder()
-          .addAllowedCardNetworks(
-            Arrays.asList(
-              WalletConstants.CARD_NETWORK_AMEX,
-              WalletConstants.CARD_NETWORK_DISCOVER,
-              WalletConstants.CARD_NETWORK_VISA,
-              WalletConstants.CARD_NETWORK_MASTERCARD))
-          .setBillingAddressRequired(billingAddressRequired)
-          .build())
-      .addAllowedPaymentMethod(WalletConstants.PAYMENT_METHOD_CARD)
-      .addAllowedPaymentMethod(WalletConstants.PAYMENT_METHOD_TOKENIZED_CARD)
-      .setEmailRequired(emailRequired)
-      .setShippingAddressRequired(shippingAddressRequired)
-      .setPhoneNumberRequired(phoneNumberRequired);
-
-    if (countryCodes.size() > 0) {
-      builder.setShippingAddressRequirements(
-        ShippingAddressRequirements.newBuilder()
-          .addAllowedCountryCodes(countryCodes)
-          .build());
+    /**
+     * @param totalPrice the cart total, null keeps the prepared one
+     */
+    PaymentDataRequest requestFor(@Nullable String totalPrice, @NonNull PaymentMethodTokenizationParameters tokenization) {
+      if ((totalPrice == null || totalPrice.equals(this.totalPrice)) && tokenization == this.tokenization) {
+        return request;
+      }
+      if (totalPrice != null) {
+        ArgCheck.isDouble(totalPrice);
+      }
+      return build(totalPrice != null ? totalPrice : this.totalPrice, tokenization);
     }
 
-    builder.setPaymentMethodTokenizationParameters(createPaymentMethodTokenizationParameters());
-    return builder.build();
+    private PaymentDataRequest build(String totalPrice, PaymentMethodTokenizationParameters tokenization) {
+      PaymentDataRequest.Builder builder = PaymentDataRequest.newBuilder()
+        .setTransactionInfo(
+          TransactionInfo.newBuilder()
+            .setTotalPriceStatus(WalletConstants.TOTAL_PRICE_STATUS_ESTIMATED)
+            .setTotalPrice(totalPrice)
+            .setCurrencyCode(currencyCode)
+            .build())
+        .setCardRequirements(cardRequirements)
+        .addAllowedPaymentMethod(WalletConstants.PAYMENT_METHOD_CARD)
+        .addAllowedPaymentMethod(WalletConstants.PAYMENT_METHOD_TOKENIZED_CARD)
+        .setEmailRequired(emailRequired)
+        .setShippingAddressRequired(shippingAddressRequired)
+        .setPhoneNumberRequired(phoneNumberRequired)
+        .setPaymentMethodTokenizationParameters(tokenization);
+
+      if (shippingAddressRequirements != null) {
+        builder.setShippingAddressRequirements(shippingAddressRequirements);
+      }
+      return builder.build();
+    }
   }
 
   private void startPaymentRequest(@NonNull Activity activity, @NonNull PaymentDataRequest request) {
     ArgCheck.nonNull(activity);
     ArgCheck.nonNull(request);
 
-    mPaymentsClient = createPaymentsClient(activity);
-
     AutoResolveHelper.resolveTask(
-      mPaymentsClient.loadPaymentData(request),
+      getPaymentsClient(activity).loadPaymentData(request),
       activity,
       LOAD_PAYMENT_DATA_REQUEST_CODE);
   }
@@ -192,83 +302,202 @@ public final class GoogleApiPayFlowImpl extends PayFlow {
       return;
     }
 
-    this.payPromise = promise;
-    startPaymentRequest(activity, createPaymentDataRequest(payParams));
+    PaymentDataRequest request;
+    String handle = Converters.getStringOrNull(payParams, HANDLE);
+    if (handle != null) {
+      PreparedRequest prepared = mPreparedRequests.get(handle);
+      if (prepared == null) {
+        promise.reject(
+          getErrorCode("noPaymentRequest"),
+          getErrorDescription("noPaymentRequest")
+        );
+        return;
+      }
+      request = prepared.requestFor(Converters.getStringOrNull(payParams, TOTAL_PRICE), getTokenizationParameters());
+    } else {
+      request = prepare(payParams).request;
+    }
+
+    PendingPayment.Request replaced = mPendingPayment.start(promise);
+    if (replaced != null) {
+      replaced.endTrace();
+      if (replaced.promise != promise) {
+        // Its sheet is covered by the new one, nothing would settle it anymore
+        replaced.promise.reject(
+          getErrorCode("cancelled"),
+          "Replaced by a newer Google Pay request"
+        );
+      }
+    }
+    startPaymentRequest(activity, request);
   }
 
   @Override
-  public void deviceSupportsAndroidPay(boolean isExistingPaymentMethodRequired, @NonNull Promise promise) {
-    Activity activity = activityProvider.call();
-    if (activity == null) {
-      promise.reject(
-        getErrorCode("activityUnavailable"),
-        getErrorDescription("activityUnavailable")
-      );
-      return;
-    }
+  public void preparePaymentRequest(@NonNull ReadableMap payParams, @NonNull Promise promise) {
+    ArgCheck.nonNull(payParams);
+    ArgCheck.nonNull(promise);
 
-    if (!isPlayServicesAvailable(activity)) {
-      promise.reject(
-        getErrorCode("playServicesUnavailable"),
-        getErrorDescription("playServicesUnavailable")
-      );
-      return;
+    try {
+      PreparedRequest prepared = prepare(payParams);
+      String handle = "gpay_request_" + mPreparedIds.incrementAndGet();
+      mPreparedRequests.put(handle, prepared, PREPARED_REQUEST_TTL_MS);
+      promise.resolve(handle);
+    } catch (Exception e) {
+      promise.reject(toErrorCode(e), e.getMessage());
     }
+  }
 
-    isReadyToPay(activity, isExistingPaymentMethodRequired, promise);
+  @Override
+  public void deviceSupportsAndroidPay(boolean isExistingPaymentMethodRequired, @NonNull final Promise promise) {
+    checkReadiness(isExistingPaymentMethodRequired, new SingleFlight.Callback<Readiness>() {
+      @Override
+      public void onSuccess(Readiness readiness) {
+        if (readiness == Readiness.PLAY_SERVICES_UNAVAILABLE) {
+          promise.reject(
+            getErrorCode("playServicesUnavailable"),
+            getErrorDescription("playServicesUnavailable")
+          );
+        } else {
+          promise.resolve(readiness == Readiness.READY);
+        }
+      }
+
+      @Override
+      public void onError(Exception error) {
+        if (error instanceof UnavailableException) {
+          String key = ((UnavailableException) error).errorKey;
+          promise.reject(getErrorCode(key), getErrorDescription(key));
+        } else {
+          promise.reject(toErrorCode(error), error.getMessage());
+        }
+      }
+    });
+  }
+
+  @Override
+  void setReadinessTtlMs(long ttlMs) {
+    mReadiness.setReuseTtlMs(ttlMs);
+  }
+
+  @Override
+  void invalidateReadiness() {
+    mReadiness.clearReused();
+  }
+
+  @Override
+  void prefetchReadiness() {
+    checkReadiness(false, IGNORED_READINESS);
+    checkReadiness(true, IGNORED_READINESS);
+  }
+
+  @Override
+  void release() {
+    mPaymentsClients.release();
+  }
+
+  /**
+   * Shares one check between concurrent callers and reuses its outcome until the readiness TTL is over.
+   * Missing activity and Google Pay API errors are reported to the callers of that check but not reused.
+   */
+  private void checkReadiness(final boolean isExistingPaymentMethodRequired,
+                              @NonNull SingleFlight.Callback<Readiness> callback) {
+    int environment = getEnvironment();
+    mReadiness.execute(
+      environment + ":" + isExistingPaymentMethodRequired,
+      callback,
+      new SingleFlight.Call<Readiness>() {
+        @Override
+        public void start(@NonNull SingleFlight.Callback<Readiness> result) {
+          Activity activity = activityProvider.call();
+          if (activity == null) {
+            result.onError(new UnavailableException("activityUnavailable"));
+          } else if (!isPlayServicesAvailable(activity)) {
+            result.onSuccess(Readiness.PLAY_SERVICES_UNAVAILABLE);
+          } else {
+            isReadyToPay(activity, isExistingPaymentMethodRequired, result);
+          }
+        }
+      });
   }
 
   public boolean onActivityResult(Activity activity, int requestCode, int resultCode, Intent data) {
-    if (payPromise == null) {
+    if (requestCode != LOAD_PAYMENT_DATA_REQUEST_CODE) {
+      return false;
+    }
+    // Taken before it is settled, settling may start the next queued request
+    PendingPayment.Request pending = mPendingPayment.take();
+    if (pending == null) {
       return false;
     }
 
-    switch (requestCode) {
-      case LOAD_PAYMENT_DATA_REQUEST_CODE:
-        switch (resultCode) {
-          case Activity.RESULT_OK:
-            PaymentData paymentData = PaymentData.getFromIntent(data);
-            ArgCheck.nonNull(paymentData);
-            String tokenJson = paymentData.getPaymentMethodToken().getToken();
-            Token token = Token.fromString(tokenJson);
-            if (token == null) {
-              payPromise.reject(
-                getErrorCode("parseResponse"),
-                getErrorDescription("parseResponse")
-              );
-            } else {
-              payPromise.resolve(putExtraToTokenMap(
-                convertTokenToWritableMap(token),
-                getBillingAddress(paymentData),
-                paymentData.getShippingAddress(),
-                paymentData.getEmail()));
-            }
-            break;
-          case Activity.RESULT_CANCELED:
-            payPromise.reject(
-              getErrorCode("purchaseCancelled"),
-              getErrorDescription("purchaseCancelled")
-            );
-            break;
-          case AutoResolveHelper.RESULT_ERROR:
-            Status status = AutoResolveHelper.getStatusFromIntent(data);
-            // Log the status for debugging.
-            // Generally, there is no need to show an error to
-            // the user as the Google Pay API will do that.
-            payPromise.reject(
-              getErrorCode("stripe"),
-              status.getStatusMessage()
-            );
-            break;
-
-          default:
-            // Do nothing.
-        }
-        payPromise = null;
-        return true;
+    long start = System.nanoTime();
+    PAYMENT_SHEET_LATENCY.record(start - pending.startedAt);
+    pending.endTrace();
+    Promise promise = pending.promise;
+    switch (resultCode) {
+      case Activity.RESULT_OK:
+        resolvePaymentData(promise, data);
+        break;
+      case Activity.RESULT_CANCELED:
+        promise.reject(
+          getErrorCode("purchaseCancelled"),
+          getErrorDescription("purchaseCancelled")
+        );
+        break;
+      case AutoResolveHelper.RESULT_ERROR:
+        Status status = AutoResolveHelper.getStatusFromIntent(data);
+        // Log the status for debugging.
+        // Generally, there is no need to show an error to
+        // the user as the Google Pay API will do that.
+        promise.reject(
+          getErrorCode("stripe"),
+          status.getStatusMessage()
+        );
+        break;
+
+      default:
+        // Still settled, a pending promise would hold the request slot forever
+        promise.reject(
+          Errors.UNEXPECTED,
+          "Unexpected Google Pay result code " + resultCode
+        );
     }
+    RESULT_MAIN_THREAD_LATENCY.record(System.nanoTime() - start);
+    return true;
+  }
 
-    return false;
+  // Parses the result off the main thread, which is busy animating the sheet out
+  private void resolvePaymentData(final Promise promise, final Intent data) {
+    StripeExecutors.background().execute(new Runnable() {
+      @Override
+      public void run() {
+        long start = System.nanoTime();
+        boolean traced = Tracing.beginSection("GoogleApiPayFlowImpl.resolvePaymentData");
+        try {
+          PaymentData paymentData = PaymentData.getFromIntent(data);
+          ArgCheck.nonNull(paymentData);
+          String tokenJson = paymentData.getPaymentMethodToken().getToken();
+          Token token = Token.fromString(tokenJson);
+          if (token == null) {
+            promise.reject(
+              getErrorCode("parseResponse"),
+              getErrorDescription("parseResponse")
+            );
+          } else {
+            promise.resolve(putExtraToTokenMap(
+              convertTokenToWritableMap(token),
+              getBillingAddress(paymentData),
+              paymentData.getShippingAddress(),
+              paymentData.getEmail()));
+          }
+        } catch (Exception e) {
+          promise.reject(toErrorCode(e), e.getMessage());
+        } finally {
+          Tracing.endSection(traced);
+          RESULT_PARSE_LATENCY.record(System.nanoTime() - start);
+        }
+      }
+    });
   }
 
 }
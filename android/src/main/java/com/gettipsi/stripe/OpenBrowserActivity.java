@@ -12,28 +12,23 @@ import android.support.customtabs.CustomTabsIntent;
  */
 public class OpenBrowserActivity extends Activity {
   final static String EXTRA_URL = "url";
+  final static String EXTRA_SOURCE_ID = "sourceId";
 
   private String url;
+  private String sourceId;
   private boolean shouldFinish = true;
 
   @Override
   protected void onCreate(@Nullable Bundle savedInstanceState) {
     super.onCreate(savedInstanceState);
-    shouldFinish = false;
-
-//    custom
-    url = getIntent().getStringExtra(EXTRA_URL);
-    CustomTabsIntent.Builder builder = new CustomTabsIntent.Builder();
-    CustomTabsIntent customTabsIntent = builder.build();
-    customTabsIntent.launchUrl(this, Uri.parse(url));
-//    custom
+    openBrowser(getIntent());
   }
 
   @Override
   protected void onResume() {
     super.onResume();
     if (shouldFinish) {
-      StripeModule.getInstance().processRedirect(null);
+      StripeModule.getInstance().processRedirect(sourceId, null);
       finish();
     }
     shouldFinish = true;
@@ -41,8 +36,36 @@ public class OpenBrowserActivity extends Activity {
   // custom
   @Override
   protected void onNewIntent(Intent intent) {
-    StripeModule.getInstance().processRedirect(intent.getData());
-    finish();
+    super.onNewIntent(intent);
+    if (intent.getData() != null) {
+      // Back from the browser
+      StripeModule.getInstance().processRedirect(sourceId, intent.getData());
+      finish();
+      return;
+    }
+    if (intent.getStringExtra(EXTRA_URL) == null) {
+      return;
+    }
+
+    // Another redirect started while this one was still open, it replaces it
+    String newSourceId = intent.getStringExtra(EXTRA_SOURCE_ID);
+    if (sourceId != null && !sourceId.equals(newSourceId)) {
+      StripeModule.getInstance().processRedirect(sourceId, null);
+    }
+    setIntent(intent);
+    openBrowser(intent);
+  }
+
+  private void openBrowser(Intent intent) {
+    shouldFinish = false;
+
+//    custom
+    url = intent.getStringExtra(EXTRA_URL);
+    sourceId = intent.getStringExtra(EXTRA_SOURCE_ID);
+    CustomTabsIntent.Builder builder = new CustomTabsIntent.Builder();
+    CustomTabsIntent customTabsIntent = builder.build();
+    customTabsIntent.launchUrl(this, Uri.parse(url));
+//    custom
   }
 //  custom
 }
@@ -0,0 +1,179 @@
+package com.gettipsi.stripe;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.facebook.react.bridge.Promise;
+import com.gettipsi.stripe.util.ArgCheck;
+import com.stripe.android.model.Source;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of the source, redirect and card selection flows that are in progress, so several of them can run
+ * at the same time. Operations are looked up by id in O(1) and evicted once they stay untouched for longer than the
+ * abandon timeout. Once the registry is full the least recently touched ones without a pending promise, i.e. plain
+ * cached sources, make room; a pending redirect or card selection is only ever evicted by the abandon timeout.
+ */
+final class OperationRegistry {
+
+  enum Kind {
+    SOURCE,
+    REDIRECT,
+    SELECT_CARD
+  }
+
+  static final class Operation {
+
+    final String id;
+    Kind kind;
+    @Nullable Promise promise;
+    @Nullable Source source;
+    @Nullable SourcePoller.Watch watch;
+    long touchedAt;
+
+    Operation(@NonNull String id, @NonNull Kind kind) {
+      this.id = id;
+      this.kind = kind;
+    }
+
+    /**
+     * Stops any background work owned by the operation.
+     */
+    void cleanup() {
+      SourcePoller.Watch w = watch;
+      watch = null;
+      if (w != null) {
+        w.cancel();
+      }
+    }
+  }
+
+  interface EvictionListener {
+    void onEvicted(@NonNull Operation operation);
+  }
+
+  static final int DEFAULT_CAPACITY = 32;
+  static final long DEFAULT_ABANDON_TIMEOUT_MS = 30 * 60 * 1000;
+
+  private final AtomicLong idGenerator = new AtomicLong();
+  private final LinkedHashMap<String, Operation> operations = new LinkedHashMap<>(16, 0.75f, true);
+  private final EvictionListener evictionListener;
+  private final long abandonTimeoutMs;
+  private int capacity;
+
+  OperationRegistry(@NonNull EvictionListener evictionListener, int capacity, long abandonTimeoutMs) {
+    ArgCheck.isTrue(abandonTimeoutMs > 0);
+
+    this.evictionListener = ArgCheck.nonNull(evictionListener);
+    this.abandonTimeoutMs = abandonTimeoutMs;
+    setCapacity(capacity);
+  }
+
+  void setCapacity(int capacity) {
+    ArgCheck.isTrue(capacity > 0, "Operation capacity must be positive");
+    List<Operation> evicted;
+    synchronized (this) {
+      this.capacity = capacity;
+      evicted = trimLocked(System.currentTimeMillis());
+    }
+    notifyEvicted(evicted);
+  }
+
+  String nextId(@NonNull String prefix) {
+    return prefix + "_" + idGenerator.incrementAndGet();
+  }
+
+  /**
+   * Registers a new operation, replacing (and cleaning up) any previous one with the same id.
+   */
+  @NonNull
+  Operation put(@NonNull String id, @NonNull Kind kind) {
+    Operation operation = new Operation(ArgCheck.nonNull(id), ArgCheck.nonNull(kind));
+    Operation replaced;
+    List<Operation> evicted;
+    synchronized (this) {
+      long now = System.currentTimeMillis();
+      operation.touchedAt = now;
+      replaced = operations.put(id, operation);
+      evicted = trimLocked(now);
+    }
+    if (replaced != null) {
+      replaced.cleanup();
+      evicted.add(replaced);
+    }
+    notifyEvicted(evicted);
+    return operation;
+  }
+
+  @Nullable
+  synchronized Operation get(@Nullable String id) {
+    if (id == null) {
+      return null;
+    }
+    Operation operation = operations.get(id);
+    if (operation != null) {
+      operation.touchedAt = System.currentTimeMillis();
+    }
+    return operation;
+  }
+
+  /**
+   * Removes the operation and releases its background work. The promise is left to the caller to settle.
+   */
+  @Nullable
+  Operation remove(@Nullable String id) {
+    if (id == null) {
+      return null;
+    }
+    Operation operation;
+    synchronized (this) {
+      operation = operations.remove(id);
+    }
+    if (operation != null) {
+      operation.cleanup();
+    }
+    return operation;
+  }
+
+  synchronized int size() {
+    return operations.size();
+  }
+
+  private List<Operation> trimLocked(long now) {
+    List<Operation> evicted = new ArrayList<>();
+    Iterator<Map.Entry<String, Operation>> iterator = operations.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Operation eldest = iterator.next().getValue();
+      if (now - eldest.touchedAt <= abandonTimeoutMs) {
+        break;
+      }
+      iterator.remove();
+      evicted.add(eldest);
+    }
+
+    // The most recently touched operation was usually just put and gets its promise after that, so it is kept
+    int candidates = operations.size() - 1;
+    iterator = operations.entrySet().iterator();
+    while (operations.size() > capacity && candidates-- > 0) {
+      Operation operation = iterator.next().getValue();
+      if (operation.promise == null) {
+        iterator.remove();
+        evicted.add(operation);
+      }
+    }
+    return evicted;
+  }
+
+  private void notifyEvicted(List<Operation> evicted) {
+    for (Operation operation : evicted) {
+      operation.cleanup();
+      evictionListener.onEvicted(operation);
+    }
+  }
+}
@@ -0,0 +1,338 @@
+package com.gettipsi.stripe;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.facebook.react.bridge.ReadableMap;
+import com.gettipsi.stripe.util.InvalidParamsException;
+import com.gettipsi.stripe.util.ParamsReader;
+import com.stripe.android.model.Address;
+import com.stripe.android.model.Card;
+import com.stripe.android.model.ConfirmPaymentIntentParams;
+import com.stripe.android.model.ConfirmSetupIntentParams;
+import com.stripe.android.model.PaymentMethod;
+import com.stripe.android.model.PaymentMethodCreateParams;
+import com.stripe.android.model.SourceParams;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * One parser per bridge param shape. Each walks its params once through a {@link ParamsReader}, and only builds
+ * the Stripe SDK object when nothing was missing or mistyped, otherwise every problem is thrown together in one
+ * {@link InvalidParamsException}.
+ */
+final class ParamsParsers {
+
+  private static final String DEFAULT_RETURN_URL = "stripejs://use_stripe_sdk/return_url";
+
+  private interface SourceFactory {
+    /**
+     * Reads the fields of one source type, calls {@link ParamsReader#throwIfInvalid()} and builds the params.
+     */
+    SourceParams create(ParamsReader params);
+  }
+
+  private static final Map<String, SourceFactory> SOURCE_FACTORIES;
+
+  static {
+    Map<String, SourceFactory> factories = new HashMap<>();
+    factories.put("alipay", new SourceFactory() {
+      public SourceParams create(ParamsReader params) {
+        int amount = params.requireInt("amount");
+        String currency = params.requireString("currency");
+        String name = params.optString("name");
+        String email = params.optString("email");
+        String returnURL = params.requireString("returnURL");
+        params.throwIfInvalid();
+        return SourceParams.createAlipaySingleUseParams(amount, currency, name, email, returnURL);
+      }
+    });
+    factories.put("bancontact", new SourceFactory() {
+      public SourceParams create(ParamsReader params) {
+        int amount = params.requireInt("amount");
+        String name = params.requireString("name");
+        String returnURL = params.requireString("returnURL");
+        String statementDescriptor = params.optString("statementDescriptor");
+        String preferredLanguage = params.requireString("preferredLanguage");
+        params.throwIfInvalid();
+        return SourceParams.createBancontactParams(amount, name, returnURL, statementDescriptor, preferredLanguage);
+      }
+    });
+    factories.put("giropay", new SourceFactory() {
+      public SourceParams create(ParamsReader params) {
+        int amount = params.requireInt("amount");
+        String name = params.requireString("name");
+        String returnURL = params.requireString("returnURL");
+        String statementDescriptor = params.optString("statementDescriptor");
+        params.throwIfInvalid();
+        return SourceParams.createGiropayParams(amount, name, returnURL, statementDescriptor);
+      }
+    });
+    factories.put("ideal", new SourceFactory() {
+      public SourceParams create(ParamsReader params) {
+        int amount = params.requireInt("amount");
+        String name = params.requireString("name");
+        String returnURL = params.requireString("returnURL");
+        String statementDescriptor = params.optString("statementDescriptor");
+        String bank = params.optString("bank");
+        params.throwIfInvalid();
+        return SourceParams.createIdealParams(amount, name, returnURL, statementDescriptor, bank);
+      }
+    });
+    factories.put("sepaDebit", new SourceFactory() {
+      public SourceParams create(ParamsReader params) {
+        String name = params.requireString("name");
+        String iban = params.requireString("iban");
+        String addressLine1 = params.optString("addressLine1");
+        String city = params.requireString("city");
+        String postalCode = params.requireString("postalCode");
+        String country = params.requireString("country");
+        params.throwIfInvalid();
+        return SourceParams.createSepaDebitParams(name, iban, addressLine1, city, postalCode, country);
+      }
+    });
+    factories.put("sofort", new SourceFactory() {
+      public SourceParams create(ParamsReader params) {
+        int amount = params.requireInt("amount");
+        String returnURL = params.requireString("returnURL");
+        String country = params.requireString("country");
+        String statementDescriptor = params.optString("statementDescriptor");
+        params.throwIfInvalid();
+        return SourceParams.createSofortParams(amount, returnURL, country, statementDescriptor);
+      }
+    });
+    factories.put("threeDSecure", new SourceFactory() {
+      public SourceParams create(ParamsReader params) {
+        int amount = params.requireInt("amount");
+        String currency = params.requireString("currency");
+        String returnURL = params.requireString("returnURL");
+        String card = params.requireString("card");
+        params.throwIfInvalid();
+        return SourceParams.createThreeDSecureParams(amount, currency, returnURL, card);
+      }
+    });
+    factories.put("card", new SourceFactory() {
+      public SourceParams create(ParamsReader params) {
+        Card.Builder builder = new Card.Builder(
+          params.requireString("number"),
+          params.requireInt("expMonth"),
+          params.requireInt("expYear"),
+          params.optString("cvc"))
+          .name(params.optString("name"))
+          .addressLine1(params.optString("addressLine1"))
+          .addressLine2(params.optString("addressLine2"))
+          .addressCity(params.optString("addressCity"))
+          .addressState(params.optString("addressState"))
+          .addressZip(params.optString("addressZip"))
+          .addressCountry(params.optString("addressCountry"))
+          .brand(params.optString("brand"))
+          .last4(params.optString("last4"))
+          .fingerprint(params.optString("fingerprint"))
+          .funding(params.optString("funding"))
+          .country(params.optString("country"))
+          .currency(params.optString("currency"))
+          .id(params.optString("id"));
+        params.throwIfInvalid();
+        return SourceParams.createCardParams(builder.build());
+      }
+    });
+    SOURCE_FACTORIES = Collections.unmodifiableMap(factories);
+  }
+
+  private ParamsParsers() {
+  }
+
+  /**
+   * createSourceWithParams: { type, ...fields of that type, mimic }
+   */
+  @NonNull
+  static SourceParams sourceParams(@Nullable ReadableMap options) {
+    ParamsReader params = ParamsReader.of(options);
+    String type = params.requireString("type");
+    String mimic = params.optString("mimic");
+
+    SourceFactory factory = type != null ? SOURCE_FACTORIES.get(type) : null;
+    if (type != null && factory == null) {
+      params.problem("type", "must be one of " + new TreeSet<>(SOURCE_FACTORIES.keySet()));
+    }
+    if (factory == null) {
+      params.throwIfInvalid();
+    }
+
+    SourceParams sourceParams = factory.create(params);
+    // Test mode owners that make the later charge succeed or fail
+    if ("succeeding_charge".equals(mimic) || "failing_charge".equals(mimic)) {
+      Map<String, Object> owner = new HashMap<>();
+      owner.put("name", mimic);
+      sourceParams.setOwner(owner);
+    }
+    return sourceParams;
+  }
+
+  /**
+   * createPaymentMethod: { card: { number, expMonth, expYear, cvc } | { token }, billingDetails, metadata }
+   */
+  @NonNull
+  static PaymentMethodCreateParams paymentMethodCreateParams(@Nullable ReadableMap options) {
+    ParamsReader params = ParamsReader.of(options);
+    PaymentMethodFields fields = new PaymentMethodFields(params);
+    params.throwIfInvalid();
+    return fields.build();
+  }
+
+  /**
+   * confirmPaymentIntent: { clientSecret, paymentMethod | paymentMethodId, returnURL, savePaymentMethod }
+   */
+  @NonNull
+  static ConfirmPaymentIntentParams confirmPaymentIntentParams(@Nullable ReadableMap options) {
+    ParamsReader params = ParamsReader.of(options);
+    String clientSecret = params.requireString("clientSecret");
+    ParamsReader paymentMethodParams = params.optMap("paymentMethod");
+    PaymentMethodFields paymentMethod = paymentMethodParams != null ? new PaymentMethodFields(paymentMethodParams) : null;
+    String paymentMethodId = params.optString("paymentMethodId");
+    String returnURL = returnUrl(params);
+    boolean savePaymentMethod = params.optBoolean("savePaymentMethod", false);
+    params.throwIfInvalid();
+
+    // TODO support extra params in each of the create methods below
+    Map<String, Object> extraParams = null;
+
+    ConfirmPaymentIntentParams cpip;
+    if (paymentMethod != null) {
+      cpip = ConfirmPaymentIntentParams.createWithPaymentMethodCreateParams(
+        paymentMethod.build(), clientSecret, returnURL, savePaymentMethod, extraParams);
+    } else if (paymentMethodId != null) {
+      // Saved Sources are confirmed the same way, their id is a valid payment_method:
+      // https://stripe.com/docs/api/payment_intents/confirm#confirm_payment_intent-payment_method
+      cpip = ConfirmPaymentIntentParams.createWithPaymentMethodId(
+        paymentMethodId, clientSecret, returnURL, savePaymentMethod, extraParams);
+    } else {
+      // The payment intent already has its payment method and just needs to be confirmed
+      cpip = ConfirmPaymentIntentParams.create(clientSecret, returnURL);
+    }
+    cpip.withShouldUseStripeSdk(true);
+    return cpip;
+  }
+
+  /**
+   * confirmSetupIntent: { clientSecret, paymentMethod | paymentMethodId, returnURL }
+   */
+  @NonNull
+  static ConfirmSetupIntentParams confirmSetupIntentParams(@Nullable ReadableMap options) {
+    ParamsReader params = ParamsReader.of(options);
+    String clientSecret = params.requireString("clientSecret");
+    ParamsReader paymentMethodParams = params.optMap("paymentMethod");
+    PaymentMethodFields paymentMethod = paymentMethodParams != null ? new PaymentMethodFields(paymentMethodParams) : null;
+    String paymentMethodId = params.optString("paymentMethodId");
+    String returnURL = returnUrl(params);
+    if (paymentMethod == null && paymentMethodId == null) {
+      params.problem("paymentMethod", "or paymentMethodId is required");
+    }
+    params.throwIfInvalid();
+
+    ConfirmSetupIntentParams csip = paymentMethod != null
+      ? ConfirmSetupIntentParams.create(paymentMethod.build(), clientSecret, returnURL)
+      : ConfirmSetupIntentParams.create(paymentMethodId, clientSecret, returnURL);
+    csip.withShouldUseStripeSdk(true);
+    return csip;
+  }
+
+  private static String returnUrl(ParamsReader params) {
+    String returnURL = params.optString("returnURL");
+    return returnURL != null ? returnURL : DEFAULT_RETURN_URL;
+  }
+
+  /**
+   * The fields of a PaymentMethodCreateParams, read (and validated) first and only built once the whole
+   * params tree is known to be valid.
+   */
+  private static final class PaymentMethodFields {
+    final String token;
+    final String number;
+    final int expMonth;
+    final int expYear;
+    final String cvc;
+    final boolean hasCard;
+    final boolean hasBillingDetails;
+    final boolean hasAddress;
+    final String email;
+    final String name;
+    final String phone;
+    final String city;
+    final String country;
+    final String line1;
+    final String line2;
+    final String postalCode;
+    final String state;
+    final Map<String, String> metadata;
+
+    PaymentMethodFields(ParamsReader params) {
+      ParamsReader card = params.optMap("card");
+      hasCard = card != null;
+      token = hasCard ? card.optString("token") : null;
+      boolean hasPan = hasCard && token == null;
+      number = hasPan ? card.requireString("number") : null;
+      expMonth = hasPan ? card.requireInt("expMonth") : 0;
+      expYear = hasPan ? card.requireInt("expYear") : 0;
+      cvc = hasPan ? card.requireString("cvc") : null;
+
+      ParamsReader billingDetails = params.optMap("billingDetails");
+      hasBillingDetails = billingDetails != null;
+      email = hasBillingDetails ? billingDetails.optString("email") : null;
+      name = hasBillingDetails ? billingDetails.optString("name") : null;
+      phone = hasBillingDetails ? billingDetails.optString("phone") : null;
+
+      ParamsReader address = hasBillingDetails ? billingDetails.optMap("address") : null;
+      hasAddress = address != null;
+      city = hasAddress ? address.optString("city") : null;
+      country = hasAddress ? address.requireString("country") : null;
+      line1 = hasAddress ? address.optString("line1") : null;
+      line2 = hasAddress ? address.optString("line2") : null;
+      postalCode = hasAddress ? address.optString("postalCode") : null;
+      state = hasAddress ? address.optString("state") : null;
+
+      Map<String, String> metadataParams = params.optStringMap("metadata");
+      metadata = metadataParams != null ? metadataParams : new HashMap<String, String>();
+    }
+
+    PaymentMethodCreateParams build() {
+      PaymentMethodCreateParams.Card card = null;
+      if (token != null) {
+        card = PaymentMethodCreateParams.Card.create(token);
+      } else if (hasCard) {
+        card = new PaymentMethodCreateParams.Card.Builder()
+          .setCvc(cvc)
+          .setExpiryMonth(expMonth)
+          .setExpiryYear(expYear)
+          .setNumber(number)
+          .build();
+      }
+
+      PaymentMethod.BillingDetails billingDetails = null;
+      if (hasBillingDetails) {
+        Address address = null;
+        if (hasAddress) {
+          address = new Address.Builder()
+            .setCity(city)
+            .setCountry(country)
+            .setLine1(line1)
+            .setLine2(line2)
+            .setPostalCode(postalCode)
+            .setState(state)
+            .build();
+        }
+        billingDetails = new PaymentMethod.BillingDetails.Builder()
+          .setAddress(address)
+          .setEmail(email)
+          .setName(name)
+          .setPhone(phone)
+          .build();
+      }
+
+      return PaymentMethodCreateParams.create(card, billingDetails, metadata);
+    }
+  }
+}
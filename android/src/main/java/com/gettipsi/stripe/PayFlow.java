@@ -45,6 +45,10 @@ public abstract class PayFlow {
     return environment;
   }
 
+  protected boolean hasEnvironment() {
+    return isValidEnvironment(environment);
+  }
+
   public void setEnvironment(int environment) {
     ArgCheck.isTrue(isValidEnvironment(environment));
     ArgCheck.isTrue(!isEnvironmentChangeAttempt(this.environment, environment));
@@ -80,10 +84,37 @@ public abstract class PayFlow {
 
   abstract void paymentRequestWithAndroidPay(final ReadableMap payParams, final Promise promise);
 
+  abstract void preparePaymentRequest(final ReadableMap payParams, final Promise promise);
+
   abstract void deviceSupportsAndroidPay(boolean isExistingPaymentMethodRequired, final Promise promise);
 
   abstract boolean onActivityResult(Activity activity, int requestCode, int resultCode, Intent data);
 
+  /**
+   * How long a readiness outcome is reused, 0 checks again on every call. Does nothing unless overridden.
+   */
+  void setReadinessTtlMs(long ttlMs) {
+  }
+
+  /**
+   * Makes the next readiness check ask Google Pay again. Does nothing unless overridden.
+   */
+  void invalidateReadiness() {
+  }
+
+  /**
+   * Starts the readiness checks in the background so later calls find them cached. Does nothing unless overridden.
+   */
+  void prefetchReadiness() {
+  }
+
+  /**
+   * Lets go of everything registered outside this object, called when the module is torn down. Does nothing
+   * unless overridden.
+   */
+  void release() {
+  }
+
   public static boolean isPlayServicesAvailable(@NonNull Activity activity) {
     ArgCheck.nonNull(activity);
 
@@ -0,0 +1,247 @@
+package com.gettipsi.stripe;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReadableMap;
+import com.gettipsi.stripe.util.ArgCheck;
+import com.gettipsi.stripe.util.SettleOncePromise;
+import com.gettipsi.stripe.util.Tracing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.gettipsi.stripe.Errors.toErrorCode;
+import static com.gettipsi.stripe.util.InitializationOptions.ANDROID_PAY_REQUESTS_MAX_QUEUED;
+import static com.gettipsi.stripe.util.InitializationOptions.ANDROID_PAY_REQUESTS_POLICY;
+import static com.gettipsi.stripe.util.InitializationOptions.ANDROID_PAY_REQUESTS_TIMEOUT_MS;
+
+/**
+ * Lets one Google Pay request at a time reach the pay flow, which only tracks a single one. What happens to a
+ * request made while another one is running is up to the {@link Policy}.
+ * <p>
+ * Every request gets an id and, with a timeout set, a deadline, and its promise settles exactly once: with the
+ * pay flow's outcome, or rejected by the scheduler when it is turned away, cancelled or out of time. Outcomes
+ * the pay flow reports for a request that was already settled are dropped.
+ */
+final class PayRequestScheduler {
+
+  enum Policy {
+    /**
+     * Wait for the running request, up to {@link Options#maxQueued} waiting requests.
+     */
+    QUEUE("queue"),
+    /**
+     * Reject the new request with `busy`, the default.
+     */
+    REJECT_NEW("rejectNew"),
+    /**
+     * Reject the running request with `cancelled` and start the new one. The new sheet opens on top of the old
+     * one, whose result is dropped when it comes back.
+     */
+    CANCEL_PREVIOUS("cancelPrevious");
+
+    final String value;
+
+    Policy(String value) {
+      this.value = value;
+    }
+
+    static Policy fromString(@NonNull String value) {
+      for (Policy policy : values()) {
+        if (policy.value.equals(value)) {
+          return policy;
+        }
+      }
+      throw new IllegalArgumentException("Unknown Google Pay request policy: " + value);
+    }
+  }
+
+  interface Launcher {
+    /**
+     * Hands the request to the pay flow, which settles {@code promise} once it completes.
+     */
+    void launch(@NonNull Promise promise);
+  }
+
+  static final class Options {
+
+    // Generous for a sheet the user is still filling in, but a lost activity result cannot block Google Pay for good
+    static final long DEFAULT_TIMEOUT_MS = 10 * 60 * 1000;
+    static final Options DEFAULT = new Options(Policy.REJECT_NEW, DEFAULT_TIMEOUT_MS, 4);
+
+    final Policy policy;
+    // From submitting to settling, 0 for no deadline
+    final long timeoutMs;
+    final int maxQueued;
+
+    Options(@NonNull Policy policy, long timeoutMs, int maxQueued) {
+      ArgCheck.nonNull(policy);
+      ArgCheck.isTrue(timeoutMs >= 0, "Google Pay request timeoutMs must not be negative");
+      ArgCheck.isTrue(maxQueued >= 0, "Google Pay request maxQueued must not be negative");
+
+      this.policy = policy;
+      this.timeoutMs = timeoutMs;
+      this.maxQueued = maxQueued;
+    }
+
+    static Options fromMap(@Nullable ReadableMap map) {
+      if (map == null) {
+        return DEFAULT;
+      }
+
+      return new Options(
+        map.hasKey(ANDROID_PAY_REQUESTS_POLICY) && !map.isNull(ANDROID_PAY_REQUESTS_POLICY)
+          ? Policy.fromString(map.getString(ANDROID_PAY_REQUESTS_POLICY))
+          : DEFAULT.policy,
+        map.hasKey(ANDROID_PAY_REQUESTS_TIMEOUT_MS) && !map.isNull(ANDROID_PAY_REQUESTS_TIMEOUT_MS)
+          ? (long) map.getDouble(ANDROID_PAY_REQUESTS_TIMEOUT_MS)
+          : DEFAULT.timeoutMs,
+        map.hasKey(ANDROID_PAY_REQUESTS_MAX_QUEUED) && !map.isNull(ANDROID_PAY_REQUESTS_MAX_QUEUED)
+          ? map.getInt(ANDROID_PAY_REQUESTS_MAX_QUEUED)
+          : DEFAULT.maxQueued
+      );
+    }
+  }
+
+  private final class Request implements SettleOncePromise.Listener {
+    final long id;
+    final Launcher launcher;
+    final SettleOncePromise promise;
+    final int traceCookie;
+    @Nullable
+    Future<?> deadline;
+
+    Request(long id, @NonNull Promise promise, @NonNull Launcher launcher) {
+      this.id = id;
+      this.launcher = launcher;
+      this.promise = new SettleOncePromise(promise, this);
+      this.traceCookie = Tracing.beginAsync("PayRequestScheduler.request");
+    }
+
+    @Override
+    public void onSettled() {
+      if (deadline != null) {
+        deadline.cancel(false);
+      }
+      Tracing.endAsync("PayRequestScheduler.request", traceCookie);
+      finished(this);
+    }
+
+    void reject(String errorKey, String message) {
+      promise.reject(Errors.getErrorCode(errorCodes, errorKey), message);
+    }
+  }
+
+  private final ScheduledExecutorService scheduler;
+  private final ArrayDeque<Request> queue = new ArrayDeque<>();
+  @Nullable
+  private Request active;
+  private long nextId;
+  private volatile Options options = Options.DEFAULT;
+  private volatile ReadableMap errorCodes;
+
+  PayRequestScheduler(@NonNull ScheduledExecutorService scheduler) {
+    this.scheduler = ArgCheck.nonNull(scheduler);
+  }
+
+  void setOptions(@NonNull Options options) {
+    this.options = ArgCheck.nonNull(options);
+  }
+
+  void setErrorCodes(@NonNull ReadableMap errorCodes) {
+    this.errorCodes = ArgCheck.nonNull(errorCodes);
+  }
+
+  void submit(@NonNull Promise promise, @NonNull Launcher launcher) {
+    Options options = this.options;
+    Request rejected = null;
+    Request cancelled = null;
+    Request started = null;
+    Request request;
+
+    synchronized (this) {
+      request = new Request(++nextId, promise, launcher);
+      if (active == null) {
+        active = request;
+        started = request;
+      } else if (options.policy == Policy.CANCEL_PREVIOUS) {
+        cancelled = active;
+        active = request;
+        started = request;
+      } else if (options.policy == Policy.QUEUE && queue.size() < options.maxQueued) {
+        queue.add(request);
+      } else {
+        rejected = request;
+      }
+    }
+
+    if (rejected != null) {
+      rejected.reject("busy", "Google Pay request " + rejected.id + " was turned away, request "
+        + activeId() + " is still running");
+      return;
+    }
+    if (options.timeoutMs > 0) {
+      scheduleDeadline(request, options.timeoutMs);
+    }
+    if (cancelled != null) {
+      cancelled.reject(Errors.CANCELLED, "Google Pay request " + cancelled.id + " was replaced by request "
+        + request.id);
+    }
+    if (started != null) {
+      launch(started);
+    }
+  }
+
+  private synchronized long activeId() {
+    return active != null ? active.id : 0;
+  }
+
+  private void scheduleDeadline(final Request request, long timeoutMs) {
+    request.deadline = scheduler.schedule(new Runnable() {
+      @Override
+      public void run() {
+        request.reject("timeout", "Google Pay request " + request.id + " did not complete in time");
+      }
+    }, timeoutMs, TimeUnit.MILLISECONDS);
+  }
+
+  private void launch(Request request) {
+    if (request.promise.isSettled()) {
+      // Timed out while queued, or already replaced
+      return;
+    }
+    try {
+      request.launcher.launch(request.promise);
+    } catch (Exception e) {
+      request.promise.reject(toErrorCode(e), e.getMessage());
+    }
+  }
+
+  // Frees the slot of a settled request, or its place in the queue, and starts the next waiting one
+  private void finished(Request request) {
+    List<Request> next = new ArrayList<>(1);
+    synchronized (this) {
+      if (active == request) {
+        active = null;
+        while (active == null && !queue.isEmpty()) {
+          Request waiting = queue.poll();
+          if (!waiting.promise.isSettled()) {
+            active = waiting;
+            next.add(waiting);
+          }
+        }
+      } else {
+        queue.remove(request);
+      }
+    }
+    for (Request waiting : next) {
+      launch(waiting);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package com.gettipsi.stripe;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.gettipsi.stripe.util.ArgCheck;
+import com.gettipsi.stripe.util.Metrics;
+import com.google.android.gms.wallet.PaymentsClient;
+import com.google.android.gms.wallet.Wallet;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * The PaymentsClient of the current activity and Google Pay environment, shared by readiness checks and payment
+ * requests instead of building (and binding to Play Services) a new one for each. Replaced when either changes.
+ * The client is built from the activity and holds it strongly, the weak reference only serves the identity check;
+ * what keeps the activity from leaking is dropping the client in onActivityDestroyed. Thread safe.
+ */
+final class PaymentsClientCache {
+
+  @Nullable
+  private WeakReference<Activity> activity;
+  private int environment;
+  @Nullable
+  private PaymentsClient client;
+  // The application the destroy callback is registered with
+  @Nullable
+  private Application application;
+
+  private final Application.ActivityLifecycleCallbacks lifecycleCallbacks = new Application.ActivityLifecycleCallbacks() {
+    @Override
+    public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+    }
+
+    @Override
+    public void onActivityStarted(Activity activity) {
+    }
+
+    @Override
+    public void onActivityResumed(Activity activity) {
+    }
+
+    @Override
+    public void onActivityPaused(Activity activity) {
+    }
+
+    @Override
+    public void onActivityStopped(Activity activity) {
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+    }
+
+    @Override
+    public void onActivityDestroyed(Activity activity) {
+      invalidate(activity);
+    }
+  };
+
+  @NonNull
+  synchronized PaymentsClient get(@NonNull Activity activity, int environment) {
+    ArgCheck.nonNull(activity);
+
+    if (client != null && this.activity != null && this.activity.get() == activity
+      && this.environment == environment && !activity.isDestroyed()) {
+      return client;
+    }
+
+    registerLifecycleCallbacks(activity.getApplication());
+    long start = System.nanoTime();
+    client = Wallet.getPaymentsClient(
+      activity,
+      new Wallet.WalletOptions.Builder().setEnvironment(environment).build());
+    Metrics.recordSince("paymentsClient.create", start);
+    this.activity = new WeakReference<>(activity);
+    this.environment = environment;
+    return client;
+  }
+
+  synchronized void invalidate() {
+    client = null;
+    activity = null;
+  }
+
+  /**
+   * Drops the client and unregisters the lifecycle callbacks, which would otherwise keep this cache, and the pay
+   * flow and module holding it, reachable from the application after a JS reload.
+   */
+  synchronized void release() {
+    invalidate();
+    if (application != null) {
+      application.unregisterActivityLifecycleCallbacks(lifecycleCallbacks);
+      application = null;
+    }
+  }
+
+  private synchronized void invalidate(Activity destroyed) {
+    if (activity != null && activity.get() == destroyed) {
+      invalidate();
+    }
+  }
+
+  private void registerLifecycleCallbacks(@Nullable Application application) {
+    if (application == null || application == this.application) {
+      return;
+    }
+    if (this.application != null) {
+      this.application.unregisterActivityLifecycleCallbacks(lifecycleCallbacks);
+    }
+    application.registerActivityLifecycleCallbacks(lifecycleCallbacks);
+    this.application = application;
+  }
+}
@@ -0,0 +1,61 @@
+package com.gettipsi.stripe;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.facebook.react.bridge.Promise;
+import com.gettipsi.stripe.util.ArgCheck;
+import com.gettipsi.stripe.util.Tracing;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The request whose Google Pay sheet is showing. It is started from the scheduler's threads and taken on the main
+ * thread when the activity result comes back.
+ * <p>
+ * Whoever settles the request takes it out first. Settling can synchronously start the next queued request,
+ * which must not be wiped once the settlement returns.
+ */
+final class PendingPayment {
+
+  private static final String TRACE_NAME = "GoogleApiPayFlowImpl.loadPaymentData";
+
+  static final class Request {
+    final Promise promise;
+    final long startedAt = System.nanoTime();
+    private final int traceCookie = Tracing.beginAsync(TRACE_NAME);
+
+    private Request(@NonNull Promise promise) {
+      this.promise = ArgCheck.nonNull(promise);
+    }
+
+    /**
+     * Ends the trace section, once the sheet is closed or covered by a newer one.
+     */
+    void endTrace() {
+      Tracing.endAsync(TRACE_NAME, traceCookie);
+    }
+  }
+
+  private final AtomicReference<Request> current = new AtomicReference<>();
+
+  /**
+   * @return the request whose sheet the new one covers, to be settled by the caller, or null
+   */
+  @Nullable
+  Request start(@NonNull Promise promise) {
+    return current.getAndSet(new Request(promise));
+  }
+
+  /**
+   * @return the request to settle, or null when none is pending
+   */
+  @Nullable
+  Request take() {
+    return current.getAndSet(null);
+  }
+
+  boolean isPending() {
+    return current.get() != null;
+  }
+}
@@ -15,6 +15,9 @@ import com.stripe.android.view.PaymentMethodsActivityStarter;
 
 public class SelectCardActivity extends Activity {
     private static final int REQUEST_CODE_SELECT_SOURCE = 50;
+    static final String EXTRA_OPERATION_ID = "operationId";
+
+    private String operationId;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -22,6 +25,7 @@ public class SelectCardActivity extends Activity {
         setContentView(R.layout.select_cart_activity);
         String stripePublishableKey = getIntent().getStringExtra("stripePublishableKey");
         final String stripeEphemeralKey = getIntent().getStringExtra("stripeEphemeralKey");
+        operationId = getIntent().getStringExtra(EXTRA_OPERATION_ID);
         PaymentConfiguration.init(stripePublishableKey);
         CustomerSession.initCustomerSession(this, new EphemeralKeyProvider() {
             @Override
@@ -40,10 +44,10 @@ public class SelectCardActivity extends Activity {
     protected void onActivityResult(int requestCode, int resultCode, Intent data) {
         if(requestCode == REQUEST_CODE_SELECT_SOURCE && resultCode == RESULT_OK){
             final PaymentMethod paymentMethod = data.getParcelableExtra(PaymentMethodsActivity.EXTRA_SELECTED_PAYMENT);
-            StripeModule.getInstance().processSelectCard(paymentMethod);
+            StripeModule.getInstance().processSelectCard(operationId, paymentMethod);
             finish();
         } else {
-            StripeModule.getInstance().processSelectCard(null);
+            StripeModule.getInstance().processSelectCard(operationId, null);
             finish();
         }
     }
@@ -0,0 +1,339 @@
+package com.gettipsi.stripe;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.facebook.react.bridge.ReadableMap;
+import com.gettipsi.stripe.util.ArgCheck;
+import com.gettipsi.stripe.util.LatencyHistogram;
+import com.gettipsi.stripe.util.Metrics;
+import com.gettipsi.stripe.util.Tracing;
+import com.stripe.android.model.Source;
+import com.stripe.android.model.Source.SourceStatus;
+
+import java.util.Random;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.gettipsi.stripe.util.InitializationOptions.SOURCE_POLLING_INITIAL_DELAY_MS;
+import static com.gettipsi.stripe.util.InitializationOptions.SOURCE_POLLING_JITTER;
+import static com.gettipsi.stripe.util.InitializationOptions.SOURCE_POLLING_MAX_ATTEMPTS;
+import static com.gettipsi.stripe.util.InitializationOptions.SOURCE_POLLING_MAX_DELAY_MS;
+import static com.gettipsi.stripe.util.InitializationOptions.SOURCE_POLLING_MAX_WAIT_MS;
+import static com.gettipsi.stripe.util.InitializationOptions.SOURCE_POLLING_MULTIPLIER;
+import static com.gettipsi.stripe.util.InitializationOptions.SOURCE_POLLING_SPECULATIVE;
+import static com.gettipsi.stripe.util.InitializationOptions.SOURCE_POLLING_SPECULATIVE_INTERVAL_MS;
+
+/**
+ * Polls a Source until it leaves the `pending` status.
+ * Every retrieve runs on the given scheduler, never on the UI thread. The wait between attempts
+ * grows exponentially with random jitter, and polling stops once the attempt or wait budget runs out.
+ */
+final class SourcePoller {
+
+  // Every retrieve, and every poll from its start to a terminal status or giving up
+  private static final LatencyHistogram FETCH_LATENCY = Metrics.histogram("sourcePoller.fetch");
+  private static final LatencyHistogram POLL_LATENCY = Metrics.histogram("sourcePoller.total");
+
+  interface Fetcher {
+    Source fetch(@NonNull String sourceId, @NonNull String clientSecret) throws Exception;
+  }
+
+  interface Listener {
+    /**
+     * The source is still pending and another attempt has been scheduled.
+     */
+    void onPending(@NonNull Source source, int attempt);
+
+    /**
+     * The source reached a status other than `pending`.
+     */
+    void onCompleted(@NonNull Source source);
+
+    /**
+     * The attempt or wait budget ran out. {@code lastKnown} is the last retrieved source, if any.
+     */
+    void onExhausted(@Nullable Source lastKnown, @Nullable Exception lastError);
+  }
+
+  static final class Options {
+
+    static final Options DEFAULT = new Options(1000, 8000, 2.0, 0.2, 11, 60000, false, 3000);
+
+    final long initialDelayMs;
+    final long maxDelayMs;
+    final double multiplier;
+    final double jitter;
+    final int maxAttempts;
+    final long maxWaitMs;
+    final boolean speculative;
+    final long speculativeIntervalMs;
+
+    Options(long initialDelayMs, long maxDelayMs, double multiplier, double jitter, int maxAttempts, long maxWaitMs,
+            boolean speculative, long speculativeIntervalMs) {
+      ArgCheck.isTrue(initialDelayMs >= 0 && maxDelayMs >= initialDelayMs, "Invalid polling delays");
+      ArgCheck.isTrue(multiplier >= 1.0, "Polling multiplier must be >= 1");
+      ArgCheck.isTrue(jitter >= 0.0 && jitter <= 1.0, "Polling jitter must be within [0, 1]");
+      ArgCheck.isTrue(maxAttempts > 0, "Polling maxAttempts must be positive");
+      ArgCheck.isTrue(maxWaitMs > 0, "Polling maxWaitMs must be positive");
+      ArgCheck.isTrue(speculativeIntervalMs > 0, "Polling speculativeIntervalMs must be positive");
+
+      this.initialDelayMs = initialDelayMs;
+      this.maxDelayMs = maxDelayMs;
+      this.multiplier = multiplier;
+      this.jitter = jitter;
+      this.maxAttempts = maxAttempts;
+      this.maxWaitMs = maxWaitMs;
+      this.speculative = speculative;
+      this.speculativeIntervalMs = speculativeIntervalMs;
+    }
+
+    static Options fromMap(@Nullable ReadableMap map) {
+      if (map == null) {
+        return DEFAULT;
+      }
+
+      return new Options(
+        getLong(map, SOURCE_POLLING_INITIAL_DELAY_MS, DEFAULT.initialDelayMs),
+        getLong(map, SOURCE_POLLING_MAX_DELAY_MS, DEFAULT.maxDelayMs),
+        getDouble(map, SOURCE_POLLING_MULTIPLIER, DEFAULT.multiplier),
+        getDouble(map, SOURCE_POLLING_JITTER, DEFAULT.jitter),
+        (int) getLong(map, SOURCE_POLLING_MAX_ATTEMPTS, DEFAULT.maxAttempts),
+        getLong(map, SOURCE_POLLING_MAX_WAIT_MS, DEFAULT.maxWaitMs),
+        map.hasKey(SOURCE_POLLING_SPECULATIVE) && map.getBoolean(SOURCE_POLLING_SPECULATIVE),
+        getLong(map, SOURCE_POLLING_SPECULATIVE_INTERVAL_MS, DEFAULT.speculativeIntervalMs)
+      );
+    }
+
+    private static long getLong(ReadableMap map, String key, long def) {
+      return map.hasKey(key) && !map.isNull(key) ? (long) map.getDouble(key) : def;
+    }
+
+    private static double getDouble(ReadableMap map, String key, double def) {
+      return map.hasKey(key) && !map.isNull(key) ? map.getDouble(key) : def;
+    }
+  }
+
+  /**
+   * A running poll. Cancelling it guarantees that no listener callback is delivered afterwards.
+   */
+  final class Poll implements Runnable {
+
+    private final String sourceId;
+    private final String clientSecret;
+    private final Listener listener;
+    private final Options options;
+    private final long startedAt = System.currentTimeMillis();
+    private final long startedAtNanos = System.nanoTime();
+
+    private int attempt;
+    private Source lastKnown;
+    private Exception lastError;
+    private volatile boolean cancelled;
+    private volatile Future<?> future;
+
+    Poll(String sourceId, String clientSecret, Listener listener, Options options) {
+      this.sourceId = sourceId;
+      this.clientSecret = clientSecret;
+      this.listener = listener;
+      this.options = options;
+    }
+
+    public void cancel() {
+      if (!cancelled) {
+        Tracing.endAsync("SourcePoller.poll", Tracing.cookieOf(sourceId));
+      }
+      cancelled = true;
+      Future<?> f = future;
+      if (f != null) {
+        f.cancel(false);
+      }
+    }
+
+    boolean isCancelled() {
+      return cancelled;
+    }
+
+    private void schedule(long delayMs) {
+      future = scheduler.schedule(this, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void run() {
+      if (cancelled) {
+        return;
+      }
+
+      attempt++;
+      Source source = null;
+      long fetchStartedAt = System.nanoTime();
+      boolean traced = Tracing.beginSection("SourcePoller.fetch");
+      try {
+        source = fetcher.fetch(sourceId, clientSecret);
+      } catch (Exception e) {
+        lastError = e;
+      } finally {
+        Tracing.endSection(traced);
+      }
+      FETCH_LATENCY.record(System.nanoTime() - fetchStartedAt);
+
+      if (cancelled) {
+        return;
+      }
+
+      if (source != null && source.getStatus() != null) {
+        lastKnown = source;
+        if (!SourceStatus.PENDING.equalsIgnoreCase(source.getStatus())) {
+          POLL_LATENCY.record(System.nanoTime() - startedAtNanos);
+          Tracing.endAsync("SourcePoller.poll", Tracing.cookieOf(sourceId));
+          listener.onCompleted(source);
+          return;
+        }
+      }
+
+      long delay = nextDelay(attempt);
+      long elapsed = System.currentTimeMillis() - startedAt;
+      if (attempt >= options.maxAttempts || elapsed + delay > options.maxWaitMs) {
+        POLL_LATENCY.record(System.nanoTime() - startedAtNanos);
+        Tracing.endAsync("SourcePoller.poll", Tracing.cookieOf(sourceId));
+        listener.onExhausted(lastKnown, lastError);
+        return;
+      }
+
+      if (source != null) {
+        listener.onPending(source, attempt);
+      }
+      schedule(delay);
+    }
+
+    private long nextDelay(int attempt) {
+      double base = options.initialDelayMs * Math.pow(options.multiplier, attempt - 1);
+      double capped = Math.min(base, options.maxDelayMs);
+      return (long) (capped * (1.0 - options.jitter * random.nextDouble()));
+    }
+  }
+
+  /**
+   * Low-frequency background poll started while the customer is still on the redirect page.
+   * It only remembers the latest retrieved source and stops by itself once that source leaves `pending`.
+   */
+  final class Watch implements Runnable {
+
+    private final String sourceId;
+    private final String clientSecret;
+    private final long intervalMs;
+    private final long deadline;
+
+    private volatile Source lastKnown;
+    private volatile boolean cancelled;
+    private volatile Future<?> future;
+
+    Watch(String sourceId, String clientSecret, long intervalMs, long maxWaitMs) {
+      this.sourceId = sourceId;
+      this.clientSecret = clientSecret;
+      this.intervalMs = intervalMs;
+      this.deadline = System.currentTimeMillis() + maxWaitMs;
+    }
+
+    String getSourceId() {
+      return sourceId;
+    }
+
+    /**
+     * @return the last retrieved source if it already reached a status other than `pending`, null otherwise
+     */
+    @Nullable
+    Source getTerminalSource() {
+      Source source = lastKnown;
+      if (source == null || source.getStatus() == null || SourceStatus.PENDING.equalsIgnoreCase(source.getStatus())) {
+        return null;
+      }
+      return source;
+    }
+
+    public void cancel() {
+      cancelled = true;
+      Future<?> f = future;
+      if (f != null) {
+        f.cancel(false);
+      }
+    }
+
+    private void schedule(long delayMs) {
+      future = scheduler.schedule(this, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void run() {
+      if (cancelled) {
+        return;
+      }
+
+      long fetchStartedAt = System.nanoTime();
+      boolean traced = Tracing.beginSection("SourcePoller.watchFetch");
+      try {
+        Source source = fetcher.fetch(sourceId, clientSecret);
+        if (source != null) {
+          lastKnown = source;
+        }
+      } catch (Exception e) {
+        // Speculative, the regular poll after the redirect will surface errors
+      } finally {
+        Tracing.endSection(traced);
+      }
+      FETCH_LATENCY.record(System.nanoTime() - fetchStartedAt);
+
+      if (!cancelled && getTerminalSource() == null && System.currentTimeMillis() + intervalMs < deadline) {
+        schedule(intervalMs);
+      }
+    }
+  }
+
+  private final ScheduledExecutorService scheduler;
+  private final Fetcher fetcher;
+  private final Random random = new Random();
+  private volatile Options options = Options.DEFAULT;
+
+  SourcePoller(@NonNull ScheduledExecutorService scheduler, @NonNull Fetcher fetcher) {
+    this.scheduler = ArgCheck.nonNull(scheduler);
+    this.fetcher = ArgCheck.nonNull(fetcher);
+  }
+
+  void setOptions(@NonNull Options options) {
+    this.options = ArgCheck.nonNull(options);
+  }
+
+  boolean isSpeculativeEnabled() {
+    return options.speculative;
+  }
+
+  /**
+   * Starts polling right away. Returns immediately, the listener is called on the scheduler thread.
+   */
+  Poll poll(@NonNull String sourceId, @NonNull String clientSecret, @NonNull Listener listener) {
+    Poll poll = new Poll(
+      ArgCheck.nonNull(sourceId),
+      ArgCheck.nonNull(clientSecret),
+      ArgCheck.nonNull(listener),
+      options);
+    // Keyed by source id, a trace shows every poll next to the redirect it follows
+    Tracing.beginAsync("SourcePoller.poll", Tracing.cookieOf(sourceId));
+    poll.schedule(0);
+    return poll;
+  }
+
+  /**
+   * Starts a speculative {@link Watch}, the first retrieve happens one interval from now.
+   */
+  Watch watch(@NonNull String sourceId, @NonNull String clientSecret) {
+    Options current = options;
+    Watch watch = new Watch(
+      ArgCheck.nonNull(sourceId),
+      ArgCheck.nonNull(clientSecret),
+      current.speculativeIntervalMs,
+      current.maxWaitMs);
+    watch.schedule(current.speculativeIntervalMs);
+    return watch;
+  }
+}
@@ -3,8 +3,6 @@ package com.gettipsi.stripe;
 import android.app.Activity;
 import android.content.Intent;
 import android.net.Uri;
-import android.os.AsyncTask;
-import android.os.Handler;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -13,17 +11,31 @@ import android.text.TextUtils;
 import android.util.Log;
 
 import com.facebook.react.bridge.ActivityEventListener;
+import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.BaseActivityEventListener;
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
-import com.facebook.react.bridge.ReadableMapKeySetIterator;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
 import com.gettipsi.stripe.dialog.AddCardDialogFragment;
 import com.gettipsi.stripe.util.ArgCheck;
+import com.gettipsi.stripe.util.BatchRunner;
+import com.gettipsi.stripe.util.BinTable;
 import com.gettipsi.stripe.util.Converters;
+import com.gettipsi.stripe.util.ExpiringLruCache;
 import com.gettipsi.stripe.util.Fun0;
+import com.gettipsi.stripe.util.InvalidParamsException;
+import com.gettipsi.stripe.util.Metrics;
+import com.gettipsi.stripe.util.Projection;
+import com.gettipsi.stripe.util.RequestKeys;
+import com.gettipsi.stripe.util.SingleFlight;
+import com.gettipsi.stripe.util.StripeExecutors;
+import com.gettipsi.stripe.util.TimedPromise;
+import com.gettipsi.stripe.util.Tracing;
 import com.google.android.gms.wallet.WalletConstants;
 import com.stripe.android.ApiResultCallback;
 import com.stripe.android.AppInfo;
@@ -32,7 +44,7 @@ import com.stripe.android.SetupIntentResult;
 import com.stripe.android.SourceCallback;
 import com.stripe.android.Stripe;
 import com.stripe.android.TokenCallback;
-import com.stripe.android.model.Address;
+import com.stripe.android.model.Card;
 import com.stripe.android.model.ConfirmPaymentIntentParams;
 import com.stripe.android.model.ConfirmSetupIntentParams;
 import com.stripe.android.model.PaymentMethod;
@@ -43,14 +55,14 @@ import com.stripe.android.model.SourceParams;
 import com.stripe.android.model.StripeIntent;
 import com.stripe.android.model.Token;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+
 
 import static com.gettipsi.stripe.Errors.AUTHENTICATION_FAILED;
 import static com.gettipsi.stripe.Errors.CANCELLED;
 import static com.gettipsi.stripe.Errors.FAILED;
+import static com.gettipsi.stripe.Errors.NOT_FOUND;
 import static com.gettipsi.stripe.Errors.UNEXPECTED;
 import static com.gettipsi.stripe.Errors.getDescription;
 import static com.gettipsi.stripe.Errors.getErrorCode;
@@ -62,13 +74,21 @@ import static com.gettipsi.stripe.util.Converters.convertSourceToWritableMap;
 import static com.gettipsi.stripe.util.Converters.convertTokenToWritableMap;
 import static com.gettipsi.stripe.util.Converters.createBankAccount;
 import static com.gettipsi.stripe.util.Converters.createCard;
-import static com.gettipsi.stripe.util.Converters.getBooleanOrNull;
 import static com.gettipsi.stripe.util.Converters.getMapOrNull;
-import static com.gettipsi.stripe.util.Converters.getStringOrNull;
 import static com.gettipsi.stripe.util.InitializationOptions.ANDROID_PAY_MODE_KEY;
 import static com.gettipsi.stripe.util.InitializationOptions.ANDROID_PAY_MODE_PRODUCTION;
 import static com.gettipsi.stripe.util.InitializationOptions.ANDROID_PAY_MODE_TEST;
+import static com.gettipsi.stripe.util.InitializationOptions.ANDROID_PAY_READINESS_KEY;
+import static com.gettipsi.stripe.util.InitializationOptions.ANDROID_PAY_REQUESTS_KEY;
+import static com.gettipsi.stripe.util.InitializationOptions.ANDROID_PAY_READINESS_PREFETCH;
+import static com.gettipsi.stripe.util.InitializationOptions.ANDROID_PAY_READINESS_TTL_MS;
+import static com.gettipsi.stripe.util.InitializationOptions.MAX_PENDING_OPERATIONS_KEY;
+import static com.gettipsi.stripe.util.InitializationOptions.METRICS_EVENT_INTERVAL_MS;
+import static com.gettipsi.stripe.util.InitializationOptions.METRICS_KEY;
+import static com.gettipsi.stripe.util.InitializationOptions.METRICS_RESET_ON_EVENT;
 import static com.gettipsi.stripe.util.InitializationOptions.PUBLISHABLE_KEY;
+import static com.gettipsi.stripe.util.InitializationOptions.REQUEST_REUSE_TTL_MS_KEY;
+import static com.gettipsi.stripe.util.InitializationOptions.SOURCE_POLLING_KEY;
 import static com.stripe.android.model.StripeIntent.Status.Canceled;
 import static com.stripe.android.model.StripeIntent.Status.RequiresAction;
 import static com.stripe.android.model.StripeIntent.Status.RequiresCapture;
@@ -88,6 +108,8 @@ public class StripeModule extends ReactContextBaseJavaModule {
     private static final String APP_INFO_URL = "https://github.com/tipsi/tipsi-stripe";
     private static final String APP_INFO_VERSION = "8.x";
     public static final String CLIENT_SECRET = "clientSecret";
+    public static final String SOURCE_POLLING_STATUS_EVENT = "StripeSourcePollingStatus";
+    public static final String METRICS_EVENT = "StripeMetrics";
 
     private static StripeModule sInstance = null;
 
@@ -99,17 +121,30 @@ public class StripeModule extends ReactContextBaseJavaModule {
         return mStripe;
     }
 
-    @Nullable
-    private Promise mCreateSourcePromise;
+    private final OperationRegistry mOperations;
 
+    // Source id used by the legacy openGateWaySourceParams() that takes no id
     @Nullable
-    private Source mCreatedSource;
+    private volatile String mLastCreatedSourceId;
 
     private String mPublicKey;
     private Stripe mStripe;
     private PayFlow mPayFlow;
     private ReadableMap mErrorCodes;
-    private int recallTime = 0;
+    @Nullable
+    private ScheduledFuture<?> mMetricsEvents;
+    private final SourcePoller mSourcePoller;
+    private final PayRequestScheduler mPayRequests = new PayRequestScheduler(StripeExecutors.scheduler());
+    private final CardFormPool mCardFormPool;
+    private final SingleFlight<Token> mTokenRequests = new SingleFlight<>();
+    private final SingleFlight<PaymentMethod> mPaymentMethodRequests = new SingleFlight<>();
+
+    // Sources in a terminal status never change again and stay cached until evicted,
+    // pending ones are only reused for a short moment
+    private static final int RETRIEVE_CACHE_SIZE = 64;
+    private static final long NON_TERMINAL_SOURCE_TTL_MS = 2000;
+    private final ExpiringLruCache<Source> mSourceCache = new ExpiringLruCache<>(RETRIEVE_CACHE_SIZE);
+    private final ExpiringLruCache<PaymentMethod> mPaymentMethodCache = new ExpiringLruCache<>(RETRIEVE_CACHE_SIZE);
 
     private final ActivityEventListener mActivityEventListener = new BaseActivityEventListener() {
 
@@ -124,11 +159,36 @@ public class StripeModule extends ReactContextBaseJavaModule {
 
 
     public StripeModule(ReactApplicationContext reactContext) {
+        this(reactContext, new CardFormPool());
+    }
+
+    StripeModule(ReactApplicationContext reactContext, @NonNull CardFormPool cardFormPool) {
         super(reactContext);
+        mCardFormPool = ArgCheck.nonNull(cardFormPool);
 
         // Add the listener for `onActivityResult`
         reactContext.addActivityEventListener(mActivityEventListener);
 
+        mSourcePoller = new SourcePoller(StripeExecutors.scheduler(), new SourcePoller.Fetcher() {
+            @Override
+            public Source fetch(@NonNull String sourceId, @NonNull String clientSecret) throws Exception {
+                Source cached = mSourceCache.peek(sourceId);
+                if (cached != null && isTerminal(cached)) {
+                    return cached;
+                }
+                return retrieveAndCacheSource(sourceId, clientSecret);
+            }
+        });
+
+        mOperations = new OperationRegistry(new OperationRegistry.EvictionListener() {
+            @Override
+            public void onEvicted(@NonNull OperationRegistry.Operation operation) {
+                if (operation.promise != null) {
+                    operation.promise.reject(CANCELLED, "The operation was abandoned or replaced before it completed");
+                }
+            }
+        }, OperationRegistry.DEFAULT_CAPACITY, OperationRegistry.DEFAULT_ABANDON_TIMEOUT_MS);
+
         sInstance = this;
     }
 
@@ -159,12 +219,52 @@ public class StripeModule extends ReactContextBaseJavaModule {
             getPayFlow().setEnvironment(androidPayModeToEnvironment(newAndroidPayMode));
         }
 
+        if (options.hasKey(ANDROID_PAY_READINESS_KEY)) {
+            ReadableMap readiness = getMapOrNull(options, ANDROID_PAY_READINESS_KEY);
+            if (readiness != null && readiness.hasKey(ANDROID_PAY_READINESS_TTL_MS)) {
+                getPayFlow().setReadinessTtlMs((long) readiness.getDouble(ANDROID_PAY_READINESS_TTL_MS));
+            }
+            // Needs the environment, androidPayMode may come with these options or have been set before
+            if (readiness != null && Converters.getValue(readiness, ANDROID_PAY_READINESS_PREFETCH, false)
+                    && getPayFlow().hasEnvironment()) {
+                getPayFlow().prefetchReadiness();
+            }
+        }
+
+        if (options.hasKey(ANDROID_PAY_REQUESTS_KEY)) {
+            mPayRequests.setOptions(PayRequestScheduler.Options.fromMap(getMapOrNull(options, ANDROID_PAY_REQUESTS_KEY)));
+        }
+
+        if (options.hasKey(SOURCE_POLLING_KEY)) {
+            mSourcePoller.setOptions(SourcePoller.Options.fromMap(getMapOrNull(options, SOURCE_POLLING_KEY)));
+        }
+
+        if (options.hasKey(REQUEST_REUSE_TTL_MS_KEY)) {
+            long reuseTtlMs = (long) options.getDouble(REQUEST_REUSE_TTL_MS_KEY);
+            mTokenRequests.setReuseTtlMs(reuseTtlMs);
+            mPaymentMethodRequests.setReuseTtlMs(reuseTtlMs);
+        }
+
+        if (options.hasKey(MAX_PENDING_OPERATIONS_KEY)) {
+            mOperations.setCapacity(options.getInt(MAX_PENDING_OPERATIONS_KEY));
+        }
+
+        if (options.hasKey(METRICS_KEY)) {
+            scheduleMetricsEvents(getMapOrNull(options, METRICS_KEY));
+        }
+
         if (mErrorCodes == null) {
             mErrorCodes = errorCodes;
             getPayFlow().setErrorCodes(errorCodes);
+            mPayRequests.setErrorCodes(errorCodes);
         }
     }
 
+    // Lets the load test harness replace Google Pay with a scripted PayFlow
+    void setPayFlow(@NonNull PayFlow payFlow) {
+        mPayFlow = ArgCheck.nonNull(payFlow);
+    }
+
     private PayFlow getPayFlow() {
         if (mPayFlow == null) {
             mPayFlow = PayFlow.create(
@@ -185,33 +285,60 @@ public class StripeModule extends ReactContextBaseJavaModule {
     }
 
     @ReactMethod
-    public void deviceSupportsAndroidPay(final Promise promise) {
+    public void deviceSupportsAndroidPay(final Promise bridgePromise) {
+        final Promise promise = TimedPromise.of("deviceSupportsAndroidPay", bridgePromise);
         getPayFlow().deviceSupportsAndroidPay(false, promise);
     }
 
     @ReactMethod
-    public void canMakeAndroidPayPayments(final Promise promise) {
+    public void canMakeAndroidPayPayments(final Promise bridgePromise) {
+        final Promise promise = TimedPromise.of("canMakeAndroidPayPayments", bridgePromise);
         getPayFlow().deviceSupportsAndroidPay(true, promise);
     }
 
     @ReactMethod
-    public void createTokenWithCard(final ReadableMap cardData, final Promise promise) {
+    public void createTokenWithCard(final ReadableMap cardData, final Promise bridgePromise) {
+        final Promise promise = TimedPromise.of("createTokenWithCard", bridgePromise);
         try {
             ArgCheck.nonNull(mStripe);
             ArgCheck.notEmptyString(mPublicKey);
 
-            mStripe.createToken(
-                    createCard(cardData),
-                    mPublicKey,
-                    new TokenCallback() {
+            final Card card = createCard(cardData);
+            final Projection projection = Projection.fromOptions(cardData);
+            final Stripe stripe = mStripe;
+            final String publicKey = mPublicKey;
+
+            // Double taps and re-renders fire identical requests, they share a single network call
+            mTokenRequests.execute(
+                    RequestKeys.of("token:" + publicKey, cardData),
+                    new SingleFlight.Callback<Token>() {
+                        @Override
                         public void onSuccess(Token token) {
-                            promise.resolve(convertTokenToWritableMap(token));
+                            promise.resolve(convertTokenToWritableMap(token, projection));
                         }
 
+                        @Override
                         public void onError(Exception error) {
-                            error.printStackTrace();
                             promise.reject(toErrorCode(error), error.getMessage());
                         }
+                    },
+                    new SingleFlight.Call<Token>() {
+                        @Override
+                        public void start(@NonNull final SingleFlight.Callback<Token> callback) {
+                            final long startedAt = System.nanoTime();
+                            stripe.createToken(card, publicKey, new TokenCallback() {
+                                public void onSuccess(Token token) {
+                                    Metrics.recordSince("createTokenWithCard.sdk", startedAt);
+                                    callback.onSuccess(token);
+                                }
+
+                                public void onError(Exception error) {
+                                    Metrics.recordSince("createTokenWithCard.sdk", startedAt);
+                                    error.printStackTrace();
+                                    callback.onError(error);
+                                }
+                            });
+                        }
                     });
         } catch (Exception e) {
             promise.reject(toErrorCode(e), e.getMessage());
@@ -219,21 +346,26 @@ public class StripeModule extends ReactContextBaseJavaModule {
     }
 
     @ReactMethod
-    public void createTokenWithBankAccount(final ReadableMap accountData, final Promise promise) {
+    public void createTokenWithBankAccount(final ReadableMap accountData, final Promise bridgePromise) {
+        final Promise promise = TimedPromise.of("createTokenWithBankAccount", bridgePromise);
         try {
             ArgCheck.nonNull(mStripe);
             ArgCheck.notEmptyString(mPublicKey);
 
+            final Projection projection = Projection.fromOptions(accountData);
+            final long startedAt = System.nanoTime();
             mStripe.createBankAccountToken(
                     createBankAccount(accountData),
                     mPublicKey,
                     null,
                     new TokenCallback() {
                         public void onSuccess(Token token) {
-                            promise.resolve(convertTokenToWritableMap(token));
+                            Metrics.recordSince("createTokenWithBankAccount.sdk", startedAt);
+                            promise.resolve(convertTokenToWritableMap(token, projection));
                         }
 
                         public void onError(Exception error) {
+                            Metrics.recordSince("createTokenWithBankAccount.sdk", startedAt);
                             error.printStackTrace();
                             promise.reject(toErrorCode(error), error.getMessage());
                         }
@@ -245,7 +377,8 @@ public class StripeModule extends ReactContextBaseJavaModule {
 
     //  custom
     @ReactMethod
-    public void paymentRequestWithCardForm(ReadableMap params, final Promise promise) {
+    public void paymentRequestWithCardForm(ReadableMap params, final Promise bridgePromise) {
+        final Promise promise = TimedPromise.of("paymentRequestWithCardForm", bridgePromise);
 //    String stripePublishableKey = params.getString("stripePublishableKey");
         String stripeEphemeralKey = params.getString("stripeEphemeralKey");
         Activity currentActivity = getCurrentActivity();
@@ -253,12 +386,22 @@ public class StripeModule extends ReactContextBaseJavaModule {
             ArgCheck.nonNull(currentActivity);
             ArgCheck.notEmptyString(mPublicKey);
 
-            mCreateSourcePromise = promise;
             if (null != mPublicKey && !mPublicKey.isEmpty()) {
+                OperationRegistry.Operation operation =
+                        mOperations.put(mOperations.nextId("selectCard"), OperationRegistry.Kind.SELECT_CARD);
+                operation.promise = promise;
+
                 Intent intent = new Intent(currentActivity, SelectCardActivity.class);
                 intent.putExtra("stripePublishableKey", mPublicKey);
                 intent.putExtra("stripeEphemeralKey", stripeEphemeralKey);
-                currentActivity.startActivity(intent);
+                intent.putExtra(SelectCardActivity.EXTRA_OPERATION_ID, operation.id);
+                Tracing.beginAsync("StripeModule.SelectCardActivity", Tracing.cookieOf(operation.id));
+                boolean traced = Tracing.beginSection("StripeModule.startSelectCardActivity");
+                try {
+                    currentActivity.startActivity(intent);
+                } finally {
+                    Tracing.endSection(traced);
+                }
             } else {
                 promise.reject("stripePublishKeyFail", "Stripe publish key not found");
             }
@@ -275,62 +418,108 @@ public class StripeModule extends ReactContextBaseJavaModule {
     }
 //  custom
 
-    public void processSelectCard(@Nullable PaymentMethod paymentMethod) {
-        if (null == mCreateSourcePromise) {
+    public void processSelectCard(@Nullable String operationId, @Nullable PaymentMethod paymentMethod) {
+        OperationRegistry.Operation operation = mOperations.remove(operationId);
+        if (null == operation || null == operation.promise) {
             return;
         }
+        Tracing.endAsync("StripeModule.SelectCardActivity", Tracing.cookieOf(operation.id));
 
-        final Promise promise = mCreateSourcePromise;
+        final Promise promise = operation.promise;
         if (null == paymentMethod) {
             promise.reject("selectCardFail", "Payment method fail");
-            mCreateSourcePromise = null;
             return;
         }
 
+        cachePaymentMethod(paymentMethod);
         promise.resolve(Converters.convertPaymentMethodToWritableMap(paymentMethod));
     }
 
+    /**
+     * Validates the params and builds the Google Pay request ahead of the tap, resolves a handle to pass as
+     * {@code handle} to paymentRequestWithAndroidPay, optionally with a new {@code total_price}.
+     */
     @ReactMethod
-    public void paymentRequestWithAndroidPay(final ReadableMap payParams, final Promise promise) {
-        getPayFlow().paymentRequestWithAndroidPay(payParams, promise);
+    public void preparePaymentRequest(final ReadableMap payParams, final Promise bridgePromise) {
+        final Promise promise = TimedPromise.of("preparePaymentRequest", bridgePromise);
+        getPayFlow().preparePaymentRequest(payParams, promise);
     }
 
-    private void attachPaymentResultActivityListener(final Promise promise) {
+    /**
+     * Makes the next deviceSupportsAndroidPay / canMakeAndroidPayPayments ask Google Pay again instead of
+     * reusing a cached outcome, e.g. after the user added a card to Google Pay.
+     */
+    @ReactMethod
+    public void invalidateAndroidPayReadiness() {
+        getPayFlow().invalidateReadiness();
+    }
+
+    @ReactMethod
+    public void paymentRequestWithAndroidPay(final ReadableMap payParams, final Promise bridgePromise) {
+        final Promise promise = TimedPromise.of("paymentRequestWithAndroidPay", bridgePromise);
+        // The pay flow holds one request at a time, overlapping ones are handled by the androidPayRequests policy
+        mPayRequests.submit(promise, new PayRequestScheduler.Launcher() {
+            @Override
+            public void launch(@NonNull Promise request) {
+                getPayFlow().paymentRequestWithAndroidPay(payParams, request);
+            }
+        });
+    }
+
+    /**
+     * @param operation name the activity and SDK phases are recorded under
+     */
+    private void attachPaymentResultActivityListener(final String operation, final Promise promise) {
+        final long attachedAt = System.nanoTime();
+        final String traceName = Tracing.isEnabled() ? "StripeModule." + operation + ".activity" : null;
+        final int traceCookie = traceName != null ? Tracing.beginAsync(traceName) : 0;
         ActivityEventListener ael = new BaseActivityEventListener() {
 
             @Override
             public void onActivityResult(Activity a, int requestCode, int resultCode, Intent data) {
                 final ActivityEventListener ael = this;
+                Metrics.recordSince(operation + ".activity", attachedAt);
+                if (traceName != null) {
+                    Tracing.endAsync(traceName, traceCookie);
+                }
+                final long resultAt = System.nanoTime();
 
-                mStripe.onPaymentResult(requestCode, data, new ApiResultCallback<PaymentIntentResult>() {
-                    @Override
-                    public void onSuccess(@NonNull PaymentIntentResult result) {
-                        getReactApplicationContext().removeActivityEventListener(ael);
-
-                        StripeIntent.Status resultingStatus = result.getIntent().getStatus();
-
-                        if (Succeeded.equals(resultingStatus) ||
-                                RequiresCapture.equals(resultingStatus)) {
-                            promise.resolve(convertPaymentIntentResultToWritableMap(result));
-                        } else {
-                            if (Canceled.equals(resultingStatus) ||
-                                    RequiresAction.equals(resultingStatus) ||
-                                    RequiresConfirmation.equals(resultingStatus)
-                            ) {
-                                promise.reject(CANCELLED, CANCELLED);      // TODO - normalize the message
+                boolean traced = Tracing.beginSection("StripeModule.onPaymentResult");
+                try {
+                    mStripe.onPaymentResult(requestCode, data, new ApiResultCallback<PaymentIntentResult>() {
+                        @Override
+                        public void onSuccess(@NonNull PaymentIntentResult result) {
+                            Metrics.recordSince(operation + ".sdk", resultAt);
+                            getReactApplicationContext().removeActivityEventListener(ael);
+
+                            StripeIntent.Status resultingStatus = result.getIntent().getStatus();
+
+                            if (Succeeded.equals(resultingStatus) ||
+                                    RequiresCapture.equals(resultingStatus)) {
+                                promise.resolve(convertPaymentIntentResultToWritableMap(result));
                             } else {
-                                promise.reject(FAILED, FAILED);
+                                if (Canceled.equals(resultingStatus) ||
+                                        RequiresAction.equals(resultingStatus) ||
+                                        RequiresConfirmation.equals(resultingStatus)
+                                ) {
+                                    promise.reject(CANCELLED, CANCELLED);      // TODO - normalize the message
+                                } else {
+                                    promise.reject(FAILED, FAILED);
+                                }
                             }
                         }
-                    }
 
-                    @Override
-                    public void onError(@NonNull Exception e) {
-                        getReactApplicationContext().removeActivityEventListener(ael);
-                        e.printStackTrace();
-                        promise.reject(toErrorCode(e), e.getMessage());
-                    }
-                });
+                        @Override
+                        public void onError(@NonNull Exception e) {
+                            Metrics.recordSince(operation + ".sdk", resultAt);
+                            getReactApplicationContext().removeActivityEventListener(ael);
+                            e.printStackTrace();
+                            promise.reject(toErrorCode(e), e.getMessage());
+                        }
+                    });
+                } finally {
+                    Tracing.endSection(traced);
+                }
             }
 
             @Override
@@ -341,47 +530,65 @@ public class StripeModule extends ReactContextBaseJavaModule {
         getReactApplicationContext().addActivityEventListener(ael);
     }
 
-    private void attachSetupResultActivityListener(final Promise promise) {
+    /**
+     * @param operation name the activity and SDK phases are recorded under
+     */
+    private void attachSetupResultActivityListener(final String operation, final Promise promise) {
+        final long attachedAt = System.nanoTime();
+        final String traceName = Tracing.isEnabled() ? "StripeModule." + operation + ".activity" : null;
+        final int traceCookie = traceName != null ? Tracing.beginAsync(traceName) : 0;
         ActivityEventListener ael = new BaseActivityEventListener() {
             @Override
             public void onActivityResult(Activity a, int requestCode, int resultCode, Intent data) {
                 final ActivityEventListener ael = this;
-
-                mStripe.onSetupResult(requestCode, data, new ApiResultCallback<SetupIntentResult>() {
-                    @Override
-                    public void onSuccess(@NonNull SetupIntentResult result) {
-                        getReactApplicationContext().removeActivityEventListener(ael);
-
-                        try {
-                            switch (result.getIntent().getStatus()) {
-                                case Canceled:
-                                    // The Setup Intent was canceled, so reject the promise with a predefined code.
-                                    promise.reject(CANCELLED, "The SetupIntent was canceled by the user.");
-                                    break;
-                                case RequiresAction:
-                                case RequiresPaymentMethod:
-                                    promise.reject(AUTHENTICATION_FAILED, "The user failed authentication.");
-                                    break;
-                                case Succeeded:
-                                    promise.resolve(convertSetupIntentResultToWritableMap(result));
-                                    break;
-                                case RequiresCapture:
-                                case RequiresConfirmation:
-                                default:
-                                    promise.reject(UNEXPECTED, "Unexpected state");
+                Metrics.recordSince(operation + ".activity", attachedAt);
+                if (traceName != null) {
+                    Tracing.endAsync(traceName, traceCookie);
+                }
+                final long resultAt = System.nanoTime();
+
+                boolean traced = Tracing.beginSection("StripeModule.onSetupResult");
+                try {
+                    mStripe.onSetupResult(requestCode, data, new ApiResultCallback<SetupIntentResult>() {
+                        @Override
+                        public void onSuccess(@NonNull SetupIntentResult result) {
+                            Metrics.recordSince(operation + ".sdk", resultAt);
+                            getReactApplicationContext().removeActivityEventListener(ael);
+
+                            try {
+                                switch (result.getIntent().getStatus()) {
+                                    case Canceled:
+                                        // The Setup Intent was canceled, so reject the promise with a predefined code.
+                                        promise.reject(CANCELLED, "The SetupIntent was canceled by the user.");
+                                        break;
+                                    case RequiresAction:
+                                    case RequiresPaymentMethod:
+                                        promise.reject(AUTHENTICATION_FAILED, "The user failed authentication.");
+                                        break;
+                                    case Succeeded:
+                                        promise.resolve(convertSetupIntentResultToWritableMap(result));
+                                        break;
+                                    case RequiresCapture:
+                                    case RequiresConfirmation:
+                                    default:
+                                        promise.reject(UNEXPECTED, "Unexpected state");
+                                }
+                            } catch (Exception e) {
+                                promise.reject(UNEXPECTED, "Unexpected error");
                             }
-                        } catch (Exception e) {
-                            promise.reject(UNEXPECTED, "Unexpected error");
                         }
-                    }
 
-                    @Override
-                    public void onError(@NonNull Exception e) {
-                        getReactApplicationContext().removeActivityEventListener(ael);
-                        e.printStackTrace();
-                        promise.reject(toErrorCode(e), e.getMessage());
-                    }
-                });
+                        @Override
+                        public void onError(@NonNull Exception e) {
+                            Metrics.recordSince(operation + ".sdk", resultAt);
+                            getReactApplicationContext().removeActivityEventListener(ael);
+                            e.printStackTrace();
+                            promise.reject(toErrorCode(e), e.getMessage());
+                        }
+                    });
+                } finally {
+                    Tracing.endSection(traced);
+                }
             }
 
             @Override
@@ -393,18 +600,27 @@ public class StripeModule extends ReactContextBaseJavaModule {
     }
 
     @ReactMethod
-    public void confirmPaymentIntent(final ReadableMap options, final Promise promise) {
-        attachPaymentResultActivityListener(promise);
+    public void confirmPaymentIntent(final ReadableMap options, final Promise bridgePromise) {
+        final Promise promise = TimedPromise.of("confirmPaymentIntent", bridgePromise);
+        final ConfirmPaymentIntentParams cpip;
+        try {
+            cpip = ParamsParsers.confirmPaymentIntentParams(options);
+        } catch (InvalidParamsException e) {
+            promise.reject(toErrorCode(e), e.getMessage(), e.toUserInfo());
+            return;
+        }
+        attachPaymentResultActivityListener("confirmPaymentIntent", promise);
 
         Activity activity = getCurrentActivity();
         if (activity != null) {
-            mStripe.confirmPayment(activity, extractConfirmPaymentIntentParams(options));
+            mStripe.confirmPayment(activity, cpip);
         }
     }
 
     @ReactMethod
-    public void authenticatePaymentIntent(final ReadableMap options, final Promise promise) {
-        attachPaymentResultActivityListener(promise);
+    public void authenticatePaymentIntent(final ReadableMap options, final Promise bridgePromise) {
+        final Promise promise = TimedPromise.of("authenticatePaymentIntent", bridgePromise);
+        attachPaymentResultActivityListener("authenticatePaymentIntent", promise);
 
         String clientSecret = options.getString(CLIENT_SECRET);
         Activity activity = getCurrentActivity();
@@ -414,18 +630,27 @@ public class StripeModule extends ReactContextBaseJavaModule {
     }
 
     @ReactMethod
-    public void confirmSetupIntent(final ReadableMap options, final Promise promise) {
-        attachSetupResultActivityListener(promise);
+    public void confirmSetupIntent(final ReadableMap options, final Promise bridgePromise) {
+        final Promise promise = TimedPromise.of("confirmSetupIntent", bridgePromise);
+        final ConfirmSetupIntentParams csip;
+        try {
+            csip = ParamsParsers.confirmSetupIntentParams(options);
+        } catch (InvalidParamsException e) {
+            promise.reject(toErrorCode(e), e.getMessage(), e.toUserInfo());
+            return;
+        }
+        attachSetupResultActivityListener("confirmSetupIntent", promise);
 
         Activity activity = getCurrentActivity();
         if (activity != null) {
-            mStripe.confirmSetupIntent(activity, extractConfirmSetupIntentParams(options));
+            mStripe.confirmSetupIntent(activity, csip);
         }
     }
 
     @ReactMethod
-    public void authenticateSetupIntent(final ReadableMap options, final Promise promise) {
-        attachSetupResultActivityListener(promise);
+    public void authenticateSetupIntent(final ReadableMap options, final Promise bridgePromise) {
+        final Promise promise = TimedPromise.of("authenticateSetupIntent", bridgePromise);
+        attachSetupResultActivityListener("authenticateSetupIntent", promise);
 
         String clientSecret = options.getString(CLIENT_SECRET);
         Activity activity = getCurrentActivity();
@@ -436,468 +661,572 @@ public class StripeModule extends ReactContextBaseJavaModule {
 
 
     @ReactMethod
-    public void createPaymentMethod(final ReadableMap options, final Promise promise) {
+    public void createPaymentMethod(final ReadableMap options, final Promise bridgePromise) {
+        final Promise promise = TimedPromise.of("createPaymentMethod", bridgePromise);
+        final PaymentMethodCreateParams pmcp;
+        try {
+            pmcp = ParamsParsers.paymentMethodCreateParams(options);
+        } catch (InvalidParamsException e) {
+            promise.reject(toErrorCode(e), e.getMessage(), e.toUserInfo());
+            return;
+        }
+        final Projection projection = Projection.fromOptions(options);
+        final Stripe stripe = mStripe;
 
-        PaymentMethodCreateParams pmcp = extractPaymentMethodCreateParams(options);
+        mPaymentMethodRequests.execute(
+                RequestKeys.of("paymentMethod:" + mPublicKey, options),
+                new SingleFlight.Callback<PaymentMethod>() {
+                    @Override
+                    public void onSuccess(PaymentMethod paymentMethod) {
+                        promise.resolve(convertPaymentMethodToWritableMap(paymentMethod, projection));
+                    }
 
-        mStripe.createPaymentMethod(pmcp, new ApiResultCallback<PaymentMethod>() {
+                    @Override
+                    public void onError(Exception error) {
+                        promise.reject(toErrorCode(error), error.getMessage());
+                    }
+                },
+                new SingleFlight.Call<PaymentMethod>() {
+                    @Override
+                    public void start(@NonNull final SingleFlight.Callback<PaymentMethod> callback) {
+                        final long startedAt = System.nanoTime();
+                        stripe.createPaymentMethod(pmcp, new ApiResultCallback<PaymentMethod>() {
 
-            @Override
-            public void onError(Exception error) {
-                promise.reject(toErrorCode(error), error.getMessage());
-            }
+                            @Override
+                            public void onError(Exception error) {
+                                Metrics.recordSince("createPaymentMethod.sdk", startedAt);
+                                callback.onError(error);
+                            }
 
-            @Override
-            public void onSuccess(PaymentMethod paymentMethod) {
-                promise.resolve(convertPaymentMethodToWritableMap(paymentMethod));
-            }
-        });
+                            @Override
+                            public void onSuccess(PaymentMethod paymentMethod) {
+                                Metrics.recordSince("createPaymentMethod.sdk", startedAt);
+                                cachePaymentMethod(paymentMethod);
+                                callback.onSuccess(paymentMethod);
+                            }
+                        });
+                    }
+                });
     }
 
     //  custom
     @ReactMethod
-    public void createSourceWithParams(final ReadableMap options, final Promise promise) {
-        String mimic = options.getString("mimic");
-        SourceParams sourceParams = extractSourceParams(options);
-        HashMap<String, Object> owner = new HashMap<>();
-        if (mimic != null && mimic.equals("succeeding_charge")) {
-            owner.put("name", "succeeding_charge");
-            sourceParams.setOwner(owner);
-        } else if (mimic != null && mimic.equals("failing_charge")) {
-            owner.put("name", "failing_charge");
-            sourceParams.setOwner(owner);
+    public void createSourceWithParams(final ReadableMap options, final Promise bridgePromise) {
+        final Promise promise = TimedPromise.of("createSourceWithParams", bridgePromise);
+        final SourceParams sourceParams;
+        try {
+            sourceParams = ParamsParsers.sourceParams(options);
+        } catch (InvalidParamsException e) {
+            promise.reject(toErrorCode(e), e.getMessage(), e.toUserInfo());
+            return;
         }
+        final Projection projection = Projection.fromOptions(options);
 
-        ArgCheck.nonNull(sourceParams);
-
+        final long startedAt = System.nanoTime();
         mStripe.createSource(sourceParams, new SourceCallback() {
             @Override
             public void onError(Exception error) {
+                Metrics.recordSince("createSourceWithParams.sdk", startedAt);
                 promise.reject("initSourceFail", error.getMessage());
             }
 
             @Override
             public void onSuccess(Source source) {
-                mCreatedSource = source;
-                promise.resolve(convertSourceToWritableMap(source));
+                Metrics.recordSince("createSourceWithParams.sdk", startedAt);
+                registerCreatedSource(source);
+                mLastCreatedSourceId = source.getId();
+                promise.resolve(convertSourceToWritableMap(source, projection));
             }
         });
     }
-//  custom
 
-    // custom -- open chrome cuastom tab
+    private void registerCreatedSource(@NonNull Source source) {
+        OperationRegistry.Operation operation = mOperations.put(source.getId(), OperationRegistry.Kind.SOURCE);
+        operation.source = source;
+        cacheSource(source);
+    }
+
     @ReactMethod
-    public void openGateWaySourceParams(final Promise promise) {
-        if (Source.SourceFlow.REDIRECT.equals(mCreatedSource.getFlow())) {
-            Activity currentActivity = getCurrentActivity();
-            if (currentActivity == null) {
-                mCreateSourcePromise.reject(
-                        getErrorCode(mErrorCodes, "activityUnavailable"),
-                        getDescription(mErrorCodes, "activityUnavailable")
-                );
-            } else {
-                mCreateSourcePromise = promise;
-                String redirectUrl = mCreatedSource.getRedirect().getUrl();
-                Intent intent = new Intent(currentActivity, OpenBrowserActivity.class);
-                intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_SINGLE_TOP);
-                intent.putExtra(OpenBrowserActivity.EXTRA_URL, redirectUrl);
-                currentActivity.startActivity(intent);
+    public void retrieveSource(final String sourceId, final String clientSecret, @Nullable final ReadableMap options, final Promise bridgePromise) {
+        final Promise promise = TimedPromise.of("retrieveSource", bridgePromise);
+        try {
+            ArgCheck.nonNull(mStripe);
+        } catch (Exception e) {
+            promise.reject(toErrorCode(e), e.getMessage());
+            return;
+        }
+
+        final Projection projection = Projection.fromOptions(options);
+        // Like the API, only hand a Source to a caller that knows its client secret
+        Source cached = mSourceCache.get(sourceId);
+        if (cached != null && clientSecret != null && clientSecret.equals(cached.getClientSecret())) {
+            promise.resolve(convertSourceToWritableMap(cached, projection));
+            return;
+        }
+
+        StripeExecutors.background().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Source source = retrieveAndCacheSource(sourceId, clientSecret);
+                    ArgCheck.nonNull(source);
+                    promise.resolve(convertSourceToWritableMap(source, projection));
+                } catch (Exception e) {
+                    promise.reject(toErrorCode(e), e.getMessage());
+                }
             }
+        });
+    }
+
+    /**
+     * PaymentMethods cannot be retrieved with a publishable key, so this only serves PaymentMethods
+     * this module created or received from the card selection screen.
+     */
+    @ReactMethod
+    public void retrievePaymentMethod(final String paymentMethodId, @Nullable final ReadableMap options, final Promise bridgePromise) {
+        final Promise promise = TimedPromise.of("retrievePaymentMethod", bridgePromise);
+        PaymentMethod cached = mPaymentMethodCache.get(paymentMethodId);
+        if (cached != null) {
+            promise.resolve(convertPaymentMethodToWritableMap(cached, Projection.fromOptions(options)));
         } else {
-            mCreateSourcePromise.resolve(convertSourceToWritableMap(mCreatedSource));
+            promise.reject(NOT_FOUND, "PaymentMethod " + paymentMethodId + " is not cached");
         }
     }
-//  custom
 
-    private ConfirmSetupIntentParams extractConfirmSetupIntentParams(final ReadableMap options) {
-        ReadableMap paymentMethod = getMapOrNull(options, "paymentMethod");
-        String paymentMethodId = getStringOrNull(options, "paymentMethodId");
-        String returnURL = getStringOrNull(options, "returnURL");
-        String clientSecret = options.getString("clientSecret");
-        ConfirmSetupIntentParams csip = null;
-        if (returnURL == null) {
-            returnURL = "stripejs://use_stripe_sdk/return_url";
-        }
-
-        if (paymentMethod != null) {
-            csip = ConfirmSetupIntentParams.create(extractPaymentMethodCreateParams(paymentMethod),
-                    clientSecret, returnURL);
-        } else if (paymentMethodId != null) {
-            csip = ConfirmSetupIntentParams.create(paymentMethodId, clientSecret, returnURL);
-        }
-
-        ArgCheck.nonNull(csip);
-        csip.withShouldUseStripeSdk(true);
-        return csip;
-    }
-
-    private ConfirmPaymentIntentParams extractConfirmPaymentIntentParams(final ReadableMap options) {
-        ConfirmPaymentIntentParams cpip = null;
-        String clientSecret = options.getString("clientSecret");
-
-        ReadableMap paymentMethod = getMapOrNull(options, "paymentMethod");
-        String paymentMethodId = getStringOrNull(options, "paymentMethodId");
-
-        // ReadableMap source = options.getMap("source");
-        // String sourceId = getStringOrNull(options,"sourceId");
-
-        String returnURL = getStringOrNull(options, "returnURL");
-        if (returnURL == null) {
-            returnURL = "stripejs://use_stripe_sdk/return_url";
-        }
-        boolean savePaymentMethod = getBooleanOrNull(options, "savePaymentMethod", false);
-
-        // TODO support extra params in each of the create methods below
-        Map<String, Object> extraParams = null;
-
-        // Create with Payment Method
-        if (paymentMethod != null) {
-
-            PaymentMethodCreateParams pmcp = extractPaymentMethodCreateParams(paymentMethod);
-            cpip = ConfirmPaymentIntentParams.createWithPaymentMethodCreateParams(pmcp, clientSecret, returnURL, savePaymentMethod, extraParams);
-
-            // Create with Payment Method ID
-        } else if (paymentMethodId != null) {
-
-            cpip = ConfirmPaymentIntentParams.createWithPaymentMethodId(paymentMethodId, clientSecret, returnURL, savePaymentMethod, extraParams);
-
-            // Create with Source
-            /**
-             Support for creating a Source while confirming a PaymentIntent is not being included
-             at this time, however, for compatibility with existing saved Sources, you can still confirm
-             a payment intent using a pre-existing Source by specifying its 'sourceId', as shown in the next
-             branch
-             */
-    /*
-    } else if (source != null) {
-      SourceParams sourceParams = extractSourceParams(source);
-      cpip = ConfirmPaymentIntentParams.createWithSourceParams(sourceParams, clientSecret, returnURL, savePaymentMethod, extraParams);
-    */
-
-            // Create with Source ID
-            /**
-             If you have a sourceId, pass it into the paymentMethodId parameter instead!
-             The payment_method parameter of a payment intent is fully compatible with Sources.
-             Reference: https://stripe.com/docs/api/payment_intents/confirm#confirm_payment_intent-payment_method
-             */
-    /*
-    } else if (sourceId != null) {
-      cpip = ConfirmPaymentIntentParams.createWithSourceId(sourceId, clientSecret, returnURL, savePaymentMethod, extraParams);
-    */
-
-            /**
-             This branch can be used if the client secret refers to a payment intent that already
-             has payment method information and just needs to be confirmed.
-             */
-        } else {
-            cpip = ConfirmPaymentIntentParams.create(clientSecret, returnURL);
+    @ReactMethod
+    public void getCacheStats(final Promise bridgePromise) {
+        final Promise promise = TimedPromise.of("getCacheStats", bridgePromise);
+        WritableMap stats = Arguments.createMap();
+        stats.putMap("sources", mSourceCache.stats());
+        stats.putMap("paymentMethods", mPaymentMethodCache.stats());
+        promise.resolve(stats);
+    }
+
+    /**
+     * Builds up to {@code count} card fields while the UI thread is idle, so mounting the next ones
+     * only takes a ready form from the pool.
+     */
+    @ReactMethod
+    public void prewarmCardFields(int count) {
+        mCardFormPool.prewarm(getReactApplicationContext(), count);
+    }
+
+    @Override
+    public void onCatalystInstanceDestroy() {
+        super.onCatalystInstanceDestroy();
+        mCardFormPool.clear();
+        if (mPayFlow != null) {
+            mPayFlow.release();
         }
+    }
 
-        cpip.withShouldUseStripeSdk(true);
+    /**
+     * Brand, funding and issuing country of a card number from the bundled {@link BinTable}, without a network call.
+     * Resolves null when no range covers the number.
+     */
+    @ReactMethod
+    public void lookupBin(final String number, final Promise bridgePromise) {
+        final Promise promise = TimedPromise.of("lookupBin", bridgePromise);
+        BinTable table = BinTable.peek();
+        if (table != null) {
+            promise.resolve(table.toWritableMap(table.find(number)));
+            return;
+        }
 
-        return cpip;
+        StripeExecutors.background().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    BinTable table = BinTable.get(getReactApplicationContext());
+                    promise.resolve(table.toWritableMap(table.find(number)));
+                } catch (Exception e) {
+                    promise.reject(toErrorCode(e), e.getMessage());
+                }
+            }
+        });
     }
 
-    private PaymentMethodCreateParams extractPaymentMethodCreateParams(final ReadableMap options) {
+    /**
+     * Latency histograms per operation and phase, see {@link Metrics}.
+     */
+    @ReactMethod
+    public void getMetrics(final Promise promise) {
+        promise.resolve(Metrics.snapshot());
+    }
 
-        ReadableMap cardParams = getMapOrNull(options, "card");
-        ReadableMap billingDetailsParams = getMapOrNull(options, "billingDetails");
-        ReadableMap metadataParams = getMapOrNull(options, "metadata");
+    @ReactMethod
+    public void resetMetrics(final Promise promise) {
+        Metrics.reset();
+        promise.resolve(null);
+    }
+
+    /**
+     * Switches android.os.Trace sections on or off, they show up in Perfetto and systrace captures.
+     */
+    @ReactMethod
+    public void setTracingEnabled(boolean enabled) {
+        Tracing.setEnabled(enabled);
+    }
+
+    private synchronized void scheduleMetricsEvents(@Nullable ReadableMap options) {
+        if (mMetricsEvents != null) {
+            mMetricsEvents.cancel(false);
+            mMetricsEvents = null;
+        }
 
-        PaymentMethodCreateParams.Card card = null;
-        PaymentMethod.BillingDetails billingDetails = null;
-        Address address = null;
-        Map<String, String> metadata = new HashMap<>();
+        long intervalMs = options != null && options.hasKey(METRICS_EVENT_INTERVAL_MS) && !options.isNull(METRICS_EVENT_INTERVAL_MS)
+                ? (long) options.getDouble(METRICS_EVENT_INTERVAL_MS) : 0;
+        if (intervalMs <= 0) {
+            return;
+        }
+        // Resetting after each event makes every event cover one interval only
+        final boolean resetOnEvent = options.hasKey(METRICS_RESET_ON_EVENT) && options.getBoolean(METRICS_RESET_ON_EVENT);
+        mMetricsEvents = StripeExecutors.scheduler().scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                ReactApplicationContext context = getReactApplicationContext();
+                if (!context.hasActiveCatalystInstance()) {
+                    return;
+                }
 
-        if (metadataParams != null) {
-            ReadableMapKeySetIterator iter = metadataParams.keySetIterator();
-            while (iter.hasNextKey()) {
-                String key = iter.nextKey();
-                metadata.put(key, metadataParams.getString(key));
+                WritableMap metrics = Metrics.snapshot();
+                if (resetOnEvent) {
+                    Metrics.reset();
+                }
+                context.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                        .emit(METRICS_EVENT, metrics);
             }
+        }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Nullable
+    private Source retrieveAndCacheSource(@NonNull String sourceId, @NonNull String clientSecret) throws Exception {
+        long startedAt = System.nanoTime();
+        Source source;
+        try {
+            source = mStripe.retrieveSourceSynchronous(sourceId, clientSecret);
+        } finally {
+            Metrics.recordSince("retrieveSource.sdk", startedAt);
+        }
+        if (source != null) {
+            cacheSource(source);
         }
+        return source;
+    }
+
+    private void cacheSource(@NonNull Source source) {
+        if (source.getId() != null) {
+            mSourceCache.put(source.getId(), source,
+                    isTerminal(source) ? ExpiringLruCache.FOREVER : NON_TERMINAL_SOURCE_TTL_MS);
+        }
+    }
 
-        if (billingDetailsParams != null) {
+    private void cachePaymentMethod(@Nullable PaymentMethod paymentMethod) {
+        if (paymentMethod != null && paymentMethod.id != null) {
+            mPaymentMethodCache.put(paymentMethod.id, paymentMethod, ExpiringLruCache.FOREVER);
+        }
+    }
 
-            ReadableMap addressParams = getMapOrNull(options, "address");
+    private static boolean isTerminal(@NonNull Source source) {
+        String status = source.getStatus();
+        return SourceStatus.CHARGEABLE.equalsIgnoreCase(status)
+                || SourceStatus.CONSUMED.equalsIgnoreCase(status)
+                || SourceStatus.FAILED.equalsIgnoreCase(status)
+                || SourceStatus.CANCELED.equalsIgnoreCase(status);
+    }
+//  custom
 
-            if (addressParams != null) {
-                address = new Address.Builder().
-                        setCity(getStringOrNull(addressParams, "city")).
-                        setCountry(addressParams.getString("country")).
-                        setLine1(getStringOrNull(addressParams, "line1")).
-                        setLine2(getStringOrNull(addressParams, "line2")).
-                        setPostalCode(getStringOrNull(addressParams, "postalCode")).
-                        setState(getStringOrNull(addressParams, "state")).
-                        build();
+    // Batch variants: params are parsed up front on the calling thread, the SDK calls then run with bounded
+    // parallelism and the promise resolves once with one result per item (see BatchRunner)
+    @ReactMethod
+    public void createPaymentMethodBatch(final ReadableArray paramsList, @Nullable final ReadableMap options, final Promise bridgePromise) {
+        final Promise promise = TimedPromise.of("createPaymentMethodBatch", bridgePromise);
+        try {
+            ArgCheck.nonNull(mStripe);
+
+            final int count = paramsList.size();
+            final PaymentMethodCreateParams[] params = new PaymentMethodCreateParams[count];
+            final Exception[] failures = new Exception[count];
+            for (int i = 0; i < count; i++) {
+                try {
+                    params[i] = ParamsParsers.paymentMethodCreateParams(paramsList.getMap(i));
+                } catch (Exception e) {
+                    failures[i] = e;
+                }
             }
 
-            billingDetails = new PaymentMethod.BillingDetails.Builder().
-                    setAddress(address).
-                    setEmail(getStringOrNull(billingDetailsParams, "email")).
-                    setName(getStringOrNull(billingDetailsParams, "name")).
-                    setPhone(getStringOrNull(billingDetailsParams, "phone")).
-                    build();
+            final Projection projection = Projection.fromOptions(options);
+            final Stripe stripe = mStripe;
+            BatchRunner.run(StripeExecutors.background(), count, BatchRunner.concurrency(options), failures,
+                    new BatchRunner.Task() {
+                        @NonNull
+                        @Override
+                        public WritableMap run(int index) throws Exception {
+                            long startedAt = System.nanoTime();
+                            PaymentMethod paymentMethod = stripe.createPaymentMethodSynchronous(params[index]);
+                            Metrics.recordSince("createPaymentMethodBatch.sdk", startedAt);
+                            cachePaymentMethod(paymentMethod);
+                            return convertPaymentMethodToWritableMap(paymentMethod, projection);
+                        }
+                    }, promise);
+        } catch (Exception e) {
+            promise.reject(toErrorCode(e), e.getMessage());
         }
+    }
 
-        if (cardParams != null) {
-            String token = getStringOrNull(cardParams, "token");
-            if (token != null) {
-                card = PaymentMethodCreateParams.Card.create(token);
-            } else {
-                card = new PaymentMethodCreateParams.Card.Builder().
-                        setCvc(cardParams.getString("cvc")).
-                        setExpiryMonth(cardParams.getInt("expMonth")).
-                        setExpiryYear(cardParams.getInt("expYear")).
-                        setNumber(cardParams.getString("number")).
-                        build();
+    @ReactMethod
+    public void createTokenWithCardBatch(final ReadableArray cardDataList, @Nullable final ReadableMap options, final Promise bridgePromise) {
+        final Promise promise = TimedPromise.of("createTokenWithCardBatch", bridgePromise);
+        try {
+            ArgCheck.nonNull(mStripe);
+            ArgCheck.notEmptyString(mPublicKey);
+
+            final int count = cardDataList.size();
+            final Card[] cards = new Card[count];
+            final Exception[] failures = new Exception[count];
+            for (int i = 0; i < count; i++) {
+                try {
+                    cards[i] = createCard(cardDataList.getMap(i));
+                } catch (Exception e) {
+                    failures[i] = e;
+                }
             }
+
+            final Projection projection = Projection.fromOptions(options);
+            final Stripe stripe = mStripe;
+            BatchRunner.run(StripeExecutors.background(), count, BatchRunner.concurrency(options), failures,
+                    new BatchRunner.Task() {
+                        @NonNull
+                        @Override
+                        public WritableMap run(int index) throws Exception {
+                            long startedAt = System.nanoTime();
+                            Token token = stripe.createTokenSynchronous(cards[index]);
+                            Metrics.recordSince("createTokenWithCardBatch.sdk", startedAt);
+                            return convertTokenToWritableMap(token, projection);
+                        }
+                    }, promise);
+        } catch (Exception e) {
+            promise.reject(toErrorCode(e), e.getMessage());
+        }
+    }
+
+    @ReactMethod
+    public void createSourceWithParamsBatch(final ReadableArray paramsList, @Nullable final ReadableMap options, final Promise bridgePromise) {
+        final Promise promise = TimedPromise.of("createSourceWithParamsBatch", bridgePromise);
+        try {
+            ArgCheck.nonNull(mStripe);
+
+            final int count = paramsList.size();
+            final SourceParams[] params = new SourceParams[count];
+            final Exception[] failures = new Exception[count];
+            for (int i = 0; i < count; i++) {
+                try {
+                    params[i] = ParamsParsers.sourceParams(paramsList.getMap(i));
+                } catch (Exception e) {
+                    failures[i] = e;
+                }
+            }
+
+            final Projection projection = Projection.fromOptions(options);
+            final Stripe stripe = mStripe;
+            BatchRunner.run(StripeExecutors.background(), count, BatchRunner.concurrency(options), failures,
+                    new BatchRunner.Task() {
+                        @NonNull
+                        @Override
+                        public WritableMap run(int index) throws Exception {
+                            long startedAt = System.nanoTime();
+                            Source source = stripe.createSourceSynchronous(params[index]);
+                            Metrics.recordSince("createSourceWithParamsBatch.sdk", startedAt);
+                            ArgCheck.nonNull(source);
+                            registerCreatedSource(source);
+                            return convertSourceToWritableMap(source, projection);
+                        }
+                    }, promise);
+        } catch (Exception e) {
+            promise.reject(toErrorCode(e), e.getMessage());
         }
+    }
+
+    // custom -- open chrome cuastom tab
+    @ReactMethod
+    public void openGateWaySourceParams(final Promise bridgePromise) {
+        openRedirect(mLastCreatedSourceId, TimedPromise.of("openGateWaySourceParams", bridgePromise));
+    }
 
-        return PaymentMethodCreateParams.create(
-                card,
-                billingDetails,
-                metadata
-        );
-    }
-
-    private SourceParams extractSourceParams(final ReadableMap options) {
-        String sourceType = options.getString("type");
-        SourceParams sourceParams = null;
-        switch (sourceType) {
-            case "alipay":
-                sourceParams = SourceParams.createAlipaySingleUseParams(
-                        options.getInt("amount"),
-                        options.getString("currency"),
-                        getStringOrNull(options, "name"),
-                        getStringOrNull(options, "email"),
-                        options.getString("returnURL"));
-                break;
-            case "bancontact":
-                sourceParams = SourceParams.createBancontactParams(
-                        options.getInt("amount"),
-                        options.getString("name"),
-                        options.getString("returnURL"),
-                        getStringOrNull(options, "statementDescriptor"),
-                        options.getString("preferredLanguage"));
-                break;
-            case "giropay":
-                sourceParams = SourceParams.createGiropayParams(
-                        options.getInt("amount"),
-                        options.getString("name"),
-                        options.getString("returnURL"),
-                        getStringOrNull(options, "statementDescriptor"));
-                break;
-            case "ideal":
-                sourceParams = SourceParams.createIdealParams(
-                        options.getInt("amount"),
-                        options.getString("name"),
-                        options.getString("returnURL"),
-                        getStringOrNull(options, "statementDescriptor"),
-                        getStringOrNull(options, "bank"));
-                break;
-            case "sepaDebit":
-                sourceParams = SourceParams.createSepaDebitParams(
-                        options.getString("name"),
-                        options.getString("iban"),
-                        getStringOrNull(options, "addressLine1"),
-                        options.getString("city"),
-                        options.getString("postalCode"),
-                        options.getString("country"));
-                break;
-            case "sofort":
-                sourceParams = SourceParams.createSofortParams(
-                        options.getInt("amount"),
-                        options.getString("returnURL"),
-                        options.getString("country"),
-                        getStringOrNull(options, "statementDescriptor"));
-                break;
-            case "threeDSecure":
-                sourceParams = SourceParams.createThreeDSecureParams(
-                        options.getInt("amount"),
-                        options.getString("currency"),
-                        options.getString("returnURL"),
-                        options.getString("card"));
-                break;
-            case "card":
-                sourceParams = SourceParams.createCardParams(Converters.createCard(options));
-                break;
-        }
-        return sourceParams;
+    @ReactMethod
+    public void openGateWaySource(@Nullable String sourceId, final Promise bridgePromise) {
+        openRedirect(sourceId, TimedPromise.of("openGateWaySource", bridgePromise));
+    }
+
+    private void openRedirect(@Nullable String sourceId, final Promise promise) {
+        OperationRegistry.Operation operation = mOperations.get(sourceId);
+        if (operation == null || operation.source == null) {
+            promise.reject(
+                    getErrorCode(mErrorCodes, "redirectNoSource"),
+                    getDescription(mErrorCodes, "redirectNoSource")
+            );
+            return;
+        }
+
+        Source source = operation.source;
+        if (Source.SourceFlow.REDIRECT.equals(source.getFlow())) {
+            Activity currentActivity = getCurrentActivity();
+            if (currentActivity == null) {
+                promise.reject(
+                        getErrorCode(mErrorCodes, "activityUnavailable"),
+                        getDescription(mErrorCodes, "activityUnavailable")
+                );
+            } else {
+                if (operation.promise != null) {
+                    operation.promise.reject(CANCELLED, "The redirect was opened again");
+                }
+                operation.kind = OperationRegistry.Kind.REDIRECT;
+                operation.promise = promise;
+                String redirectUrl = source.getRedirect().getUrl();
+                Intent intent = new Intent(currentActivity, OpenBrowserActivity.class);
+                intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_SINGLE_TOP);
+                intent.putExtra(OpenBrowserActivity.EXTRA_URL, redirectUrl);
+                intent.putExtra(OpenBrowserActivity.EXTRA_SOURCE_ID, source.getId());
+                Tracing.beginAsync("StripeModule.OpenBrowserActivity", Tracing.cookieOf(operation.id));
+                boolean traced = Tracing.beginSection("StripeModule.startOpenBrowserActivity");
+                try {
+                    currentActivity.startActivity(intent);
+                } finally {
+                    Tracing.endSection(traced);
+                }
+                startSourceWatch(operation);
+            }
+        } else {
+            mOperations.remove(operation.id);
+            promise.resolve(convertSourceToWritableMap(source));
+        }
     }
+//  custom
+
 
+    private void startSourceWatch(@NonNull OperationRegistry.Operation operation) {
+        operation.cleanup();
+        Source source = operation.source;
+        if (mSourcePoller.isSpeculativeEnabled()
+                && source != null && source.getId() != null && source.getClientSecret() != null) {
+            operation.watch = mSourcePoller.watch(source.getId(), source.getClientSecret());
+        }
+    }
 
     void processRedirect(@Nullable Uri redirectData) {
-        recallTime = 0;
-        if (mCreatedSource == null || mCreateSourcePromise == null) {
+        processRedirect(null, redirectData);
+    }
+
+    /**
+     * @param fallbackSourceId source the redirect was opened for, used when the redirect uri does not name one
+     */
+    void processRedirect(@Nullable String fallbackSourceId, @Nullable Uri redirectData) {
+        final String sourceId = redirectData != null ? redirectData.getQueryParameter("source") : null;
+        OperationRegistry.Operation operation = mOperations.get(sourceId);
+        if (operation == null) {
+            operation = mOperations.get(fallbackSourceId);
+        }
+        if (operation == null || operation.source == null || operation.promise == null) {
 
             return;
         }
 
+        final Source createdSource = operation.source;
+        final Promise promise = operation.promise;
+        final SourcePoller.Watch watch = operation.watch;
+
+        // Removes the operation to avoid processing it twice, this also cancels its speculative watch
+        mOperations.remove(operation.id);
+        Tracing.endAsync("StripeModule.OpenBrowserActivity", Tracing.cookieOf(operation.id));
+
         if (redirectData == null) {
 
-            mCreateSourcePromise.reject(
+            promise.reject(
                     getErrorCode(mErrorCodes, "redirectCancelled"),
                     getDescription(mErrorCodes, "redirectCancelled")
             );
-            mCreatedSource = null;
-            mCreateSourcePromise = null;
             return;
         }
 
         final String clientSecret = redirectData.getQueryParameter("client_secret");
-        if (!mCreatedSource.getClientSecret().equals(clientSecret)) {
-            mCreateSourcePromise.reject(
+        if (!createdSource.getClientSecret().equals(clientSecret)) {
+            promise.reject(
                     getErrorCode(mErrorCodes, "redirectNoSource"),
                     getDescription(mErrorCodes, "redirectNoSource")
             );
-            mCreatedSource = null;
-            mCreateSourcePromise = null;
             return;
         }
 
-        final String sourceId = redirectData.getQueryParameter("source");
-        if (!mCreatedSource.getId().equals(sourceId)) {
-            mCreateSourcePromise.reject(
+        if (!createdSource.getId().equals(sourceId)) {
+            promise.reject(
                     getErrorCode(mErrorCodes, "redirectWrongSourceId"),
                     getDescription(mErrorCodes, "redirectWrongSourceId")
             );
-            mCreatedSource = null;
-            mCreateSourcePromise = null;
             return;
         }
 
-        executePollSource(sourceId, clientSecret);
-
-//        final Promise promise = mCreateSourcePromise;
-//
-//        // Nulls those properties to avoid processing them twice
-//        mCreatedSource = null;
-//        mCreateSourcePromise = null;
-
-//    new AsyncTask<Void, Void, Void>() {
-//      @Override
-//      protected Void doInBackground(Void... voids) {
-//        Source source = null;
-//        try {
-//          source = mStripe.retrieveSourceSynchronous(sourceId, clientSecret);
-//        } catch (Exception e) {
-//
-//          return null;
-//        }
-//
-//        switch (source.getStatus()) {
-//          case SourceStatus.CHARGEABLE:
-//          case SourceStatus.CONSUMED:
-//            promise.resolve(convertSourceToWritableMap(source));
-//            break;
-//          case SourceStatus.CANCELED:
-//            promise.reject(
-//                    getErrorCode(mErrorCodes, "redirectCancelled"),
-//                    getDescription(mErrorCodes, "redirectCancelled")
-//            );
-//            break;
-//          case SourceStatus.PENDING:
-//          case SourceStatus.FAILED:
-//          default:
-//            promise.reject(
-//                    getErrorCode(mErrorCodes, "redirectFailed"),
-//                    getDescription(mErrorCodes, "redirectFailed")
-//            );
-//        }
-//        return null;
-//      }
-//    }.execute();
-
-    }
-
-    private void executePollSource(String sourceId, String sourceClientSecret) {
-        try {
-            MyTask myTask = new MyTask();
-            myTask.execute(sourceId, sourceClientSecret);
-            myTask.get(60, TimeUnit.SECONDS);
-        } catch (TimeoutException ex) {
-
-        } catch (Exception ex) {
-
+        // The speculative watch may already know the outcome, no need for another round trip then
+        Source knownSource = watch != null && sourceId.equals(watch.getSourceId()) ? watch.getTerminalSource() : null;
+        if (knownSource != null) {
+            settleRedirectPromise(promise, knownSource);
+            return;
         }
-    }
 
-    public class MyTask
-            extends AsyncTask<String, String, Source> {
-        @Override
-        protected Source doInBackground(String... strings) {
-            Source source = null;
-            try {
-                String sourceId = strings[0];
-                String clientSecret = strings[1];
-                source = mStripe.retrieveSourceSynchronous(sourceId, clientSecret);
-            } catch (Exception e) {
-                return null;
+        mSourcePoller.poll(sourceId, clientSecret, new SourcePoller.Listener() {
+            @Override
+            public void onPending(@NonNull Source source, int attempt) {
+                emitSourcePollingStatus(source, attempt);
             }
-            return source;
-        }
 
-        @Override
-        protected void onPostExecute(Source source) {
-            super.onPostExecute(source);
-            if (null != source && null != source.getStatus()) {
-                final String sourceId = source.getId();
-                final String clientSecret = source.getClientSecret();
-                if (source.getStatus().equalsIgnoreCase(SourceStatus.PENDING )) {
-                    //try call again for 10 times
-                    if (recallTime < 10
-                            && null != sourceId
-                            && null != clientSecret) {
-                        recallTime++;
-
-                        final Handler handler = new Handler();
-                        handler.postDelayed(new Runnable() {
-                            @Override
-                            public void run() {
-                                executePollSource(sourceId, clientSecret);
-                            }
-                        }, 1000);
-                    } else {
-                        final Promise promise = mCreateSourcePromise;
-
-                        // Nulls those properties to avoid processing them twice
-                        mCreatedSource = null;
-                        mCreateSourcePromise = null;
-                        recallTime = 0;
-                        promise.resolve(convertSourceToWritableMap(source));
-                    }
+            @Override
+            public void onCompleted(@NonNull Source source) {
+                settleRedirectPromise(promise, source);
+            }
+
+            @Override
+            public void onExhausted(@Nullable Source lastKnown, @Nullable Exception lastError) {
+                if (lastKnown != null) {
+                    // Same as before the poller existed: a source still pending after all retries is handed to JS as is
+                    promise.resolve(convertSourceToWritableMap(lastKnown));
+                } else if (lastError != null) {
+                    promise.reject(toErrorCode(lastError), lastError.getMessage());
                 } else {
-                    final Promise promise = mCreateSourcePromise;
-
-                    // Nulls those properties to avoid processing them twice
-                    mCreatedSource = null;
-                    mCreateSourcePromise = null;
-                    if (source.getStatus()
-                            .equalsIgnoreCase(SourceStatus.CHARGEABLE) || source.getStatus()
-                            .equalsIgnoreCase(SourceStatus.CONSUMED)) {
-                        promise.resolve(convertSourceToWritableMap(source));
-                    } else if ((source.getStatus()
-                            .equalsIgnoreCase(SourceStatus.CANCELED))) {
-                        promise.reject(
-                                getErrorCode(mErrorCodes, "redirectCancelled"),
-                                getDescription(mErrorCodes, "redirectCancelled")
-                        );
-                    } else if ((source.getStatus()
-                            .equalsIgnoreCase(SourceStatus.FAILED))) {
-                        promise.reject(
-                                getErrorCode(mErrorCodes, "redirectFailed"),
-                                getDescription(mErrorCodes, "redirectFailed")
-                        );
-                    } else {
-                        promise.reject(
-                                getErrorCode(mErrorCodes, "redirectFailed"),
-                                getDescription(mErrorCodes, "redirectFailed")
-                        );
-                    }
+                    promise.reject(
+                            getErrorCode(mErrorCodes, "redirectFailed"),
+                            getDescription(mErrorCodes, "redirectFailed")
+                    );
                 }
             }
+        });
+    }
+
+    private void settleRedirectPromise(@NonNull Promise promise, @NonNull Source source) {
+        String status = source.getStatus();
+        if (SourceStatus.CHARGEABLE.equalsIgnoreCase(status) || SourceStatus.CONSUMED.equalsIgnoreCase(status)) {
+            promise.resolve(convertSourceToWritableMap(source));
+        } else if (SourceStatus.CANCELED.equalsIgnoreCase(status)) {
+            promise.reject(
+                    getErrorCode(mErrorCodes, "redirectCancelled"),
+                    getDescription(mErrorCodes, "redirectCancelled")
+            );
+        } else {
+            promise.reject(
+                    getErrorCode(mErrorCodes, "redirectFailed"),
+                    getDescription(mErrorCodes, "redirectFailed")
+            );
+        }
+    }
+
+    private void emitSourcePollingStatus(@NonNull Source source, int attempt) {
+        ReactApplicationContext context = getReactApplicationContext();
+        if (!context.hasActiveCatalystInstance()) {
+            return;
         }
+
+        WritableMap event = convertSourceToWritableMap(source);
+        event.putInt("attempt", attempt);
+        context.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                .emit(SOURCE_POLLING_STATUS_EVENT, event);
     }
 
 }
@@ -13,10 +13,13 @@ import java.util.List;
 
 public class StripeReactPackage implements ReactPackage {
 
+  // Filled through the module, drained by the card field manager
+  private final CardFormPool cardFormPool = new CardFormPool();
+
   @Override
   public List<NativeModule> createNativeModules(ReactApplicationContext reactContext) {
     List<NativeModule> modules = new ArrayList<>();
-    modules.add(new StripeModule(reactContext));
+    modules.add(new StripeModule(reactContext, cardFormPool));
     return modules;
   }
 
@@ -26,6 +29,6 @@ public class StripeReactPackage implements ReactPackage {
 
   @Override
   public List<ViewManager> createViewManagers(ReactApplicationContext reactContext) {
-    return Arrays.<ViewManager>asList(new CustomCardInputReactManager());
+    return Arrays.<ViewManager>asList(new CustomCardInputReactManager(cardFormPool));
   }
 }
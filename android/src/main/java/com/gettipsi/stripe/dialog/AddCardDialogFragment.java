@@ -23,7 +23,9 @@ import com.facebook.react.bridge.Promise;
 import com.gettipsi.stripe.R;
 import com.gettipsi.stripe.StripeModule;
 import com.gettipsi.stripe.util.CardFlipAnimator;
+import com.gettipsi.stripe.util.CardResources;
 import com.gettipsi.stripe.util.Converters;
+import com.gettipsi.stripe.util.Metrics;
 import com.gettipsi.stripe.util.Utils;
 import com.stripe.android.ApiResultCallback;
 import com.stripe.android.model.Card;
@@ -83,6 +85,7 @@ public class AddCardDialogFragment extends DialogFragment {
 
   @Override
   public Dialog onCreateDialog(Bundle savedInstanceState) {
+    long start = System.nanoTime();
     final View view = View.inflate(getActivity(), R.layout.payment_form_fragment_two, null);
     final AlertDialog dialog = new AlertDialog.Builder(getActivity())
       .setView(view)
@@ -110,6 +113,7 @@ public class AddCardDialogFragment extends DialogFragment {
     bindViews(view);
     init();
 
+    Metrics.recordSince("addCardDialog.create", start);
     return dialog;
   }
 
@@ -127,6 +131,9 @@ public class AddCardDialogFragment extends DialogFragment {
     from = (CreditCardForm) view.findViewById(R.id.credit_card_form);
     imageFlipedCard = (ImageView) view.findViewById(R.id.imageFlippedCard);
     imageFlipedCardBack = (ImageView) view.findViewById(R.id.imageFlippedCardBack);
+    // Decoded once at display size and shared, the layout itself has no src
+    imageFlipedCard.setImageBitmap(CardResources.cardImage(view.getContext(), R.drawable.stp_card_form_front));
+    imageFlipedCardBack.setImageBitmap(CardResources.cardImage(view.getContext(), R.drawable.stp_card_form_back));
   }
 
 
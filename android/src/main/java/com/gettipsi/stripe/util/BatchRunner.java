@@ -0,0 +1,126 @@
+package com.gettipsi.stripe.util;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.gettipsi.stripe.Errors.toErrorCode;
+
+/**
+ * Runs the items of a batch on a background executor with at most {@code concurrency} of them in flight,
+ * then resolves a single promise with one result per item, in input order:
+ * <pre>
+ *   { index, ok: true, result: {...} }
+ *   { index, ok: false, error: { code, message } }
+ * </pre>
+ * A failing item never fails the whole batch.
+ */
+public final class BatchRunner {
+
+  public static final String CONCURRENCY = "concurrency";
+  public static final int DEFAULT_CONCURRENCY = 4;
+  public static final int MAX_CONCURRENCY = 16;
+
+  public interface Task {
+    /**
+     * Runs item {@code index} on a background thread, blocking calls are fine here.
+     */
+    @NonNull
+    WritableMap run(int index) throws Exception;
+  }
+
+  private BatchRunner() {
+  }
+
+  public static int concurrency(@Nullable ReadableMap options) {
+    if (options == null || !options.hasKey(CONCURRENCY) || options.isNull(CONCURRENCY)) {
+      return DEFAULT_CONCURRENCY;
+    }
+    int concurrency = options.getInt(CONCURRENCY);
+    ArgCheck.isTrue(concurrency > 0, "Batch concurrency must be positive");
+    return Math.min(concurrency, MAX_CONCURRENCY);
+  }
+
+  /**
+   * @param failures items that failed before running (e.g. invalid params), indexed like the batch; null entries run
+   */
+  public static void run(@NonNull Executor executor,
+                         final int count,
+                         int concurrency,
+                         @Nullable final Exception[] failures,
+                         @NonNull final Task task,
+                         @NonNull final Promise promise) {
+    final WritableMap[] results = new WritableMap[count];
+    final AtomicInteger next = new AtomicInteger();
+    final AtomicInteger remaining = new AtomicInteger(count);
+
+    if (count == 0) {
+      promise.resolve(Arguments.createArray());
+      return;
+    }
+
+    Runnable worker = new Runnable() {
+      @Override
+      public void run() {
+        int index;
+        while ((index = next.getAndIncrement()) < count) {
+          Exception failure = failures != null ? failures[index] : null;
+          if (failure == null) {
+            try {
+              results[index] = success(index, task.run(index));
+            } catch (Exception e) {
+              failure = e;
+            } catch (Throwable t) {
+              // An Error must not kill the worker, its slot would stay empty and the batch never settle
+              failure = new RuntimeException(t.toString(), t);
+            }
+          }
+          if (failure != null) {
+            results[index] = failure(index, failure);
+          }
+
+          if (remaining.decrementAndGet() == 0) {
+            WritableArray array = Arguments.createArray();
+            for (WritableMap result : results) {
+              array.pushMap(result);
+            }
+            promise.resolve(array);
+          }
+        }
+      }
+    };
+
+    int workers = Math.min(concurrency, count);
+    for (int i = 0; i < workers; i++) {
+      executor.execute(worker);
+    }
+  }
+
+  private static WritableMap success(int index, WritableMap result) {
+    WritableMap map = Arguments.createMap();
+    map.putInt("index", index);
+    map.putBoolean("ok", true);
+    map.putMap("result", result);
+    return map;
+  }
+
+  private static WritableMap failure(int index, Exception e) {
+    WritableMap error = Arguments.createMap();
+    error.putString("code", toErrorCode(e));
+    error.putString("message", e.getMessage());
+
+    WritableMap map = Arguments.createMap();
+    map.putInt("index", index);
+    map.putBoolean("ok", false);
+    map.putMap("error", error);
+    return map;
+  }
+}
@@ -0,0 +1,256 @@
+package com.gettipsi.stripe.util;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+import com.gettipsi.stripe.R;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Offline BIN/IIN range index, compiled from scripts/bin-ranges.csv by scripts/generate-bin-table.js into
+ * res/raw/tipsi_stripe_bin_ranges.bin. Ranges are non-overlapping 8 digit prefixes kept in sorted primitive
+ * arrays, a lookup is a binary search over them and never allocates.
+ * <p>
+ * The table is read once, on first use. {@link #preload(Context)} does that on a background thread,
+ * {@link #peek()} hands out the table only once it is loaded so the UI thread never waits for it.
+ */
+public final class BinTable {
+
+  public static final int NOT_FOUND = -1;
+
+  public static final String FUNDING_UNKNOWN = "unknown";
+  public static final String FUNDING_CREDIT = "credit";
+  public static final String FUNDING_DEBIT = "debit";
+  public static final String FUNDING_PREPAID = "prepaid";
+
+  private static final String TAG = BinTable.class.getSimpleName();
+  private static final int MAGIC = 0x5442494e;
+  private static final int VERSION = 1;
+  private static final int DIGITS = 8;
+
+  // Same order as in scripts/generate-bin-table.js
+  private static final String[] BRANDS = {
+    CardValidator.BRAND_UNKNOWN,
+    CardValidator.BRAND_AMEX,
+    CardValidator.BRAND_DINERS,
+    CardValidator.BRAND_DISCOVER,
+    CardValidator.BRAND_JCB,
+    CardValidator.BRAND_MASTERCARD,
+    CardValidator.BRAND_UNIONPAY,
+    CardValidator.BRAND_VISA,
+  };
+  private static final String[] FUNDINGS = {
+    FUNDING_UNKNOWN,
+    FUNDING_CREDIT,
+    FUNDING_DEBIT,
+    FUNDING_PREPAID,
+  };
+
+  private static volatile BinTable sInstance;
+
+  private final int[] lows;
+  private final int[] highs;
+  private final byte[] brands;
+  private final byte[] fundings;
+  // Indexes into countryNames, 0 for unknown
+  private final short[] countries;
+  private final String[] countryNames;
+
+  private BinTable(int[] lows, int[] highs, byte[] brands, byte[] fundings, short[] countries, String[] countryNames) {
+    this.lows = lows;
+    this.highs = highs;
+    this.brands = brands;
+    this.fundings = fundings;
+    this.countries = countries;
+    this.countryNames = countryNames;
+  }
+
+  /**
+   * Loads the table on first call, blocking. Don't call it on the UI thread.
+   */
+  @NonNull
+  public static BinTable get(@NonNull Context context) throws IOException {
+    BinTable table = sInstance;
+    if (table == null) {
+      synchronized (BinTable.class) {
+        table = sInstance;
+        if (table == null) {
+          InputStream in = context.getApplicationContext().getResources().openRawResource(R.raw.tipsi_stripe_bin_ranges);
+          try {
+            table = read(in);
+          } finally {
+            in.close();
+          }
+          sInstance = table;
+        }
+      }
+    }
+    return table;
+  }
+
+  /**
+   * @return the table if it is already loaded, null otherwise
+   */
+  @Nullable
+  public static BinTable peek() {
+    return sInstance;
+  }
+
+  public static void preload(@NonNull Context context) {
+    if (sInstance != null) {
+      return;
+    }
+    final Context appContext = context.getApplicationContext();
+    StripeExecutors.background().execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          get(appContext);
+        } catch (IOException e) {
+          Log.w(TAG, "Could not load BIN ranges", e);
+        }
+      }
+    });
+  }
+
+  @NonNull
+  static BinTable read(@NonNull InputStream input) throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+    if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+      throw new IOException("Unsupported BIN table format");
+    }
+    int count = in.readInt();
+    if (count < 0) {
+      throw new IOException("Corrupt BIN table");
+    }
+
+    int[] lows = new int[count];
+    int[] highs = new int[count];
+    byte[] brands = new byte[count];
+    byte[] fundings = new byte[count];
+    short[] countries = new short[count];
+    // Distinct codes are few, a linear search while loading is cheaper than boxing them into a map
+    char[] codes = new char[16];
+    int codeCount = 1;
+
+    for (int i = 0; i < count; i++) {
+      lows[i] = in.readInt();
+      highs[i] = in.readInt();
+      brands[i] = checkIndex(in.readByte(), BRANDS.length);
+      fundings[i] = checkIndex(in.readByte(), FUNDINGS.length);
+      char code = (char) (((in.readByte() & 0xff) << 8) | (in.readByte() & 0xff));
+      if (code == 0) {
+        continue;
+      }
+      int index = 1;
+      while (index < codeCount && codes[index] != code) {
+        index++;
+      }
+      if (index == codeCount) {
+        if (codeCount == codes.length) {
+          char[] grown = new char[codes.length * 2];
+          System.arraycopy(codes, 0, grown, 0, codes.length);
+          codes = grown;
+        }
+        codes[codeCount++] = code;
+      }
+      countries[i] = (short) index;
+    }
+
+    String[] countryNames = new String[codeCount];
+    for (int i = 1; i < codeCount; i++) {
+      countryNames[i] = new String(new char[] {(char) (codes[i] >> 8), (char) (codes[i] & 0xff)});
+    }
+    return new BinTable(lows, highs, brands, fundings, countries, countryNames);
+  }
+
+  private static byte checkIndex(byte value, int size) throws IOException {
+    if (value < 0 || value >= size) {
+      throw new IOException("Corrupt BIN table");
+    }
+    return value;
+  }
+
+  public int size() {
+    return lows.length;
+  }
+
+  /**
+   * @param number the card number or its first digits, anything but digits is skipped
+   * @return the index of the range covering the number, {@link #NOT_FOUND} when there is none.
+   * Numbers shorter than 8 digits are looked up as if padded with zeros.
+   */
+  public int find(@Nullable CharSequence number) {
+    int prefix = 0;
+    int digits = 0;
+    int length = number != null ? number.length() : 0;
+    for (int i = 0; i < length && digits < DIGITS; i++) {
+      char c = number.charAt(i);
+      if (c >= '0' && c <= '9') {
+        prefix = prefix * 10 + (c - '0');
+        digits++;
+      }
+    }
+    if (digits == 0) {
+      return NOT_FOUND;
+    }
+    for (; digits < DIGITS; digits++) {
+      prefix *= 10;
+    }
+
+    int low = 0;
+    int high = lows.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (lows[mid] > prefix) {
+        high = mid - 1;
+      } else if (highs[mid] < prefix) {
+        low = mid + 1;
+      } else {
+        return mid;
+      }
+    }
+    return NOT_FOUND;
+  }
+
+  @NonNull
+  public String brand(int index) {
+    return index == NOT_FOUND ? CardValidator.BRAND_UNKNOWN : BRANDS[brands[index]];
+  }
+
+  @NonNull
+  public String funding(int index) {
+    return index == NOT_FOUND ? FUNDING_UNKNOWN : FUNDINGS[fundings[index]];
+  }
+
+  /**
+   * @return ISO 3166-1 alpha-2 code of the issuing country, null when unknown
+   */
+  @Nullable
+  public String country(int index) {
+    return index == NOT_FOUND ? null : countryNames[countries[index]];
+  }
+
+  /**
+   * { brand, funding, country } of the range covering the number, null when there is none.
+   */
+  @Nullable
+  public WritableMap toWritableMap(int index) {
+    if (index == NOT_FOUND) {
+      return null;
+    }
+    WritableMap map = Arguments.createMap();
+    map.putString("brand", brand(index));
+    map.putString("funding", funding(index));
+    map.putString("country", country(index));
+    return map;
+  }
+}
@@ -1,8 +1,10 @@
 package com.gettipsi.stripe.util;
 
 import android.animation.Animator;
-import android.animation.AnimatorInflater;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.AnimatorSet;
 import android.content.Context;
+import android.view.View;
 import android.widget.ImageView;
 
 import com.gettipsi.stripe.R;
@@ -16,10 +18,8 @@ public class CardFlipAnimator {
     private final Context context;
     private final ImageView imageViewCardFront;
     private final ImageView imageViewCardBack;
-    private Animator animator1;
-    private Animator animator2;
-    private Animator animator3;
-    private Animator animator4;
+    private AnimatorSet showBack;
+    private AnimatorSet showFront;
 
     public CardFlipAnimator(final Context context, final ImageView imageViewCardFront, final ImageView imageViewCardBack){
         this.context = context;
@@ -29,23 +29,51 @@ public class CardFlipAnimator {
     }
 
     private void init(){
-        animator1 = AnimatorInflater.loadAnimator(context, R.animator.card_flip_right_in);
-        animator2 = AnimatorInflater.loadAnimator(context, R.animator.card_flip_right_out);
-        animator3 = AnimatorInflater.loadAnimator(context, R.animator.card_flip_left_in);
-        animator4 = AnimatorInflater.loadAnimator(context, R.animator.card_flip_left_out);
+        // Clones of templates shared across dialogs, see CardResources
+        Animator animator1 = CardResources.animator(context, R.animator.card_flip_right_in);
+        Animator animator2 = CardResources.animator(context, R.animator.card_flip_right_out);
+        Animator animator3 = CardResources.animator(context, R.animator.card_flip_left_in);
+        Animator animator4 = CardResources.animator(context, R.animator.card_flip_left_out);
         animator1.setTarget(imageViewCardBack);
         animator2.setTarget(imageViewCardFront);
         animator3.setTarget(imageViewCardFront);
         animator4.setTarget(imageViewCardBack);
+
+        showBack = flip(animator1, animator2);
+        showFront = flip(animator3, animator4);
+    }
+
+    // Rotation and alpha of both cards run on hardware layers, only while flipping
+    private AnimatorSet flip(Animator in, Animator out) {
+        AnimatorSet set = new AnimatorSet();
+        set.playTogether(in, out);
+        set.addListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationStart(Animator animation) {
+                setLayerType(View.LAYER_TYPE_HARDWARE);
+            }
+
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                setLayerType(View.LAYER_TYPE_NONE);
+            }
+        });
+        return set;
+    }
+
+    private void setLayerType(int layerType) {
+        imageViewCardFront.setLayerType(layerType, null);
+        imageViewCardBack.setLayerType(layerType, null);
     }
 
     public void showBack(){
-        animator1.start();
-        animator2.start();
+        // A flip still running the other way would fight over the same properties
+        showFront.cancel();
+        showBack.start();
     }
 
     public void showFront(){
-        animator3.start();
-        animator4.start();
+        showBack.cancel();
+        showFront.start();
     }
 }
@@ -0,0 +1,120 @@
+package com.gettipsi.stripe.util;
+
+import android.animation.Animator;
+import android.animation.AnimatorInflater;
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.support.annotation.AnimatorRes;
+import android.support.annotation.DrawableRes;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.LruCache;
+import android.util.SparseArray;
+
+import com.gettipsi.stripe.R;
+
+/**
+ * Card images and flip animators shared by every add card dialog instead of being loaded again for each one.
+ * Animators are kept as templates and handed out as clones, bitmaps are decoded once at the size the dialog
+ * shows them and kept in an LRU bounded by {@link #MAX_BITMAP_BYTES}. Thread safe, {@link #prefetch(Context)}
+ * fills both from a background thread.
+ */
+public final class CardResources {
+
+  static final int MAX_BITMAP_BYTES = 4 * 1024 * 1024;
+  // The dialog caps the card images at 200dp, see payment_form_fragment_two
+  private static final int CARD_IMAGE_WIDTH_DP = 200;
+
+  private static final int[] FLIP_ANIMATORS = {
+    R.animator.card_flip_right_in,
+    R.animator.card_flip_right_out,
+    R.animator.card_flip_left_in,
+    R.animator.card_flip_left_out,
+  };
+  private static final int[] CARD_IMAGES = {
+    R.drawable.stp_card_form_front,
+    R.drawable.stp_card_form_back,
+  };
+
+  private static final SparseArray<Animator> sAnimators = new SparseArray<>();
+  private static final LruCache<Integer, Bitmap> sBitmaps = new LruCache<Integer, Bitmap>(MAX_BITMAP_BYTES) {
+    @Override
+    protected int sizeOf(Integer key, Bitmap value) {
+      return value.getByteCount();
+    }
+  };
+
+  private CardResources() {
+  }
+
+  /**
+   * @return a fresh copy of the animator, without a target
+   */
+  @NonNull
+  public static Animator animator(@NonNull Context context, @AnimatorRes int id) {
+    Animator template;
+    synchronized (sAnimators) {
+      template = sAnimators.get(id);
+    }
+    if (template == null) {
+      template = AnimatorInflater.loadAnimator(context.getApplicationContext(), id);
+      synchronized (sAnimators) {
+        sAnimators.put(id, template);
+      }
+    }
+    return template.clone();
+  }
+
+  @Nullable
+  public static Bitmap cardImage(@NonNull Context context, @DrawableRes int id) {
+    Bitmap bitmap = sBitmaps.get(id);
+    if (bitmap == null) {
+      bitmap = decode(context.getResources(), id);
+      if (bitmap != null) {
+        sBitmaps.put(id, bitmap);
+      }
+    }
+    return bitmap;
+  }
+
+  public static void prefetch(@NonNull Context context) {
+    final Context appContext = context.getApplicationContext();
+    StripeExecutors.background().execute(new Runnable() {
+      @Override
+      public void run() {
+        boolean traced = Tracing.beginSection("CardResources.prefetch");
+        try {
+          for (int id : CARD_IMAGES) {
+            cardImage(appContext, id);
+          }
+          for (int id : FLIP_ANIMATORS) {
+            animator(appContext, id);
+          }
+        } finally {
+          Tracing.endSection(traced);
+        }
+      }
+    });
+  }
+
+  // Scaled straight to the displayed width instead of to the screen density, which is larger on most devices
+  @Nullable
+  private static Bitmap decode(Resources resources, int id) {
+    BitmapFactory.Options bounds = new BitmapFactory.Options();
+    bounds.inJustDecodeBounds = true;
+    bounds.inScaled = false;
+    BitmapFactory.decodeResource(resources, id, bounds);
+    int targetWidth = Math.round(CARD_IMAGE_WIDTH_DP * resources.getDisplayMetrics().density);
+    if (bounds.outWidth <= 0 || targetWidth <= 0) {
+      return null;
+    }
+
+    BitmapFactory.Options options = new BitmapFactory.Options();
+    options.inScaled = true;
+    options.inDensity = bounds.outWidth;
+    options.inTargetDensity = targetWidth;
+    return BitmapFactory.decodeResource(resources, id, options);
+  }
+}
@@ -0,0 +1,350 @@
+package com.gettipsi.stripe.util;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+
+import java.util.Calendar;
+
+/**
+ * Incremental validation of the card field's number, expiry and CVC.
+ * <p>
+ * The number keeps its Luhn sums split by digit position, so an edit only touches the digits from the first
+ * changed one onwards: typing or deleting at the end is O(1), an edit in the middle re-adds the digits after it.
+ * Brand, funding and country only depend on the first {@value #BIN_DIGITS} digits and are only re-detected when
+ * those change. From {@value #BRAND_PREFIX_DIGITS} digits on they come from the {@link BinTable} once it is loaded,
+ * before that the brand comes from the networks' prefix rules.
+ * Expiry and CVC state are a handful of digits. Not thread safe, meant for the UI thread.
+ */
+public final class CardValidator {
+
+  public static final String BRAND_UNKNOWN = "unknown";
+  public static final String BRAND_AMEX = "amex";
+  public static final String BRAND_DINERS = "diners";
+  public static final String BRAND_DISCOVER = "discover";
+  public static final String BRAND_JCB = "jcb";
+  public static final String BRAND_MASTERCARD = "mastercard";
+  public static final String BRAND_UNIONPAY = "unionpay";
+  public static final String BRAND_VISA = "visa";
+
+  public static final String ERROR_INCOMPLETE = "incomplete";
+  public static final String ERROR_INVALID = "invalid";
+  public static final String ERROR_EXPIRED = "expired";
+
+  private static final int BRAND_PREFIX_DIGITS = 6;
+  private static final int BIN_DIGITS = 8;
+
+  /**
+   * Results of the last update. Immutable, a new instance is only created when something changed.
+   */
+  public static final class Status {
+    public final String brand;
+    public final String funding;
+    @Nullable
+    public final String country;
+    public final boolean numberComplete;
+    public final boolean expiryComplete;
+    public final boolean cvcComplete;
+    @Nullable
+    public final String numberError;
+    @Nullable
+    public final String expiryError;
+    @Nullable
+    public final String cvcError;
+
+    Status(String brand, String funding, @Nullable String country, boolean numberComplete, boolean expiryComplete,
+           boolean cvcComplete, @Nullable String numberError, @Nullable String expiryError, @Nullable String cvcError) {
+      this.brand = brand;
+      this.funding = funding;
+      this.country = country;
+      this.numberComplete = numberComplete;
+      this.expiryComplete = expiryComplete;
+      this.cvcComplete = cvcComplete;
+      this.numberError = numberError;
+      this.expiryError = expiryError;
+      this.cvcError = cvcError;
+    }
+
+    public boolean isValid() {
+      return numberComplete && expiryComplete && cvcComplete;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Status)) {
+        return false;
+      }
+      Status other = (Status) o;
+      return numberComplete == other.numberComplete
+        && expiryComplete == other.expiryComplete
+        && cvcComplete == other.cvcComplete
+        && brand.equals(other.brand)
+        && funding.equals(other.funding)
+        && TextUtils.equals(country, other.country)
+        && TextUtils.equals(numberError, other.numberError)
+        && TextUtils.equals(expiryError, other.expiryError)
+        && TextUtils.equals(cvcError, other.cvcError);
+    }
+
+    @Override
+    public int hashCode() {
+      int result = brand.hashCode();
+      result = 31 * result + funding.hashCode();
+      result = 31 * result + (country != null ? country.hashCode() : 0);
+      result = 31 * result + (numberComplete ? 1 : 0);
+      result = 31 * result + (expiryComplete ? 1 : 0);
+      result = 31 * result + (cvcComplete ? 1 : 0);
+      result = 31 * result + (numberError != null ? numberError.hashCode() : 0);
+      result = 31 * result + (expiryError != null ? expiryError.hashCode() : 0);
+      result = 31 * result + (cvcError != null ? cvcError.hashCode() : 0);
+      return result;
+    }
+  }
+
+  private final StringBuilder digits = new StringBuilder(19);
+  private final StringBuilder scratch = new StringBuilder(19);
+  // Luhn contributions by position from the left: [even plain, odd plain, even doubled, odd doubled]
+  private final int[] luhnSums = new int[4];
+  private String brand = BRAND_UNKNOWN;
+  private String funding = BinTable.FUNDING_UNKNOWN;
+  @Nullable
+  private String country;
+  // The table the BIN fields were looked up in, null while it is not loaded yet
+  @Nullable
+  private BinTable binTable;
+
+  private int expMonth;
+  private int expYear;
+  private int expDigits;
+
+  private int cvcLength;
+  private boolean cvcNonDigit;
+
+  @Nullable
+  private Status status;
+
+  /**
+   * @param text the number as shown, separators are ignored
+   */
+  public void setNumber(@Nullable CharSequence text) {
+    normalizeDigits(text, scratch);
+
+    int oldLength = digits.length();
+    int newLength = scratch.length();
+    int prefix = 0;
+    while (prefix < oldLength && prefix < newLength && digits.charAt(prefix) == scratch.charAt(prefix)) {
+      prefix++;
+    }
+    BinTable table = BinTable.peek();
+    if (prefix == oldLength && prefix == newLength) {
+      if (table != binTable) {
+        detectBin(table);
+      }
+      return;
+    }
+
+    for (int i = prefix; i < oldLength; i++) {
+      addLuhn(i, digits.charAt(i) - '0', -1);
+    }
+    digits.setLength(prefix);
+    for (int i = prefix; i < newLength; i++) {
+      char digit = scratch.charAt(i);
+      digits.append(digit);
+      addLuhn(i, digit - '0', 1);
+    }
+
+    if (prefix < BIN_DIGITS || table != binTable) {
+      detectBin(table);
+    }
+    status = null;
+  }
+
+  /**
+   * @param text MM/YY as shown, separators are ignored
+   */
+  public void setExpiry(@Nullable CharSequence text) {
+    normalizeDigits(text, scratch);
+    int count = Math.min(scratch.length(), 4);
+    int month = count >= 2 ? (scratch.charAt(0) - '0') * 10 + (scratch.charAt(1) - '0') : 0;
+    int year = count >= 4 ? 2000 + (scratch.charAt(2) - '0') * 10 + (scratch.charAt(3) - '0') : 0;
+    if (count != expDigits || month != expMonth || year != expYear) {
+      expDigits = count;
+      expMonth = month;
+      expYear = year;
+      status = null;
+    }
+  }
+
+  public void setCvc(@Nullable CharSequence text) {
+    int length = text != null ? text.length() : 0;
+    boolean nonDigit = false;
+    for (int i = 0; i < length; i++) {
+      nonDigit |= !Character.isDigit(text.charAt(i));
+    }
+    if (length != cvcLength || nonDigit != cvcNonDigit) {
+      cvcLength = length;
+      cvcNonDigit = nonDigit;
+      status = null;
+    }
+  }
+
+  @NonNull
+  public Status status() {
+    if (status == null) {
+      String numberError = numberError();
+      String expiryError = expiryError();
+      String cvcError = cvcError();
+      status = new Status(brand, funding, country, numberError == null, expiryError == null, cvcError == null,
+        numberError, expiryError, cvcError);
+    }
+    return status;
+  }
+
+  private void detectBin(@Nullable BinTable table) {
+    binTable = table;
+    int index = table != null && digits.length() >= BRAND_PREFIX_DIGITS ? table.find(digits) : BinTable.NOT_FOUND;
+    String binBrand = table != null ? table.brand(index) : BRAND_UNKNOWN;
+    brand = !BRAND_UNKNOWN.equals(binBrand) ? binBrand : detectBrand(digits);
+    funding = table != null ? table.funding(index) : BinTable.FUNDING_UNKNOWN;
+    country = table != null ? table.country(index) : null;
+    status = null;
+  }
+
+  private void addLuhn(int index, int digit, int sign) {
+    int parity = index & 1;
+    int doubled = digit * 2;
+    luhnSums[parity] += sign * digit;
+    luhnSums[2 + parity] += sign * (doubled > 9 ? doubled - 9 : doubled);
+  }
+
+  private boolean luhnValid() {
+    // Counting from the right every second digit is doubled, which positions that is depends on the length
+    int total = (digits.length() & 1) == 0
+      ? luhnSums[2] + luhnSums[1]
+      : luhnSums[0] + luhnSums[3];
+    return total % 10 == 0;
+  }
+
+  @Nullable
+  private String numberError() {
+    int length = digits.length();
+    if (isValidLength(brand, length) && luhnValid()) {
+      return null;
+    }
+    return length >= maxLength(brand) ? ERROR_INVALID : ERROR_INCOMPLETE;
+  }
+
+  @Nullable
+  private String expiryError() {
+    if (expDigits >= 2 && (expMonth < 1 || expMonth > 12)) {
+      return ERROR_INVALID;
+    }
+    if (expDigits < 4) {
+      return ERROR_INCOMPLETE;
+    }
+    Calendar now = Calendar.getInstance();
+    int currentYear = now.get(Calendar.YEAR);
+    int currentMonth = now.get(Calendar.MONTH) + 1;
+    if (expYear < currentYear || (expYear == currentYear && expMonth < currentMonth)) {
+      return ERROR_EXPIRED;
+    }
+    return null;
+  }
+
+  @Nullable
+  private String cvcError() {
+    int required = BRAND_AMEX.equals(brand) ? 4 : 3;
+    if (cvcNonDigit || cvcLength > required) {
+      return ERROR_INVALID;
+    }
+    return cvcLength < required ? ERROR_INCOMPLETE : null;
+  }
+
+  private static void normalizeDigits(@Nullable CharSequence text, StringBuilder out) {
+    out.setLength(0);
+    int length = text != null ? text.length() : 0;
+    for (int i = 0; i < length; i++) {
+      char c = text.charAt(i);
+      if (c >= '0' && c <= '9') {
+        out.append(c);
+      }
+    }
+  }
+
+  static String detectBrand(CharSequence digits) {
+    int length = Math.min(digits.length(), BRAND_PREFIX_DIGITS);
+    if (length == 0) {
+      return BRAND_UNKNOWN;
+    }
+    int prefix2 = length >= 2 ? prefix(digits, 2) : -1;
+    int prefix3 = length >= 3 ? prefix(digits, 3) : -1;
+    int prefix4 = length >= 4 ? prefix(digits, 4) : -1;
+    char first = digits.charAt(0);
+
+    if (first == '4') {
+      return BRAND_VISA;
+    }
+    if (prefix2 == 34 || prefix2 == 37) {
+      return BRAND_AMEX;
+    }
+    if ((prefix3 >= 300 && prefix3 <= 305) || prefix3 == 309 || prefix2 == 36 || prefix2 == 38 || prefix2 == 39) {
+      return BRAND_DINERS;
+    }
+    if (prefix2 == 35) {
+      return BRAND_JCB;
+    }
+    if ((prefix2 >= 51 && prefix2 <= 55) || (prefix4 >= 2221 && prefix4 <= 2720) || prefix2 == 67) {
+      return BRAND_MASTERCARD;
+    }
+    if (prefix2 == 62) {
+      return BRAND_UNIONPAY;
+    }
+    if (prefix2 == 60 || prefix2 == 64 || prefix2 == 65) {
+      return BRAND_DISCOVER;
+    }
+    return BRAND_UNKNOWN;
+  }
+
+  private static int prefix(CharSequence digits, int count) {
+    int value = 0;
+    for (int i = 0; i < count; i++) {
+      value = value * 10 + (digits.charAt(i) - '0');
+    }
+    return value;
+  }
+
+  private static boolean isValidLength(String brand, int length) {
+    switch (brand) {
+      case BRAND_AMEX:
+        return length == 15;
+      case BRAND_DINERS:
+        return length == 14 || length == 16;
+      case BRAND_VISA:
+        return length == 13 || length == 16 || length == 19;
+      case BRAND_MASTERCARD:
+        return length == 16;
+      case BRAND_DISCOVER:
+      case BRAND_JCB:
+      case BRAND_UNIONPAY:
+        return length >= 16 && length <= 19;
+      default:
+        return length == 16;
+    }
+  }
+
+  private static int maxLength(String brand) {
+    switch (brand) {
+      case BRAND_AMEX:
+        return 15;
+      case BRAND_DINERS:
+      case BRAND_MASTERCARD:
+      case BRAND_UNKNOWN:
+        return 16;
+      default:
+        return 19;
+    }
+  }
+}
@@ -7,6 +7,7 @@ import android.text.TextUtils;
 import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.bridge.WritableNativeArray;
 import com.facebook.react.bridge.WritableNativeMap;
@@ -18,9 +19,7 @@ import com.stripe.android.SetupIntentResult;
 import com.stripe.android.model.Address;
 import com.stripe.android.model.BankAccount;
 import com.stripe.android.model.Card;
-import com.stripe.android.model.PaymentIntent;
 import com.stripe.android.model.PaymentMethod;
-import com.stripe.android.model.SetupIntent;
 import com.stripe.android.model.Source;
 import com.stripe.android.model.SourceCodeVerification;
 import com.stripe.android.model.SourceOwner;
@@ -28,8 +27,12 @@ import com.stripe.android.model.SourceReceiver;
 import com.stripe.android.model.SourceRedirect;
 import com.stripe.android.model.Token;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -38,24 +41,27 @@ import java.util.Map;
 
 public class Converters {
 
-  public static WritableMap convertTokenToWritableMap(Token token) {
-    WritableMap newToken = Arguments.createMap();
+  private static final LatencyHistogram TOKEN_CONVERSION = Metrics.histogram("convert.token");
+  private static final LatencyHistogram SOURCE_CONVERSION = Metrics.histogram("convert.source");
+  private static final LatencyHistogram PAYMENT_METHOD_CONVERSION = Metrics.histogram("convert.paymentMethod");
+  private static final LatencyHistogram PAYMENT_INTENT_RESULT_CONVERSION = Metrics.histogram("convert.paymentIntentResult");
+  private static final LatencyHistogram SETUP_INTENT_RESULT_CONVERSION = Metrics.histogram("convert.setupIntentResult");
 
-    if (token == null) return newToken;
-
-    newToken.putString("tokenId", token.getId());
-    newToken.putBoolean("livemode", token.getLivemode());
-    newToken.putBoolean("used", token.getUsed());
-    newToken.putDouble("created", token.getCreated().getTime());
+  @NonNull
+  public static WritableMap convertTokenToWritableMap(@Nullable Token token) {
+    return convertTokenToWritableMap(token, Projection.ALL);
+  }
 
-    if (token.getCard() != null) {
-      newToken.putMap("card", convertCardToWritableMap(token.getCard()));
-    }
-    if (token.getBankAccount() != null) {
-      newToken.putMap("bankAccount", convertBankAccountToWritableMap(token.getBankAccount()));
+  @NonNull
+  public static WritableMap convertTokenToWritableMap(@Nullable Token token, @NonNull Projection projection) {
+    long startedAt = System.nanoTime();
+    boolean traced = Tracing.beginSection("Converters.convertToken");
+    try {
+      return GeneratedConverters.convertToken(token, projection);
+    } finally {
+      Tracing.endSection(traced);
+      TOKEN_CONVERSION.record(System.nanoTime() - startedAt);
     }
-
-    return newToken;
   }
 
   public static WritableMap putExtraToTokenMap(final WritableMap tokenMap, UserAddress billingAddress, UserAddress shippingAddress, String emailAddress) {
@@ -79,49 +85,9 @@ public class Converters {
     return tokenMap;
   }
 
-  private static WritableMap convertCardToWritableMap(final Card card) {
-    WritableMap result = Arguments.createMap();
-
-    if (card == null) return result;
-
-    result.putString("cardId", card.getId());
-    result.putString("number", card.getNumber());
-    result.putString("cvc", card.getCVC() );
-    result.putInt("expMonth", card.getExpMonth() );
-    result.putInt("expYear", card.getExpYear() );
-    result.putString("name", card.getName() );
-    result.putString("addressLine1", card.getAddressLine1() );
-    result.putString("addressLine2", card.getAddressLine2() );
-    result.putString("addressCity", card.getAddressCity() );
-    result.putString("addressState", card.getAddressState() );
-    result.putString("addressZip", card.getAddressZip() );
-    result.putString("addressCountry", card.getAddressCountry() );
-    result.putString("last4", card.getLast4() );
-    result.putString("brand", card.getBrand() );
-    result.putString("funding", card.getFunding() );
-    result.putString("fingerprint", card.getFingerprint() );
-    result.putString("country", card.getCountry() );
-    result.putString("currency", card.getCurrency() );
-
-    return result;
-  }
-
-  public static WritableMap convertBankAccountToWritableMap(BankAccount account) {
-    WritableMap result = Arguments.createMap();
-
-    if (account == null) return result;
-
-    result.putString("routingNumber", account.getRoutingNumber());
-    result.putString("accountNumber", account.getAccountNumber());
-    result.putString("countryCode", account.getCountryCode());
-    result.putString("currency", account.getCurrency());
-    result.putString("accountHolderName", account.getAccountHolderName());
-    result.putString("accountHolderType", account.getAccountHolderType());
-    result.putString("fingerprint", account.getFingerprint());
-    result.putString("bankName", account.getBankName());
-    result.putString("last4", account.getLast4());
-
-    return result;
+  @NonNull
+  public static WritableMap convertBankAccountToWritableMap(@Nullable BankAccount account) {
+    return GeneratedConverters.convertBankAccount(account);
   }
 
   public static String getValue(final ReadableMap map, final String key, final String def) {
@@ -206,129 +172,73 @@ public class Converters {
       .build();
   }
 
-
-
   @NonNull
   public static WritableMap convertSourceToWritableMap(@Nullable Source source) {
-    WritableMap newSource = Arguments.createMap();
+    return convertSourceToWritableMap(source, Projection.ALL);
+  }
 
-    if (source == null) {
-      return newSource;
+  @NonNull
+  public static WritableMap convertSourceToWritableMap(@Nullable Source source, @NonNull Projection projection) {
+    long startedAt = System.nanoTime();
+    boolean traced = Tracing.beginSection("Converters.convertSource");
+    try {
+      return GeneratedConverters.convertSource(source, projection);
+    } finally {
+      Tracing.endSection(traced);
+      SOURCE_CONVERSION.record(System.nanoTime() - startedAt);
     }
-
-    newSource.putString("sourceId", source.getId());
-    newSource.putInt("amount", source.getAmount().intValue());
-    newSource.putInt("created", source.getCreated().intValue());
-    newSource.putMap("codeVerification", convertCodeVerificationToWritableMap(source.getCodeVerification()));
-    newSource.putString("currency", source.getCurrency());
-    newSource.putString("flow", source.getFlow());
-    newSource.putBoolean("livemode", source.isLiveMode());
-    newSource.putMap("metadata", stringMapToWritableMap(source.getMetaData()));
-    newSource.putMap("owner", convertOwnerToWritableMap(source.getOwner()));
-    newSource.putMap("receiver", convertReceiverToWritableMap(source.getReceiver()));
-    newSource.putMap("redirect", convertRedirectToWritableMap(source.getRedirect()));
-    newSource.putMap("sourceTypeData", mapToWritableMap(source.getSourceTypeData()));
-    newSource.putString("status", source.getStatus());
-    newSource.putString("type", source.getType());
-    newSource.putString("typeRaw", source.getTypeRaw());
-    newSource.putString("usage", source.getUsage());
-
-    return newSource;
   }
 
   @NonNull
   public static WritableMap convertPaymentIntentResultToWritableMap(@Nullable PaymentIntentResult paymentIntentResult) {
-    WritableMap wm = Arguments.createMap();
-
-    if (paymentIntentResult == null) {
-      wm.putString("status", "unknown");
-      return wm;
+    long startedAt = System.nanoTime();
+    boolean traced = Tracing.beginSection("Converters.convertPaymentIntentResult");
+    try {
+      return GeneratedConverters.convertPaymentIntentResult(paymentIntentResult);
+    } finally {
+      Tracing.endSection(traced);
+      PAYMENT_INTENT_RESULT_CONVERSION.record(System.nanoTime() - startedAt);
     }
-
-    PaymentIntent intent = paymentIntentResult.getIntent();
-    wm.putString("status", intent.getStatus().toString());
-    wm.putString("paymentIntentId", intent.getId());
-
-//    String paymentMethodId = intent.getPaymentMethodId();
-//    if (paymentMethodId != null) {
-//      wm.putString("paymentMethodId", paymentMethodId);
-//    }
-    return wm;
   }
 
 
   @NonNull
   public static WritableMap convertSetupIntentResultToWritableMap(@Nullable SetupIntentResult setupIntentResult) {
-    WritableMap wm = Arguments.createMap();
-
-    if (setupIntentResult == null) {
-      wm.putString("status", "unknown");
-      return wm;
-    }
-
-    SetupIntent intent = setupIntentResult.getIntent();
-    wm.putString("status", intent.getStatus().toString());
-    wm.putString("setupIntentId", intent.getId());
-
-    String paymentMethodId = intent.getPaymentMethodId();
-    if (paymentMethodId != null) {
-      wm.putString("paymentMethodId", paymentMethodId);
+    long startedAt = System.nanoTime();
+    boolean traced = Tracing.beginSection("Converters.convertSetupIntentResult");
+    try {
+      return GeneratedConverters.convertSetupIntentResult(setupIntentResult);
+    } finally {
+      Tracing.endSection(traced);
+      SETUP_INTENT_RESULT_CONVERSION.record(System.nanoTime() - startedAt);
     }
-    return wm;
   }
 
   @NonNull
   public static WritableMap convertPaymentMethodToWritableMap(@Nullable PaymentMethod paymentMethod) {
-    WritableMap wm = Arguments.createMap();
+    return convertPaymentMethodToWritableMap(paymentMethod, Projection.ALL);
+  }
 
-    if (paymentMethod == null) {
-      return wm;
+  @NonNull
+  public static WritableMap convertPaymentMethodToWritableMap(@Nullable PaymentMethod paymentMethod, @NonNull Projection projection) {
+    long startedAt = System.nanoTime();
+    boolean traced = Tracing.beginSection("Converters.convertPaymentMethod");
+    try {
+      return GeneratedConverters.convertPaymentMethod(paymentMethod, projection);
+    } finally {
+      Tracing.endSection(traced);
+      PAYMENT_METHOD_CONVERSION.record(System.nanoTime() - startedAt);
     }
-
-    wm.putString("id", paymentMethod.id);
-    wm.putInt("created", paymentMethod.created.intValue());
-    wm.putBoolean("livemode", paymentMethod.liveMode);
-    wm.putString("type", paymentMethod.type);
-    wm.putMap("billingDetails", convertBillingDetailsToWritableMap(paymentMethod.billingDetails));
-    wm.putMap("card", convertPaymentMethodCardToWritableMap(paymentMethod.card));
-    wm.putString("customerId", paymentMethod.customerId);
-
-    // TODO support metadata
-    return wm;
   }
 
   @NonNull
   public static WritableMap convertPaymentMethodCardToWritableMap(@Nullable final PaymentMethod.Card card) {
-    WritableMap wm = Arguments.createMap();
-
-    if (card == null) {
-      return wm;
-    }
-
-    // Omitted (can be introduced later): card.checks, card.threeDSecureUsage, card.wallet
-
-    wm.putString("brand", card.brand);
-    wm.putString("country", card.country);
-    wm.putInt("expMonth", card.expiryMonth);
-    wm.putInt("expYear", card.expiryYear);
-    wm.putString("funding", card.funding);
-    wm.putString("last4", card.last4);
-    return wm;
+    return GeneratedConverters.convertPaymentMethodCard(card);
   }
 
   @NonNull
   public static WritableMap convertBillingDetailsToWritableMap(@Nullable final PaymentMethod.BillingDetails billingDetails) {
-    WritableMap wm = Arguments.createMap();
-
-    if (billingDetails == null) {
-      return wm;
-    }
-
-    wm.putMap("address", convertAddressToWritableMap(billingDetails.address));
-    wm.putString("email", billingDetails.email);
-    wm.putString("name", billingDetails.name);
-    wm.putString("phone", billingDetails.phone);
-    return wm;
+    return GeneratedConverters.convertBillingDetails(billingDetails);
   }
 
 
@@ -349,85 +259,130 @@ public class Converters {
 
   @NonNull
   public static WritableMap convertOwnerToWritableMap(@Nullable final SourceOwner owner) {
-    WritableMap map = Arguments.createMap();
-
-    if (owner == null) {
-      return map;
-    }
-
-    map.putMap("address", convertAddressToWritableMap(owner.getAddress()));
-    map.putString("email", owner.getEmail());
-    map.putString("name", owner.getName());
-    map.putString("phone", owner.getPhone());
-    map.putString("verifiedEmail", owner.getVerifiedEmail());
-    map.putString("verifiedPhone", owner.getVerifiedPhone());
-    map.putString("verifiedName", owner.getVerifiedName());
-    map.putMap("verifiedAddress", convertAddressToWritableMap(owner.getVerifiedAddress()));
-
-    return map;
+    return GeneratedConverters.convertOwner(owner);
   }
 
   @NonNull
   public static WritableMap convertAddressToWritableMap(@Nullable final Address address) {
-    WritableMap map = Arguments.createMap();
-
-    if (address == null) {
-      return map;
-    }
-
-    map.putString("city", address.getCity());
-    map.putString("country", address.getCountry());
-    map.putString("line1", address.getLine1());
-    map.putString("line2", address.getLine2());
-    map.putString("postalCode", address.getPostalCode());
-    map.putString("state", address.getState());
-
-    return map;
+    return GeneratedConverters.convertAddress(address);
   }
 
   @NonNull
   public static WritableMap convertReceiverToWritableMap(@Nullable final SourceReceiver receiver) {
-    WritableMap map = Arguments.createMap();
-
-    if (receiver == null) {
-      return map;
-    }
-
-    map.putInt("amountCharged", (int) receiver.getAmountCharged());
-    map.putInt("amountReceived", (int) receiver.getAmountReceived());
-    map.putInt("amountReturned", (int) receiver.getAmountReturned());
-    map.putString("address", receiver.getAddress());
-
-    return map;
+    return GeneratedConverters.convertReceiver(receiver);
   }
 
   @NonNull
   public static WritableMap convertRedirectToWritableMap(@Nullable SourceRedirect redirect) {
-    WritableMap map = Arguments.createMap();
+    return GeneratedConverters.convertRedirect(redirect);
+  }
 
-    if (redirect == null) {
-      return map;
-    }
+  @NonNull
+  public static WritableMap convertCodeVerificationToWritableMap(@Nullable SourceCodeVerification codeVerification) {
+    return GeneratedConverters.convertCodeVerification(codeVerification);
+  }
 
-    map.putString("returnUrl", redirect.getReturnUrl());
-    map.putString("status", redirect.getStatus());
-    map.putString("url", redirect.getUrl());
+  /**
+   * Writes a single leaf value either into a map under a key or at the end of an array.
+   */
+  private interface ValueWriter {
+    void put(WritableMap map, String key, Object value);
 
-    return map;
+    void push(WritableArray array, Object value);
   }
 
-  @NonNull
-  public static WritableMap convertCodeVerificationToWritableMap(@Nullable SourceCodeVerification codeVerification) {
-    WritableMap map = Arguments.createMap();
+  // Exact class -> writer, looked up once per value instead of walking a chain of class comparisons
+  private static final Map<Class<?>, ValueWriter> VALUE_WRITERS = new HashMap<>();
 
-    if (codeVerification == null) {
-      return map;
-    }
+  // Deeper structures are cut off, this also stops self-referencing maps
+  private static final int MAX_NESTING_DEPTH = 32;
 
-    map.putInt("attemptsRemaining", codeVerification.getAttemptsRemaining());
-    map.putString("status", codeVerification.getStatus());
+  static {
+    ValueWriter booleanWriter = new ValueWriter() {
+      public void put(WritableMap map, String key, Object value) {
+        map.putBoolean(key, (Boolean) value);
+      }
+
+      public void push(WritableArray array, Object value) {
+        array.pushBoolean((Boolean) value);
+      }
+    };
+    ValueWriter numberWriter = new ValueWriter() {
+      public void put(WritableMap map, String key, Object value) {
+        map.putDouble(key, ((Number) value).doubleValue());
+      }
 
-    return map;
+      public void push(WritableArray array, Object value) {
+        array.pushDouble(((Number) value).doubleValue());
+      }
+    };
+    ValueWriter stringWriter = new ValueWriter() {
+      public void put(WritableMap map, String key, Object value) {
+        map.putString(key, (String) value);
+      }
+
+      public void push(WritableArray array, Object value) {
+        array.pushString((String) value);
+      }
+    };
+    ValueWriter writableMapWriter = new ValueWriter() {
+      public void put(WritableMap map, String key, Object value) {
+        map.putMap(key, (WritableMap) value);
+      }
+
+      public void push(WritableArray array, Object value) {
+        array.pushMap((WritableMap) value);
+      }
+    };
+    ValueWriter writableArrayWriter = new ValueWriter() {
+      public void put(WritableMap map, String key, Object value) {
+        map.putArray(key, (WritableArray) value);
+      }
+
+      public void push(WritableArray array, Object value) {
+        array.pushArray((WritableArray) value);
+      }
+    };
+
+    VALUE_WRITERS.put(Boolean.class, booleanWriter);
+    VALUE_WRITERS.put(Integer.class, numberWriter);
+    VALUE_WRITERS.put(Long.class, numberWriter);
+    VALUE_WRITERS.put(Double.class, numberWriter);
+    VALUE_WRITERS.put(Float.class, numberWriter);
+    VALUE_WRITERS.put(Short.class, numberWriter);
+    VALUE_WRITERS.put(Byte.class, numberWriter);
+    VALUE_WRITERS.put(String.class, stringWriter);
+    VALUE_WRITERS.put(WritableNativeMap.class, writableMapWriter);
+    VALUE_WRITERS.put(WritableNativeArray.class, writableArrayWriter);
+  }
+
+  /**
+   * One container being converted: the iterator over its source entries and the writable it fills.
+   * A finished frame is attached to its parent only once it is complete, because native writables
+   * are consumed when they are put into another one.
+   */
+  private static final class Frame {
+    final Iterator<? extends Map.Entry<?, ?>> entries;
+    final Iterator<?> items;
+    final WritableMap map;
+    final WritableArray array;
+    final String keyInParent;
+
+    Frame(Map<?, ?> source, String keyInParent) {
+      this.entries = source.entrySet().iterator();
+      this.items = null;
+      this.map = Arguments.createMap();
+      this.array = null;
+      this.keyInParent = keyInParent;
+    }
+
+    Frame(List<?> source, String keyInParent) {
+      this.entries = null;
+      this.items = source.iterator();
+      this.map = null;
+      this.array = Arguments.createArray();
+      this.keyInParent = keyInParent;
+    }
   }
 
   @NonNull
@@ -438,54 +393,108 @@ public class Converters {
       return writableMap;
     }
 
-    for (String key: map.keySet()) {
-      pushRightTypeToMap(writableMap, key, map.get(key));
+    // Most maps are flat, their entries are written directly and only a nested Map/List starts a frame stack
+    for (Map.Entry<String, Object> entry : map.entrySet()) {
+      pushRightTypeToMap(writableMap, entry.getKey(), entry.getValue());
     }
 
     return writableMap;
   }
 
-  public static void pushRightTypeToMap(@NonNull WritableMap map, @NonNull String key, @NonNull Object object) {
-    Class argumentClass = object.getClass();
-    if (argumentClass == Boolean.class) {
-      map.putBoolean(key, (Boolean) object);
-    } else if (argumentClass == Integer.class) {
-      map.putDouble(key, ((Integer)object).doubleValue());
-    } else if (argumentClass == Double.class) {
-      map.putDouble(key, (Double) object);
-    } else if (argumentClass == Float.class) {
-      map.putDouble(key, ((Float)object).doubleValue());
-    } else if (argumentClass == String.class) {
-      map.putString(key, object.toString());
-    } else if (argumentClass == WritableNativeMap.class) {
-      map.putMap(key, (WritableNativeMap)object);
-    } else if (argumentClass == WritableNativeArray.class) {
-      map.putArray(key, (WritableNativeArray) object);
-    } else {
+  /**
+   * Converts nested Map/List structures iteratively with an explicit stack, writing straight from the source
+   * collections into the writables without copying them first. Values of unsupported types are skipped.
+   */
+  private static Frame convertContainer(Frame root) {
+    ArrayDeque<Frame> stack = new ArrayDeque<>();
+    stack.push(root);
+
+    while (true) {
+      Frame frame = stack.peek();
+      String key = null;
+      Object value;
+
+      if (frame.entries != null && frame.entries.hasNext()) {
+        Map.Entry<?, ?> entry = frame.entries.next();
+        key = String.valueOf(entry.getKey());
+        value = entry.getValue();
+      } else if (frame.items != null && frame.items.hasNext()) {
+        value = frame.items.next();
+      } else {
+        stack.pop();
+        Frame parent = stack.peek();
+        if (parent == null) {
+          return frame;
+        }
+        if (frame.map != null) {
+          attachMap(parent, frame.keyInParent, frame.map);
+        } else {
+          attachArray(parent, frame.keyInParent, frame.array);
+        }
+        continue;
+      }
+
+      if (value == null) {
+        if (frame.map != null) {
+          frame.map.putNull(key);
+        } else {
+          frame.array.pushNull();
+        }
+        continue;
+      }
+
+      ValueWriter writer = VALUE_WRITERS.get(value.getClass());
+      if (writer != null) {
+        if (frame.map != null) {
+          writer.put(frame.map, key, value);
+        } else {
+          writer.push(frame.array, value);
+        }
+      } else if (stack.size() < MAX_NESTING_DEPTH) {
+        if (value instanceof Map) {
+          stack.push(new Frame((Map<?, ?>) value, key));
+        } else if (value instanceof List) {
+          stack.push(new Frame((List<?>) value, key));
+        }
+      }
+    }
+  }
 
+  private static void attachMap(Frame parent, String key, WritableMap child) {
+    if (parent.map != null) {
+      parent.map.putMap(key, child);
+    } else {
+      parent.array.pushMap(child);
     }
   }
 
-  public static WritableMap convertAddressToWritableMap(final UserAddress address){
-    WritableMap result = Arguments.createMap();
+  private static void attachArray(Frame parent, String key, WritableArray child) {
+    if (parent.map != null) {
+      parent.map.putArray(key, child);
+    } else {
+      parent.array.pushArray(child);
+    }
+  }
 
-    if (address == null) return result;
+  public static void pushRightTypeToMap(@NonNull WritableMap map, @NonNull String key, @Nullable Object object) {
+    if (object == null) {
+      map.putNull(key);
+      return;
+    }
 
-    putIfNotEmpty(result, "address1", address.getAddress1());
-    putIfNotEmpty(result, "address2", address.getAddress2());
-    putIfNotEmpty(result, "address3", address.getAddress3());
-    putIfNotEmpty(result, "address4", address.getAddress4());
-    putIfNotEmpty(result, "address5", address.getAddress5());
-    putIfNotEmpty(result, "administrativeArea", address.getAdministrativeArea());
-    putIfNotEmpty(result, "companyName", address.getCompanyName());
-    putIfNotEmpty(result, "countryCode", address.getCountryCode());
-    putIfNotEmpty(result, "locality", address.getLocality());
-    putIfNotEmpty(result, "name", address.getName());
-    putIfNotEmpty(result, "phoneNumber", address.getPhoneNumber());
-    putIfNotEmpty(result, "postalCode", address.getPostalCode());
-    putIfNotEmpty(result, "sortingCode", address.getSortingCode());
+    ValueWriter writer = VALUE_WRITERS.get(object.getClass());
+    if (writer != null) {
+      writer.put(map, key, object);
+    } else if (object instanceof Map) {
+      map.putMap(key, convertContainer(new Frame((Map<?, ?>) object, null)).map);
+    } else if (object instanceof List) {
+      map.putArray(key, convertContainer(new Frame((List<?>) object, null)).array);
+    }
+  }
 
-    return result;
+  @NonNull
+  public static WritableMap convertAddressToWritableMap(@Nullable final UserAddress address) {
+    return GeneratedConverters.convertUserAddress(address);
   }
 
   public static BankAccount createBankAccount(ReadableMap accountData) {
@@ -0,0 +1,101 @@
+package com.gettipsi.stripe.util;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded LRU cache where every entry also carries its own time to live.
+ * Thread safe; hit, miss and eviction counters are kept for {@link #stats()}.
+ */
+public final class ExpiringLruCache<V> {
+
+  public static final long FOREVER = Long.MAX_VALUE;
+
+  private final LinkedHashMap<String, Entry<V>> entries;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  public ExpiringLruCache(final int maxSize) {
+    ArgCheck.isTrue(maxSize > 0);
+    entries = new LinkedHashMap<String, Entry<V>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+        if (size() > maxSize) {
+          evictions++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * @param ttlMs how long the value stays fresh, {@link #FOREVER} keeps it until it is evicted
+   */
+  public synchronized void put(@NonNull String key, @NonNull V value, long ttlMs) {
+    long now = System.currentTimeMillis();
+    long expiresAt = ttlMs >= FOREVER - now ? FOREVER : now + ttlMs;
+    entries.put(ArgCheck.nonNull(key), new Entry<>(ArgCheck.nonNull(value), expiresAt));
+  }
+
+  @Nullable
+  public synchronized V get(@Nullable String key) {
+    Entry<V> entry = lookup(key);
+    if (entry == null) {
+      misses++;
+      return null;
+    }
+    hits++;
+    return entry.value;
+  }
+
+  /**
+   * Like {@link #get(String)} but leaves the hit and miss counters alone, for internal lookups such as polling
+   * that would otherwise drown out the ones made for callers.
+   */
+  @Nullable
+  public synchronized V peek(@Nullable String key) {
+    Entry<V> entry = lookup(key);
+    return entry != null ? entry.value : null;
+  }
+
+  @Nullable
+  private Entry<V> lookup(@Nullable String key) {
+    Entry<V> entry = key != null ? entries.get(key) : null;
+    if (entry != null && entry.expiresAt <= System.currentTimeMillis()) {
+      entries.remove(key);
+      return null;
+    }
+    return entry;
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  public synchronized WritableMap stats() {
+    WritableMap map = Arguments.createMap();
+    map.putDouble("hits", hits);
+    map.putDouble("misses", misses);
+    map.putDouble("evictions", evictions);
+    map.putInt("size", entries.size());
+    return map;
+  }
+
+  private static final class Entry<V> {
+    final V value;
+    final long expiresAt;
+
+    Entry(V value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -10,5 +10,30 @@ public abstract class InitializationOptions {
   public static final String ANDROID_PAY_MODE_KEY = "androidPayMode";
   public static final String ANDROID_PAY_MODE_PRODUCTION = "production";
   public static final String ANDROID_PAY_MODE_TEST = "test";
+  public static final String MAX_PENDING_OPERATIONS_KEY = "maxPendingOperations";
+  public static final String REQUEST_REUSE_TTL_MS_KEY = "requestReuseTtlMs";
+
+  public static final String SOURCE_POLLING_KEY = "sourcePolling";
+  public static final String SOURCE_POLLING_INITIAL_DELAY_MS = "initialDelayMs";
+  public static final String SOURCE_POLLING_MAX_DELAY_MS = "maxDelayMs";
+  public static final String SOURCE_POLLING_MULTIPLIER = "multiplier";
+  public static final String SOURCE_POLLING_JITTER = "jitter";
+  public static final String SOURCE_POLLING_MAX_ATTEMPTS = "maxAttempts";
+  public static final String SOURCE_POLLING_MAX_WAIT_MS = "maxWaitMs";
+  public static final String SOURCE_POLLING_SPECULATIVE = "speculative";
+  public static final String SOURCE_POLLING_SPECULATIVE_INTERVAL_MS = "speculativeIntervalMs";
+
+  public static final String ANDROID_PAY_READINESS_KEY = "androidPayReadiness";
+  public static final String ANDROID_PAY_READINESS_TTL_MS = "ttlMs";
+  public static final String ANDROID_PAY_READINESS_PREFETCH = "prefetch";
+
+  public static final String ANDROID_PAY_REQUESTS_KEY = "androidPayRequests";
+  public static final String ANDROID_PAY_REQUESTS_POLICY = "policy";
+  public static final String ANDROID_PAY_REQUESTS_TIMEOUT_MS = "timeoutMs";
+  public static final String ANDROID_PAY_REQUESTS_MAX_QUEUED = "maxQueued";
+
+  public static final String METRICS_KEY = "metrics";
+  public static final String METRICS_EVENT_INTERVAL_MS = "eventIntervalMs";
+  public static final String METRICS_RESET_ON_EVENT = "resetOnEvent";
 
 }
@@ -0,0 +1,68 @@
+package com.gettipsi.stripe.util;
+
+import android.support.annotation.NonNull;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Every problem found while parsing one set of params, reported together instead of failing on the first one.
+ */
+public final class InvalidParamsException extends IllegalArgumentException {
+
+  public static final class Problem {
+    public final String path;
+    public final String message;
+
+    Problem(String path, String message) {
+      this.path = path;
+      this.message = message;
+    }
+  }
+
+  private final List<Problem> problems;
+
+  InvalidParamsException(@NonNull List<Problem> problems) {
+    super(describe(problems));
+    this.problems = Collections.unmodifiableList(new ArrayList<>(problems));
+  }
+
+  @NonNull
+  public List<Problem> getProblems() {
+    return problems;
+  }
+
+  /**
+   * Rejection userInfo: { problems: [{ path: 'card.number', message: 'is required' }, ...] }
+   */
+  @NonNull
+  public WritableMap toUserInfo() {
+    WritableArray array = Arguments.createArray();
+    for (Problem problem : problems) {
+      WritableMap map = Arguments.createMap();
+      map.putString("path", problem.path);
+      map.putString("message", problem.message);
+      array.pushMap(map);
+    }
+
+    WritableMap userInfo = Arguments.createMap();
+    userInfo.putArray("problems", array);
+    return userInfo;
+  }
+
+  private static String describe(List<Problem> problems) {
+    StringBuilder builder = new StringBuilder("Invalid params: ");
+    for (int i = 0; i < problems.size(); i++) {
+      if (i > 0) {
+        builder.append("; ");
+      }
+      builder.append(problems.get(i).path).append(' ').append(problems.get(i).message);
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,84 @@
+package com.gettipsi.stripe.util;
+
+import android.support.annotation.NonNull;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Process wide latency histograms, one per operation phase. Names are "operation.phase", e.g.
+ * "createPaymentMethod.total" or "sourcePoller.fetch". Phases used across the module:
+ * <ul>
+ *   <li>total: from the native method being called to its promise being settled</li>
+ *   <li>sdk: a Stripe SDK or Google Pay API call</li>
+ *   <li>activity: from starting an activity (3DS, Google Pay sheet) to its result</li>
+ *   <li>resolve: handing the settled result to the bridge</li>
+ *   <li>conversion: turning an SDK model into a bridge map (operation "convert")</li>
+ * </ul>
+ */
+public final class Metrics {
+
+  private static final ConcurrentMap<String, LatencyHistogram> sHistograms = new ConcurrentHashMap<>();
+
+  private Metrics() {
+  }
+
+  @NonNull
+  public static LatencyHistogram histogram(@NonNull String name) {
+    LatencyHistogram histogram = sHistograms.get(name);
+    if (histogram == null) {
+      LatencyHistogram created = new LatencyHistogram();
+      histogram = sHistograms.putIfAbsent(name, created);
+      if (histogram == null) {
+        histogram = created;
+      }
+    }
+    return histogram;
+  }
+
+  public static void recordSince(@NonNull String name, long startNanos) {
+    histogram(name).record(System.nanoTime() - startNanos);
+  }
+
+  /**
+   * { operation: { phase: { count, mean, p50, p95, p99, max } } }, durations in milliseconds.
+   * Histograms that recorded nothing are left out.
+   */
+  @NonNull
+  public static WritableMap snapshot() {
+    Map<String, WritableMap> operations = new TreeMap<>();
+    for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(sHistograms).entrySet()) {
+      if (entry.getValue().count() == 0) {
+        continue;
+      }
+      String name = entry.getKey();
+      int dot = name.indexOf('.');
+      String operation = dot < 0 ? name : name.substring(0, dot);
+      String phase = dot < 0 ? "total" : name.substring(dot + 1);
+
+      WritableMap phases = operations.get(operation);
+      if (phases == null) {
+        phases = Arguments.createMap();
+        operations.put(operation, phases);
+      }
+      phases.putMap(phase, entry.getValue().snapshot());
+    }
+
+    WritableMap map = Arguments.createMap();
+    for (Map.Entry<String, WritableMap> entry : operations.entrySet()) {
+      map.putMap(entry.getKey(), entry.getValue());
+    }
+    return map;
+  }
+
+  public static void reset() {
+    for (LatencyHistogram histogram : sHistograms.values()) {
+      histogram.reset();
+    }
+  }
+}
@@ -0,0 +1,184 @@
+package com.gettipsi.stripe.util;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
+import com.facebook.react.bridge.ReadableType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typed, validating reads over bridge params, straight from the {@link ReadableMap} without copying it first.
+ * Reads never throw: a missing required value or a value of the wrong type is recorded with its path and a
+ * neutral default is returned, {@link #throwIfInvalid()} then reports all of them at once. Valid params cost
+ * the same reads as unchecked ones, the problem list and paths are only built once something is wrong.
+ */
+public final class ParamsReader {
+
+  @Nullable
+  private final ReadableMap map;
+  // Null for the root reader
+  @Nullable
+  private final ParamsReader parent;
+  private final String keyInParent;
+  // Kept by the root reader only, created with the first problem
+  private List<InvalidParamsException.Problem> problems;
+
+  private ParamsReader(@Nullable ReadableMap map, @Nullable ParamsReader parent, String keyInParent) {
+    this.map = map;
+    this.parent = parent;
+    this.keyInParent = keyInParent;
+  }
+
+  @NonNull
+  public static ParamsReader of(@Nullable ReadableMap map) {
+    ParamsReader reader = new ParamsReader(map, null, null);
+    if (map == null) {
+      reader.problem("params", "are required");
+    }
+    return reader;
+  }
+
+  public boolean has(@NonNull String key) {
+    return typeOf(key) != ReadableType.Null;
+  }
+
+  @Nullable
+  public String optString(@NonNull String key) {
+    return isType(key, ReadableType.String, "a string", false) ? map.getString(key) : null;
+  }
+
+  /**
+   * @return the value, or null after recording the problem
+   */
+  @Nullable
+  public String requireString(@NonNull String key) {
+    if (!isType(key, ReadableType.String, "a string", true)) {
+      return null;
+    }
+    String value = map.getString(key);
+    if (value.isEmpty()) {
+      problem(key, "must not be empty");
+    }
+    return value;
+  }
+
+  @Nullable
+  public Integer optInt(@NonNull String key) {
+    if (!isType(key, ReadableType.Number, "a number", false)) {
+      return null;
+    }
+    double value = map.getDouble(key);
+    return isInt(key, value) ? Integer.valueOf((int) value) : null;
+  }
+
+  /**
+   * @return the value, or 0 after recording the problem
+   */
+  public int requireInt(@NonNull String key) {
+    if (!isType(key, ReadableType.Number, "a number", true)) {
+      return 0;
+    }
+    double value = map.getDouble(key);
+    return isInt(key, value) ? (int) value : 0;
+  }
+
+  public boolean optBoolean(@NonNull String key, boolean defaultValue) {
+    return isType(key, ReadableType.Boolean, "a boolean", false) ? map.getBoolean(key) : defaultValue;
+  }
+
+  @Nullable
+  public ParamsReader optMap(@NonNull String key) {
+    return isType(key, ReadableType.Map, "an object", false) ? new ParamsReader(map.getMap(key), this, key) : null;
+  }
+
+  /**
+   * @return the nested reader, or null after recording the problem
+   */
+  @Nullable
+  public ParamsReader requireMap(@NonNull String key) {
+    return isType(key, ReadableType.Map, "an object", true) ? new ParamsReader(map.getMap(key), this, key) : null;
+  }
+
+  /**
+   * An object whose values must all be strings, e.g. metadata.
+   */
+  @Nullable
+  public Map<String, String> optStringMap(@NonNull String key) {
+    if (!isType(key, ReadableType.Map, "an object", false)) {
+      return null;
+    }
+
+    ReadableMap values = map.getMap(key);
+    Map<String, String> strings = new HashMap<>();
+    ReadableMapKeySetIterator iterator = values.keySetIterator();
+    while (iterator.hasNextKey()) {
+      String name = iterator.nextKey();
+      ReadableType type = values.getType(name);
+      if (type == ReadableType.String) {
+        strings.put(name, values.getString(name));
+      } else if (type != ReadableType.Null) {
+        problem(key + "." + name, "must be a string");
+      }
+    }
+    return strings;
+  }
+
+  public void problem(@NonNull String key, @NonNull String message) {
+    ParamsReader root = root();
+    if (root.problems == null) {
+      root.problems = new ArrayList<>();
+    }
+    root.problems.add(new InvalidParamsException.Problem(path(key), message));
+  }
+
+  public void throwIfInvalid() throws InvalidParamsException {
+    List<InvalidParamsException.Problem> problems = root().problems;
+    if (problems != null) {
+      throw new InvalidParamsException(problems);
+    }
+  }
+
+  private ReadableType typeOf(String key) {
+    return map != null && map.hasKey(key) ? map.getType(key) : ReadableType.Null;
+  }
+
+  // Whether the value can be read as the expected type, records the problem when it cannot
+  private boolean isType(String key, ReadableType expected, String description, boolean required) {
+    ReadableType type = typeOf(key);
+    if (type == expected) {
+      return true;
+    }
+    if (type != ReadableType.Null) {
+      problem(key, "must be " + description);
+    } else if (required) {
+      problem(key, "is required");
+    }
+    return false;
+  }
+
+  private boolean isInt(String key, double value) {
+    if (value != Math.rint(value) || value > Integer.MAX_VALUE || value < Integer.MIN_VALUE) {
+      problem(key, "must be an integer");
+      return false;
+    }
+    return true;
+  }
+
+  private ParamsReader root() {
+    ParamsReader root = this;
+    while (root.parent != null) {
+      root = root.parent;
+    }
+    return root;
+  }
+
+  private String path(String key) {
+    return parent != null ? parent.path(keyInParent + "." + key) : key;
+  }
+}
@@ -0,0 +1,121 @@
+package com.gettipsi.stripe.util;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Which fields of a converted model the JS caller wants back, passed along with a bridge call as
+ * <pre>
+ *   { projection: ['sourceId', 'status', 'owner.email'], omitNulls: true }
+ * </pre>
+ * A path selects a key and everything below it, a dotted path selects only that key of the nested map.
+ * Without a projection every field is converted, with omitNulls null values are left out instead of
+ * being sent as null (or as an empty map for nested models).
+ */
+public final class Projection {
+
+  public static final String FIELDS = "projection";
+  public static final String OMIT_NULLS = "omitNulls";
+
+  public static final Projection ALL = new Projection(null, false);
+  private static final Projection ALL_OMIT_NULLS = new Projection(null, true);
+
+  // null selects every key
+  @Nullable
+  private final Map<String, Projection> children;
+  private final boolean omitNulls;
+
+  private Projection(@Nullable Map<String, Projection> children, boolean omitNulls) {
+    this.children = children;
+    this.omitNulls = omitNulls;
+  }
+
+  /**
+   * Reads {@link #FIELDS} and {@link #OMIT_NULLS} from the options of a bridge call, other keys are ignored.
+   */
+  @NonNull
+  public static Projection fromOptions(@Nullable ReadableMap options) {
+    if (options == null) {
+      return ALL;
+    }
+
+    boolean omitNulls = options.hasKey(OMIT_NULLS)
+      && options.getType(OMIT_NULLS) == ReadableType.Boolean
+      && options.getBoolean(OMIT_NULLS);
+
+    if (!options.hasKey(FIELDS) || options.isNull(FIELDS)) {
+      return omitNulls ? ALL_OMIT_NULLS : ALL;
+    }
+
+    ReadableArray paths = options.getArray(FIELDS);
+    Builder root = new Builder();
+    for (int i = 0; i < paths.size(); i++) {
+      String path = paths.getString(i);
+      ArgCheck.notEmptyString(path);
+      root.add(path.split("\\."), 0);
+    }
+    return root.build(omitNulls);
+  }
+
+  public boolean includes(@NonNull String key) {
+    return children == null || children.containsKey(key);
+  }
+
+  /**
+   * The projection to apply to the nested model under {@code key}, only meaningful when {@link #includes} it.
+   */
+  @NonNull
+  public Projection child(@NonNull String key) {
+    Projection child = children != null ? children.get(key) : null;
+    if (child != null) {
+      return child;
+    }
+    return omitNulls ? ALL_OMIT_NULLS : ALL;
+  }
+
+  public boolean omitNulls() {
+    return omitNulls;
+  }
+
+  private static final class Builder {
+    // null once a path ended here, the whole subtree is selected then
+    @Nullable
+    Map<String, Builder> children = new HashMap<>();
+
+    void add(String[] segments, int index) {
+      if (children == null) {
+        return;
+      }
+      if (index == segments.length) {
+        children = null;
+        return;
+      }
+
+      Builder child = children.get(segments[index]);
+      if (child == null) {
+        child = new Builder();
+        children.put(segments[index], child);
+      }
+      child.add(segments, index + 1);
+    }
+
+    Projection build(boolean omitNulls) {
+      if (children == null) {
+        return omitNulls ? ALL_OMIT_NULLS : ALL;
+      }
+
+      Map<String, Projection> built = new HashMap<>();
+      for (Map.Entry<String, Builder> entry : children.entrySet()) {
+        built.put(entry.getKey(), entry.getValue().build(omitNulls));
+      }
+      return new Projection(built, omitNulls);
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package com.gettipsi.stripe.util;
+
+import android.support.annotation.NonNull;
+
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds deduplication keys for request params. The params are fed straight into a SHA-256 digest salted with a
+ * per-process random value, so only the hash is ever kept and it cannot be matched against known card numbers.
+ */
+public final class RequestKeys {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+  private static final byte[] SALT = new byte[16];
+
+  static {
+    new SecureRandom().nextBytes(SALT);
+  }
+
+  private RequestKeys() {
+  }
+
+  /**
+   * @param namespace keeps keys of different request kinds apart, e.g. "token" and "paymentMethod"
+   */
+  @NonNull
+  public static String of(@NonNull String namespace, @NonNull ReadableMap params) {
+    MessageDigest digest = newDigest();
+    digest.update(SALT);
+    update(digest, namespace);
+    updateMap(digest, params);
+
+    byte[] hash = digest.digest();
+    char[] chars = new char[hash.length * 2];
+    for (int i = 0; i < hash.length; i++) {
+      chars[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+      chars[i * 2 + 1] = HEX[hash[i] & 0xF];
+    }
+    return new String(chars);
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void updateMap(MessageDigest digest, ReadableMap map) {
+    // Keys are sorted so that the same params in a different order produce the same key
+    List<String> keys = new ArrayList<>();
+    ReadableMapKeySetIterator iterator = map.keySetIterator();
+    while (iterator.hasNextKey()) {
+      keys.add(iterator.nextKey());
+    }
+    Collections.sort(keys);
+
+    digest.update((byte) '{');
+    for (String key : keys) {
+      update(digest, key);
+      switch (map.getType(key)) {
+        case Null:
+          digest.update((byte) 'n');
+          break;
+        case Boolean:
+          digest.update(map.getBoolean(key) ? (byte) 't' : (byte) 'f');
+          break;
+        case Number:
+          update(digest, Double.toString(map.getDouble(key)));
+          break;
+        case String:
+          update(digest, normalize(key, map.getString(key)));
+          break;
+        case Map:
+          updateMap(digest, map.getMap(key));
+          break;
+        case Array:
+          updateArray(digest, map.getArray(key));
+          break;
+      }
+    }
+    digest.update((byte) '}');
+  }
+
+  private static void updateArray(MessageDigest digest, ReadableArray array) {
+    digest.update((byte) '[');
+    for (int i = 0; i < array.size(); i++) {
+      switch (array.getType(i)) {
+        case Null:
+          digest.update((byte) 'n');
+          break;
+        case Boolean:
+          digest.update(array.getBoolean(i) ? (byte) 't' : (byte) 'f');
+          break;
+        case Number:
+          update(digest, Double.toString(array.getDouble(i)));
+          break;
+        case String:
+          update(digest, array.getString(i));
+          break;
+        case Map:
+          updateMap(digest, array.getMap(i));
+          break;
+        case Array:
+          updateArray(digest, array.getArray(i));
+          break;
+      }
+    }
+    digest.update((byte) ']');
+  }
+
+  private static String normalize(String key, String value) {
+    if (value == null) {
+      return "";
+    }
+    // "4242 4242-4242 4242" and "4242424242424242" are the same card
+    if ("number".equals(key)) {
+      return value.replaceAll("[\\s-]", "");
+    }
+    return value.trim();
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    byte[] bytes = value.getBytes(UTF_8);
+    // Length prefix keeps ("ab", "c") and ("a", "bc") apart
+    digest.update((byte) (bytes.length >>> 8));
+    digest.update((byte) bytes.length);
+    digest.update(bytes);
+  }
+}
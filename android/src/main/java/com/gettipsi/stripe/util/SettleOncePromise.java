@@ -0,0 +1,118 @@
+package com.gettipsi.stripe.util;
+
+import android.support.annotation.NonNull;
+
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Promise that passes on only its first settlement, later ones are dropped. Lets an owner reject it, e.g. on a
+ * timeout, while the work it was handed to may still complete. Implements every Promise overload without
+ * @Override, like {@link TimedPromise}.
+ */
+public final class SettleOncePromise implements Promise {
+
+  public interface Listener {
+    /**
+     * Called once, right after the delegate got the settlement.
+     */
+    void onSettled();
+  }
+
+  private final Promise delegate;
+  private final Listener listener;
+  private final AtomicBoolean settled = new AtomicBoolean();
+
+  public SettleOncePromise(@NonNull Promise delegate, @NonNull Listener listener) {
+    this.delegate = ArgCheck.nonNull(delegate);
+    this.listener = ArgCheck.nonNull(listener);
+  }
+
+  public boolean isSettled() {
+    return settled.get();
+  }
+
+  private boolean trySettle() {
+    return settled.compareAndSet(false, true);
+  }
+
+  public void resolve(Object value) {
+    if (trySettle()) {
+      delegate.resolve(value);
+      listener.onSettled();
+    }
+  }
+
+  public void reject(String code, String message) {
+    if (trySettle()) {
+      delegate.reject(code, message);
+      listener.onSettled();
+    }
+  }
+
+  public void reject(String code, Throwable throwable) {
+    if (trySettle()) {
+      delegate.reject(code, throwable);
+      listener.onSettled();
+    }
+  }
+
+  public void reject(String code, String message, Throwable throwable) {
+    if (trySettle()) {
+      delegate.reject(code, message, throwable);
+      listener.onSettled();
+    }
+  }
+
+  public void reject(Throwable throwable) {
+    if (trySettle()) {
+      delegate.reject(throwable);
+      listener.onSettled();
+    }
+  }
+
+  public void reject(Throwable throwable, WritableMap userInfo) {
+    if (trySettle()) {
+      delegate.reject(throwable, userInfo);
+      listener.onSettled();
+    }
+  }
+
+  public void reject(String code, @NonNull WritableMap userInfo) {
+    if (trySettle()) {
+      delegate.reject(code, userInfo);
+      listener.onSettled();
+    }
+  }
+
+  public void reject(String code, Throwable throwable, WritableMap userInfo) {
+    if (trySettle()) {
+      delegate.reject(code, throwable, userInfo);
+      listener.onSettled();
+    }
+  }
+
+  public void reject(String code, String message, @NonNull WritableMap userInfo) {
+    if (trySettle()) {
+      delegate.reject(code, message, userInfo);
+      listener.onSettled();
+    }
+  }
+
+  public void reject(String code, String message, Throwable throwable, WritableMap userInfo) {
+    if (trySettle()) {
+      delegate.reject(code, message, throwable, userInfo);
+      listener.onSettled();
+    }
+  }
+
+  @Deprecated
+  public void reject(String message) {
+    if (trySettle()) {
+      delegate.reject(message);
+      listener.onSettled();
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package com.gettipsi.stripe.util;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Coalesces identical concurrent requests: the first caller for a key starts the call, later callers for the same
+ * key just wait for its outcome. Successful results can optionally be reused for a short time after completion.
+ */
+public final class SingleFlight<V> {
+
+  public interface Callback<V> {
+    void onSuccess(V value);
+
+    void onError(Exception error);
+  }
+
+  public interface Call<V> {
+    void start(@NonNull Callback<V> callback);
+  }
+
+  private static final int MAX_REUSED_RESULTS = 16;
+
+  private final Map<String, List<Callback<V>>> inFlight = new HashMap<>();
+  private final LinkedHashMap<String, Reusable<V>> recent = new LinkedHashMap<String, Reusable<V>>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Reusable<V>> eldest) {
+      return size() > MAX_REUSED_RESULTS;
+    }
+  };
+  private volatile long reuseTtlMs;
+
+  /**
+   * @param reuseTtlMs how long a successful result is handed out to new callers; 0 disables reuse
+   */
+  public void setReuseTtlMs(long reuseTtlMs) {
+    ArgCheck.isTrue(reuseTtlMs >= 0);
+    this.reuseTtlMs = reuseTtlMs;
+    if (reuseTtlMs == 0) {
+      synchronized (this) {
+        recent.clear();
+      }
+    }
+  }
+
+  /**
+   * Forgets the reusable results, calls in flight are not affected.
+   */
+  public synchronized void clearReused() {
+    recent.clear();
+  }
+
+  public void execute(@NonNull final String key, @NonNull Callback<V> callback, @NonNull Call<V> call) {
+    V reused = null;
+    List<Callback<V>> started = null;
+    synchronized (this) {
+      Reusable<V> entry = recent.get(key);
+      if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+        reused = entry.value;
+      } else {
+        if (entry != null) {
+          recent.remove(key);
+        }
+        List<Callback<V>> waiters = inFlight.get(key);
+        if (waiters == null) {
+          waiters = new ArrayList<>(1);
+          inFlight.put(key, waiters);
+          started = waiters;
+        }
+        waiters.add(callback);
+      }
+    }
+
+    if (reused != null) {
+      callback.onSuccess(reused);
+      return;
+    }
+
+    if (started != null) {
+      final List<Callback<V>> flight = started;
+      try {
+        call.start(new Callback<V>() {
+          @Override
+          public void onSuccess(V value) {
+            long ttl = reuseTtlMs;
+            List<Callback<V>> waiters;
+            synchronized (SingleFlight.this) {
+              waiters = takeWaiters(key, flight);
+              if (waiters != null && ttl > 0 && value != null) {
+                recent.put(key, new Reusable<>(value, System.currentTimeMillis() + ttl));
+              }
+            }
+            if (waiters != null) {
+              for (Callback<V> waiter : waiters) {
+                waiter.onSuccess(value);
+              }
+            }
+          }
+
+          @Override
+          public void onError(Exception error) {
+            List<Callback<V>> waiters;
+            synchronized (SingleFlight.this) {
+              waiters = takeWaiters(key, flight);
+            }
+            if (waiters != null) {
+              for (Callback<V> waiter : waiters) {
+                waiter.onError(error);
+              }
+            }
+          }
+        });
+      } catch (RuntimeException e) {
+        List<Callback<V>> waiters;
+        synchronized (this) {
+          waiters = takeWaiters(key, flight);
+        }
+        if (waiters != null) {
+          for (Callback<V> waiter : waiters) {
+            waiter.onError(e);
+          }
+        }
+      }
+    }
+  }
+
+  // Null once this flight has completed: a call reporting twice, or throwing after it reported, must neither fail
+  // nor settle a newer flight for the same key
+  private List<Callback<V>> takeWaiters(String key, List<Callback<V>> flight) {
+    if (inFlight.get(key) != flight) {
+      return null;
+    }
+    return inFlight.remove(key);
+  }
+
+  private static final class Reusable<V> {
+    final V value;
+    final long expiresAt;
+
+    Reusable(V value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package com.gettipsi.stripe.util;
+
+import android.os.Build;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background executors shared by the module. Work scheduled here never runs on the UI thread,
+ * so blocking Stripe SDK calls (the *Synchronous variants) are allowed.
+ */
+public final class StripeExecutors {
+
+  private static volatile ScheduledExecutorService sScheduler;
+  private static volatile ExecutorService sBackground;
+
+  private StripeExecutors() {
+  }
+
+  public static ScheduledExecutorService scheduler() {
+    if (sScheduler == null) {
+      synchronized (StripeExecutors.class) {
+        if (sScheduler == null) {
+          ScheduledThreadPoolExecutor executor =
+            new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("tipsi-stripe-scheduler"));
+          if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            // Cancelled poll attempts would otherwise sit in the queue until their delay runs out
+            executor.setRemoveOnCancelPolicy(true);
+          }
+          sScheduler = executor;
+        }
+      }
+    }
+    return sScheduler;
+  }
+
+  /**
+   * Grows on demand and lets idle threads go after 30 seconds. Callers bound their own parallelism.
+   */
+  public static ExecutorService background() {
+    if (sBackground == null) {
+      synchronized (StripeExecutors.class) {
+        if (sBackground == null) {
+          sBackground = new ThreadPoolExecutor(
+            0, Integer.MAX_VALUE,
+            30, TimeUnit.SECONDS,
+            new SynchronousQueue<Runnable>(),
+            new NamedThreadFactory("tipsi-stripe-background"));
+        }
+      }
+    }
+    return sBackground;
+  }
+
+  static final class NamedThreadFactory implements ThreadFactory {
+
+    private final String prefix;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    NamedThreadFactory(String prefix) {
+      this.prefix = prefix;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package com.gettipsi.stripe.util;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bridge promise that records "operation.total" when it is first settled and "operation.resolve" for the hand-off
+ * to the bridge. While {@link Tracing} is on, the call also shows up as an async "StripeModule.operation" section
+ * from the bridge call to the settlement, whichever thread that happens on. Implements every Promise overload
+ * without @Override so it compiles against any React Native version.
+ */
+public final class TimedPromise implements Promise {
+
+  private final Promise delegate;
+  private final LatencyHistogram total;
+  private final LatencyHistogram resolve;
+  private final long startedAt = System.nanoTime();
+  private final AtomicBoolean settled = new AtomicBoolean();
+  @Nullable
+  private final String traceName;
+  private final int traceCookie;
+
+  private TimedPromise(@NonNull String operation, @NonNull Promise delegate) {
+    this.delegate = ArgCheck.nonNull(delegate);
+    this.total = Metrics.histogram(operation + ".total");
+    this.resolve = Metrics.histogram(operation + ".resolve");
+    this.traceName = Tracing.isEnabled() ? "StripeModule." + operation : null;
+    this.traceCookie = traceName != null ? Tracing.beginAsync(traceName) : 0;
+  }
+
+  @NonNull
+  public static Promise of(@NonNull String operation, @NonNull Promise promise) {
+    return new TimedPromise(operation, promise);
+  }
+
+  public void resolve(@Nullable Object value) {
+    long settledAt = settling();
+    delegate.resolve(value);
+    settled(settledAt);
+  }
+
+  public void reject(String code, String message) {
+    long settledAt = settling();
+    delegate.reject(code, message);
+    settled(settledAt);
+  }
+
+  public void reject(String code, Throwable throwable) {
+    long settledAt = settling();
+    delegate.reject(code, throwable);
+    settled(settledAt);
+  }
+
+  public void reject(String code, String message, Throwable throwable) {
+    long settledAt = settling();
+    delegate.reject(code, message, throwable);
+    settled(settledAt);
+  }
+
+  public void reject(Throwable throwable) {
+    long settledAt = settling();
+    delegate.reject(throwable);
+    settled(settledAt);
+  }
+
+  public void reject(Throwable throwable, WritableMap userInfo) {
+    long settledAt = settling();
+    delegate.reject(throwable, userInfo);
+    settled(settledAt);
+  }
+
+  public void reject(String code, @NonNull WritableMap userInfo) {
+    long settledAt = settling();
+    delegate.reject(code, userInfo);
+    settled(settledAt);
+  }
+
+  public void reject(String code, Throwable throwable, WritableMap userInfo) {
+    long settledAt = settling();
+    delegate.reject(code, throwable, userInfo);
+    settled(settledAt);
+  }
+
+  public void reject(String code, String message, @NonNull WritableMap userInfo) {
+    long settledAt = settling();
+    delegate.reject(code, message, userInfo);
+    settled(settledAt);
+  }
+
+  public void reject(String code, String message, Throwable throwable, WritableMap userInfo) {
+    long settledAt = settling();
+    delegate.reject(code, message, throwable, userInfo);
+    settled(settledAt);
+  }
+
+  @Deprecated
+  public void reject(String message) {
+    long settledAt = settling();
+    delegate.reject(message);
+    settled(settledAt);
+  }
+
+  // Only the first settlement counts, the bridge ignores later ones too
+  private long settling() {
+    return settled.compareAndSet(false, true) ? System.nanoTime() : 0;
+  }
+
+  private void settled(long settledAt) {
+    if (settledAt != 0) {
+      total.record(settledAt - startedAt);
+      resolve.record(System.nanoTime() - settledAt);
+      if (traceName != null) {
+        Tracing.endAsync(traceName, traceCookie);
+      }
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package com.gettipsi.stripe.util;
+
+import android.os.Build;
+import android.os.Trace;
+import android.support.annotation.NonNull;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * android.os.Trace sections for Perfetto and systrace, off by default and switched at runtime with
+ * {@link #setEnabled(boolean)}. While off every call returns after reading one volatile field, callers build
+ * dynamic section names only after checking {@link #isEnabled()}.
+ * <p>
+ * Sync sections must begin and end on the same thread. Async sections may end on any thread, they are matched by
+ * name and cookie: {@link #beginAsync(String)} hands out a fresh cookie, {@link #cookieOf(String)} derives one
+ * from an operation id so the end can be found without carrying the cookie around.
+ */
+public final class Tracing {
+
+  private static final int MAX_NAME_LENGTH = 127;
+  // Trace.TRACE_TAG_APP, the tag the public async API uses on API 29+
+  private static final long TRACE_TAG_APP = 1L << 12;
+
+  private static volatile boolean sEnabled;
+  private static final AtomicInteger sCookies = new AtomicInteger();
+
+  // Trace.beginAsyncSection/endAsyncSection on API 29+, the hidden asyncTraceBegin/asyncTraceEnd before
+  private static volatile Method sAsyncBegin;
+  private static volatile Method sAsyncEnd;
+  private static volatile boolean sAsyncTakesTag;
+  private static volatile boolean sAsyncResolved;
+
+  private Tracing() {
+  }
+
+  public static boolean isEnabled() {
+    return sEnabled;
+  }
+
+  public static void setEnabled(boolean enabled) {
+    sEnabled = enabled;
+  }
+
+  /**
+   * @return whether a section was started, to be handed to {@link #endSection(boolean)}
+   */
+  public static boolean beginSection(@NonNull String name) {
+    if (!sEnabled) {
+      return false;
+    }
+    Trace.beginSection(truncate(name));
+    return true;
+  }
+
+  /**
+   * Ends the innermost section of this thread if {@code started}, the result of the matching
+   * {@link #beginSection(String)}. Pair them in a finally block. Tracing being switched on or off in between
+   * cannot unbalance the thread's sections, as the flag is only read once.
+   */
+  public static void endSection(boolean started) {
+    if (started) {
+      Trace.endSection();
+    }
+  }
+
+  /**
+   * @return the cookie to end the section with, 0 when tracing is off and nothing was started
+   */
+  public static int beginAsync(@NonNull String name) {
+    if (!sEnabled) {
+      return 0;
+    }
+    int cookie = sCookies.incrementAndGet();
+    if (cookie == 0) {
+      cookie = sCookies.incrementAndGet();
+    }
+    beginAsync(name, cookie);
+    return cookie;
+  }
+
+  public static void beginAsync(@NonNull String name, int cookie) {
+    if (sEnabled) {
+      asyncSection(true, truncate(name), cookie);
+    }
+  }
+
+  /**
+   * Does nothing for cookie 0, i.e. sections that were never started.
+   */
+  public static void endAsync(@NonNull String name, int cookie) {
+    if (sEnabled && cookie != 0) {
+      asyncSection(false, truncate(name), cookie);
+    }
+  }
+
+  public static int cookieOf(@NonNull String operationId) {
+    int cookie = operationId.hashCode();
+    return cookie != 0 ? cookie : 1;
+  }
+
+  private static void asyncSection(boolean begin, String name, int cookie) {
+    if (!sAsyncResolved) {
+      resolveAsyncMethods();
+    }
+    Method method = begin ? sAsyncBegin : sAsyncEnd;
+    if (method == null) {
+      return;
+    }
+    try {
+      if (sAsyncTakesTag) {
+        method.invoke(null, TRACE_TAG_APP, name, cookie);
+      } else {
+        method.invoke(null, name, cookie);
+      }
+    } catch (Exception e) {
+      // Tracing is best effort, a platform without these methods just gets no async sections
+    }
+  }
+
+  // Looked up reflectively on every API level, the public methods are newer than the compile SDK
+  private static synchronized void resolveAsyncMethods() {
+    if (sAsyncResolved) {
+      return;
+    }
+    try {
+      if (Build.VERSION.SDK_INT >= 29) {
+        sAsyncBegin = Trace.class.getMethod("beginAsyncSection", String.class, int.class);
+        sAsyncEnd = Trace.class.getMethod("endAsyncSection", String.class, int.class);
+      } else {
+        sAsyncBegin = Trace.class.getMethod("asyncTraceBegin", long.class, String.class, int.class);
+        sAsyncEnd = Trace.class.getMethod("asyncTraceEnd", long.class, String.class, int.class);
+        sAsyncTakesTag = true;
+      }
+    } catch (Exception e) {
+      sAsyncBegin = null;
+      sAsyncEnd = null;
+    }
+    sAsyncResolved = true;
+  }
+
+  private static String truncate(String name) {
+    return name.length() <= MAX_NAME_LENGTH ? name : name.substring(0, MAX_NAME_LENGTH);
+  }
+}
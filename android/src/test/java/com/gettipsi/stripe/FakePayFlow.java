@@ -0,0 +1,68 @@
+package com.gettipsi.stripe;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReadableMap;
+import com.gettipsi.stripe.util.Fun0;
+import com.gettipsi.stripe.util.StripeExecutors;
+import com.stripe.android.model.Token;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.gettipsi.stripe.util.Converters.convertTokenToWritableMap;
+
+/**
+ * Stands in for Google Pay: after {@code latencyMs}, standing for the user in the payment sheet, every request is
+ * answered on the main thread with a token, like the activity result of the real flow.
+ */
+class FakePayFlow extends PayFlow {
+
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private final AtomicLong ids = new AtomicLong();
+  private final long latencyMs;
+
+  FakePayFlow(long latencyMs) {
+    super(new Fun0<Activity>() {
+      public Activity call() {
+        return null;
+      }
+    });
+    this.latencyMs = latencyMs;
+  }
+
+  @Override
+  void paymentRequestWithAndroidPay(ReadableMap payParams, final Promise promise) {
+    final String tokenId = "tok_pay" + ids.incrementAndGet();
+    StripeExecutors.scheduler().schedule(new Runnable() {
+      @Override
+      public void run() {
+        mainHandler.post(new Runnable() {
+          @Override
+          public void run() {
+            promise.resolve(convertTokenToWritableMap(Token.fromString(MockStripeApi.token(tokenId))));
+          }
+        });
+      }
+    }, latencyMs, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  void preparePaymentRequest(ReadableMap payParams, Promise promise) {
+    promise.resolve("gpay_request_fake" + ids.incrementAndGet());
+  }
+
+  @Override
+  void deviceSupportsAndroidPay(boolean isExistingPaymentMethodRequired, Promise promise) {
+    promise.resolve(true);
+  }
+
+  @Override
+  boolean onActivityResult(Activity activity, int requestCode, int resultCode, Intent data) {
+    return false;
+  }
+}
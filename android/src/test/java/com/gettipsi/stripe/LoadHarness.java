@@ -0,0 +1,170 @@
+package com.gettipsi.stripe;
+
+import android.os.Looper;
+
+import com.facebook.react.bridge.Promise;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Replays one bridge call many times with at most {@code concurrency} promises outstanding, the way JS would fire
+ * them: calls are dispatched one after the other on a single bridge thread, like React Native's native modules
+ * thread, while the test thread keeps the main looper running so SDK callbacks are delivered.
+ * Latency is measured from the dispatch of a call on the bridge thread to the settlement of its promise.
+ */
+final class LoadHarness {
+
+  interface Call {
+    /**
+     * Invokes the bridge method for call {@code index}, on the bridge thread.
+     */
+    void invoke(int index, Promise promise) throws Exception;
+  }
+
+  private LoadHarness() {
+  }
+
+  static Report run(String name, int calls, int concurrency, long timeoutMs, final Call call) throws Exception {
+    final Semaphore inFlight = new Semaphore(concurrency);
+    final RecordingPromise[] promises = new RecordingPromise[calls];
+    RecordingPromise.Listener release = new RecordingPromise.Listener() {
+      @Override
+      public void onSettled(RecordingPromise promise) {
+        inFlight.release();
+      }
+    };
+    for (int i = 0; i < calls; i++) {
+      promises[i] = new RecordingPromise(release);
+    }
+
+    ExecutorService bridge = Executors.newSingleThreadExecutor();
+    long startedAt = System.nanoTime();
+    long deadline = startedAt + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    try {
+      for (int i = 0; i < calls; i++) {
+        final int index = i;
+        bridge.execute(new Runnable() {
+          @Override
+          public void run() {
+            RecordingPromise promise = promises[index];
+            try {
+              inFlight.acquire();
+              promise.startedAtNanos = System.nanoTime();
+              call.invoke(index, promise);
+            } catch (Exception e) {
+              promise.reject(e);
+            }
+          }
+        });
+      }
+
+      while (System.nanoTime() < deadline && !allSettled(promises)) {
+        shadowOf(Looper.getMainLooper()).idle();
+        Thread.sleep(1);
+      }
+      // Taken before the bridge thread is interrupted, calls it never dispatched count as unresolved
+      return new Report(name, concurrency, System.nanoTime() - startedAt, promises);
+    } finally {
+      bridge.shutdownNow();
+    }
+  }
+
+  private static boolean allSettled(RecordingPromise[] promises) {
+    for (RecordingPromise promise : promises) {
+      if (!promise.isSettled()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static final class Report {
+    final String name;
+    final int calls;
+    final int concurrency;
+    final long wallNanos;
+    final int resolved;
+    final int rejected;
+    final int unresolved;
+    final int settledMoreThanOnce;
+    final long[] latenciesNanos;
+    final Map<String, Integer> errorCodes = new TreeMap<>();
+
+    Report(String name, int concurrency, long wallNanos, RecordingPromise[] promises) {
+      this.name = name;
+      this.calls = promises.length;
+      this.concurrency = concurrency;
+      this.wallNanos = wallNanos;
+
+      int resolved = 0;
+      int rejected = 0;
+      int unresolved = 0;
+      int settledMoreThanOnce = 0;
+      List<Long> latencies = new ArrayList<>();
+      for (RecordingPromise promise : promises) {
+        if (!promise.isSettled()) {
+          unresolved++;
+          continue;
+        }
+        if (promise.settleCount.get() > 1) {
+          settledMoreThanOnce++;
+        }
+        if (promise.resolved) {
+          resolved++;
+        } else {
+          rejected++;
+          String errorCode = String.valueOf(promise.errorCode);
+          Integer count = errorCodes.get(errorCode);
+          errorCodes.put(errorCode, count == null ? 1 : count + 1);
+        }
+        latencies.add(promise.latencyNanos());
+      }
+
+      this.resolved = resolved;
+      this.rejected = rejected;
+      this.unresolved = unresolved;
+      this.settledMoreThanOnce = settledMoreThanOnce;
+      this.latenciesNanos = new long[latencies.size()];
+      for (int i = 0; i < latencies.size(); i++) {
+        latenciesNanos[i] = latencies.get(i);
+      }
+      Arrays.sort(latenciesNanos);
+    }
+
+    double percentileMs(double percentile) {
+      if (latenciesNanos.length == 0) {
+        return Double.NaN;
+      }
+      int index = (int) Math.ceil(percentile / 100 * latenciesNanos.length) - 1;
+      return latenciesNanos[Math.max(0, index)] / 1e6;
+    }
+
+    double throughputPerSecond() {
+      return (resolved + rejected) / (wallNanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.US,
+        "%s: %d calls, concurrency %d, %.0f ms wall%n"
+          + "  throughput %.1f/s%n"
+          + "  latency p50 %.1f ms, p95 %.1f ms, p99 %.1f ms, max %.1f ms%n"
+          + "  resolved %d, rejected %d %s, unresolved %d, settled more than once %d",
+        name, calls, concurrency, wallNanos / 1e6,
+        throughputPerSecond(),
+        percentileMs(50), percentileMs(95), percentileMs(99), percentileMs(100),
+        resolved, rejected, errorCodes, unresolved, settledMoreThanOnce);
+    }
+  }
+}
@@ -0,0 +1,350 @@
+package com.gettipsi.stripe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ProtocolException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.net.URLStreamHandlerFactory;
+import java.security.cert.Certificate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.HttpsURLConnection;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * A local stand-in for api.stripe.com. The SDK has no base url setting, so every https request made in this JVM
+ * is rerouted to the mock server while one is running, and goes out as usual otherwise.
+ * <p>
+ * The stream handler factory can only be set once per JVM, while Robolectric loads this class again in every
+ * sandbox. The running server is therefore published through a system property, which the handler installed by
+ * whichever copy of this class came first reads, not through a static field.
+ * <p>
+ * Created PaymentMethods, tokens and sources get unique ids, a source stays pending for {@code pendingPolls}
+ * retrievals and is chargeable after that. Anything else (analytics, fingerprinting) gets an empty object.
+ */
+final class MockStripeApi extends Dispatcher {
+
+  private static final String TARGET_PROPERTY = "tipsi.stripe.mockApiUrl";
+  private static final String INSTALLED_PROPERTY = "tipsi.stripe.mockApiInstalled";
+
+  private final MockWebServer server = new MockWebServer();
+  private final AtomicLong ids = new AtomicLong();
+  private final Map<String, AtomicInteger> sourceRetrievals = new ConcurrentHashMap<>();
+  private final AtomicInteger requests = new AtomicInteger();
+  private final int pendingPolls;
+  private final long latencyMs;
+
+  MockStripeApi(int pendingPolls, long latencyMs) {
+    this.pendingPolls = pendingPolls;
+    this.latencyMs = latencyMs;
+    server.setDispatcher(this);
+  }
+
+  void start() throws IOException {
+    server.start();
+    installHandler();
+    System.setProperty(TARGET_PROPERTY, server.url("/").toString());
+  }
+
+  void stop() throws IOException {
+    System.clearProperty(TARGET_PROPERTY);
+    server.shutdown();
+  }
+
+  int requestCount() {
+    return requests.get();
+  }
+
+  @Override
+  public MockResponse dispatch(RecordedRequest request) {
+    requests.incrementAndGet();
+    String path = request.getPath();
+    int query = path.indexOf('?');
+    if (query >= 0) {
+      path = path.substring(0, query);
+    }
+
+    String body;
+    if ("POST".equals(request.getMethod()) && "/v1/payment_methods".equals(path)) {
+      body = paymentMethod("pm_load" + ids.incrementAndGet());
+    } else if ("POST".equals(request.getMethod()) && "/v1/tokens".equals(path)) {
+      body = token("tok_load" + ids.incrementAndGet());
+    } else if ("POST".equals(request.getMethod()) && "/v1/sources".equals(path)) {
+      body = source("src_load" + ids.incrementAndGet(), "pending");
+    } else if ("GET".equals(request.getMethod()) && path.startsWith("/v1/sources/")) {
+      String sourceId = path.substring("/v1/sources/".length());
+      AtomicInteger retrievals = sourceRetrievals.get(sourceId);
+      if (retrievals == null) {
+        AtomicInteger created = new AtomicInteger();
+        retrievals = sourceRetrievals.putIfAbsent(sourceId, created);
+        if (retrievals == null) {
+          retrievals = created;
+        }
+      }
+      body = source(sourceId, retrievals.incrementAndGet() > pendingPolls ? "chargeable" : "pending");
+    } else {
+      body = "{}";
+    }
+
+    return new MockResponse()
+      .setResponseCode(200)
+      .setHeader("Content-Type", "application/json")
+      .setHeader("Request-Id", "req_load" + ids.incrementAndGet())
+      .setBodyDelay(latencyMs, TimeUnit.MILLISECONDS)
+      .setBody(body);
+  }
+
+  static String clientSecretOf(String sourceId) {
+    return sourceId + "_secret_load";
+  }
+
+  private static String paymentMethod(String id) {
+    return String.format(Locale.US,
+      "{\"id\":\"%s\",\"object\":\"payment_method\",\"created\":1574000000,\"livemode\":false,\"type\":\"card\","
+        + "\"billing_details\":{\"address\":{\"city\":null,\"country\":null,\"line1\":null,\"line2\":null,"
+        + "\"postal_code\":null,\"state\":null},\"email\":null,\"name\":null,\"phone\":null},"
+        + "\"card\":{\"brand\":\"visa\",\"checks\":{\"address_line1_check\":null,\"address_postal_code_check\":null,"
+        + "\"cvc_check\":\"unchecked\"},\"country\":\"US\",\"exp_month\":8,\"exp_year\":2030,\"funding\":\"credit\","
+        + "\"last4\":\"4242\",\"three_d_secure_usage\":{\"supported\":true}},\"customer\":null,\"metadata\":{}}",
+      id);
+  }
+
+  static String token(String id) {
+    return String.format(Locale.US,
+      "{\"id\":\"%s\",\"object\":\"token\",\"created\":1574000000,\"livemode\":false,\"type\":\"card\",\"used\":false,"
+        + "\"card\":{\"id\":\"card_%s\",\"object\":\"card\",\"brand\":\"Visa\",\"country\":\"US\",\"exp_month\":8,"
+        + "\"exp_year\":2030,\"funding\":\"credit\",\"last4\":\"4242\"}}",
+      id, id);
+  }
+
+  private static String source(String id, String status) {
+    return String.format(Locale.US,
+      "{\"id\":\"%s\",\"object\":\"source\",\"amount\":1099,\"client_secret\":\"%s\",\"created\":1574000000,"
+        + "\"currency\":\"eur\",\"flow\":\"redirect\",\"livemode\":false,\"metadata\":{},"
+        + "\"owner\":{\"name\":\"Jenny Rosen\"},"
+        + "\"redirect\":{\"return_url\":\"example://stripe-redirect\",\"status\":\"pending\","
+        + "\"url\":\"https://hooks.stripe.com/redirect/authenticate/%s\"},"
+        + "\"status\":\"%s\",\"type\":\"ideal\",\"usage\":\"single_use\",\"ideal\":{\"bank\":\"ing\"}}",
+      id, clientSecretOf(id), id, status);
+  }
+
+  private static void installHandler() throws IOException {
+    synchronized (System.class) {
+      if (Boolean.getBoolean(INSTALLED_PROPERTY)) {
+        return;
+      }
+      // Made before the factory is set, so it keeps the JDK's own https handler
+      final URL direct = new URL("https://api.stripe.com/");
+      try {
+        URL.setURLStreamHandlerFactory(new URLStreamHandlerFactory() {
+          @Override
+          public URLStreamHandler createURLStreamHandler(String protocol) {
+            return "https".equals(protocol) ? new ReroutingHandler(direct) : null;
+          }
+        });
+      } catch (Error e) {
+        throw new IllegalStateException("Another URLStreamHandlerFactory is already set in this JVM, "
+          + "https requests cannot be rerouted to the mock Stripe API", e);
+      }
+      System.setProperty(INSTALLED_PROPERTY, "true");
+    }
+  }
+
+  private static final class ReroutingHandler extends URLStreamHandler {
+
+    private final URL direct;
+
+    ReroutingHandler(URL direct) {
+      this.direct = direct;
+    }
+
+    @Override
+    protected URLConnection openConnection(URL url) throws IOException {
+      String target = System.getProperty(TARGET_PROPERTY);
+      if (target == null) {
+        // Resolved against a URL of the JDK's handler, so it opens a real https connection
+        return new URL(direct, url.toExternalForm()).openConnection();
+      }
+      URL targetUrl = new URL(target);
+      URL rerouted = new URL("http", targetUrl.getHost(), targetUrl.getPort(), url.getFile());
+      return new PlainHttpsConnection(url, (HttpURLConnection) rerouted.openConnection());
+    }
+  }
+
+  /**
+   * Presents the plain http connection to the mock server as the https one the SDK asked for.
+   */
+  private static final class PlainHttpsConnection extends HttpsURLConnection {
+
+    private final HttpURLConnection delegate;
+
+    PlainHttpsConnection(URL url, HttpURLConnection delegate) {
+      super(url);
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void connect() throws IOException {
+      delegate.connect();
+    }
+
+    @Override
+    public void disconnect() {
+      delegate.disconnect();
+    }
+
+    @Override
+    public boolean usingProxy() {
+      return false;
+    }
+
+    @Override
+    public void setRequestMethod(String method) throws ProtocolException {
+      delegate.setRequestMethod(method);
+    }
+
+    @Override
+    public String getRequestMethod() {
+      return delegate.getRequestMethod();
+    }
+
+    @Override
+    public void setRequestProperty(String key, String value) {
+      delegate.setRequestProperty(key, value);
+    }
+
+    @Override
+    public void addRequestProperty(String key, String value) {
+      delegate.addRequestProperty(key, value);
+    }
+
+    @Override
+    public String getRequestProperty(String key) {
+      return delegate.getRequestProperty(key);
+    }
+
+    @Override
+    public Map<String, List<String>> getRequestProperties() {
+      return delegate.getRequestProperties();
+    }
+
+    @Override
+    public void setDoOutput(boolean doOutput) {
+      delegate.setDoOutput(doOutput);
+    }
+
+    @Override
+    public boolean getDoOutput() {
+      return delegate.getDoOutput();
+    }
+
+    @Override
+    public void setDoInput(boolean doInput) {
+      delegate.setDoInput(doInput);
+    }
+
+    @Override
+    public boolean getDoInput() {
+      return delegate.getDoInput();
+    }
+
+    @Override
+    public void setUseCaches(boolean useCaches) {
+      delegate.setUseCaches(useCaches);
+    }
+
+    @Override
+    public void setConnectTimeout(int timeout) {
+      delegate.setConnectTimeout(timeout);
+    }
+
+    @Override
+    public void setReadTimeout(int timeout) {
+      delegate.setReadTimeout(timeout);
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+      return delegate.getOutputStream();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+      return delegate.getInputStream();
+    }
+
+    @Override
+    public InputStream getErrorStream() {
+      return delegate.getErrorStream();
+    }
+
+    @Override
+    public int getResponseCode() throws IOException {
+      return delegate.getResponseCode();
+    }
+
+    @Override
+    public String getResponseMessage() throws IOException {
+      return delegate.getResponseMessage();
+    }
+
+    @Override
+    public String getHeaderField(String name) {
+      return delegate.getHeaderField(name);
+    }
+
+    @Override
+    public String getHeaderField(int n) {
+      return delegate.getHeaderField(n);
+    }
+
+    @Override
+    public String getHeaderFieldKey(int n) {
+      return delegate.getHeaderFieldKey(n);
+    }
+
+    @Override
+    public Map<String, List<String>> getHeaderFields() {
+      return delegate.getHeaderFields();
+    }
+
+    @Override
+    public String getContentType() {
+      return delegate.getContentType();
+    }
+
+    @Override
+    public int getContentLength() {
+      return delegate.getContentLength();
+    }
+
+    @Override
+    public String getCipherSuite() {
+      return "TLS_NULL_WITH_NULL_NULL";
+    }
+
+    @Override
+    public Certificate[] getLocalCertificates() {
+      return null;
+    }
+
+    @Override
+    public Certificate[] getServerCertificates() {
+      return new Certificate[0];
+    }
+  }
+}
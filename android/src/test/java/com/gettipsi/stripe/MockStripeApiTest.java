@@ -0,0 +1,99 @@
+package com.gettipsi.stripe;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The https rerouting {@link StripeModuleLoadTest} depends on, checked on the plain JVM without the SDK.
+ */
+public class MockStripeApiTest {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private MockStripeApi api;
+
+  @Before
+  public void setUp() throws Exception {
+    api = new MockStripeApi(1, 0);
+    api.start();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    if (api != null) {
+      api.stop();
+    }
+  }
+
+  @Test
+  public void reroutesStripeRequestsToTheMockServer() throws Exception {
+    HttpURLConnection connection = open("https://api.stripe.com/v1/tokens");
+    connection.setRequestMethod("POST");
+    connection.setDoOutput(true);
+    OutputStream body = connection.getOutputStream();
+    body.write("card[number]=4242424242424242".getBytes(UTF_8));
+    body.close();
+
+    assertEquals(200, connection.getResponseCode());
+    assertTrue(read(connection).contains("\"object\":\"token\""));
+    assertEquals(1, api.requestCount());
+  }
+
+  @Test
+  public void sourcesTurnChargeableAfterThePendingPolls() throws Exception {
+    assertTrue(read(open("https://api.stripe.com/v1/sources/src_test")).contains("\"status\":\"pending\""));
+    assertTrue(read(open("https://api.stripe.com/v1/sources/src_test")).contains("\"status\":\"chargeable\""));
+  }
+
+  @Test
+  public void laterServersInTheSameJvmAreReachable() throws Exception {
+    api.stop();
+    api = new MockStripeApi(1, 0);
+    api.start();
+
+    assertEquals(200, open("https://api.stripe.com/v1/payment_methods").getResponseCode());
+    assertEquals(1, api.requestCount());
+  }
+
+  @Test
+  public void requestsGoOutAsUsualWithoutARunningServer() throws Exception {
+    api.stop();
+    api = null;
+
+    // Only opened, never connected
+    HttpURLConnection connection = open("https://api.stripe.com/v1/tokens");
+    assertNotSame(MockStripeApi.class, connection.getClass().getEnclosingClass());
+  }
+
+  private static HttpURLConnection open(String url) throws IOException {
+    return (HttpURLConnection) new URL(url).openConnection();
+  }
+
+  private static String read(HttpURLConnection connection) throws IOException {
+    InputStream in = connection.getInputStream();
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[1024];
+      int count;
+      while ((count = in.read(buffer)) != -1) {
+        out.write(buffer, 0, count);
+      }
+      return new String(out.toByteArray(), UTF_8);
+    } finally {
+      in.close();
+    }
+  }
+}
@@ -0,0 +1,224 @@
+package com.gettipsi.stripe;
+
+import android.support.annotation.NonNull;
+
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.Promise;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link PayRequestScheduler} in front of a pay flow that tracks its sheet with {@link PendingPayment} the way
+ * {@link GoogleApiPayFlowImpl} does, checked on the plain JVM. Every promise must settle exactly once and no
+ * launched sheet may be lost.
+ */
+public class PayRequestSchedulerTest {
+
+  private ScheduledExecutorService executor;
+  private PayRequestScheduler scheduler;
+  private FakeSheet sheet;
+
+  @Before
+  public void setUp() {
+    executor = new ScheduledThreadPoolExecutor(1);
+    scheduler = new PayRequestScheduler(executor);
+    scheduler.setErrorCodes(JavaOnlyMap.of(
+      "busy", errorCode("busy"),
+      "timeout", errorCode("timeout"),
+      Errors.CANCELLED, errorCode(Errors.CANCELLED)
+    ));
+    sheet = new FakeSheet();
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void queuedRequestGetsItsSheetOnceTheRunningOneCloses() throws Exception {
+    scheduler.setOptions(new PayRequestScheduler.Options(PayRequestScheduler.Policy.QUEUE, 0, 4));
+    RecordingPromise first = submit();
+    RecordingPromise second = submit();
+    assertEquals(1, sheet.launched.size());
+
+    // Settling the first one launches the second before close() returns
+    sheet.close(false);
+    assertRejected(first, "purchaseCancelled");
+    assertEquals(2, sheet.launched.size());
+    assertTrue(sheet.pending.isPending());
+
+    sheet.close(true);
+    assertResolved(second);
+    assertFalse(sheet.pending.isPending());
+  }
+
+  @Test
+  public void queueTurnsAwayRequestsBeyondItsLimit() throws Exception {
+    scheduler.setOptions(new PayRequestScheduler.Options(PayRequestScheduler.Policy.QUEUE, 0, 1));
+    RecordingPromise running = submit();
+    RecordingPromise queued = submit();
+    RecordingPromise turnedAway = submit();
+
+    assertRejected(turnedAway, "busy");
+    sheet.close(true);
+    sheet.close(true);
+    assertResolved(running);
+    assertResolved(queued);
+  }
+
+  @Test
+  public void rejectNewKeepsTheRunningRequest() throws Exception {
+    scheduler.setOptions(new PayRequestScheduler.Options(PayRequestScheduler.Policy.REJECT_NEW, 0, 4));
+    RecordingPromise running = submit();
+    RecordingPromise turnedAway = submit();
+
+    assertRejected(turnedAway, "busy");
+    assertEquals(1, sheet.launched.size());
+    sheet.close(true);
+    assertResolved(running);
+
+    RecordingPromise next = submit();
+    sheet.close(true);
+    assertResolved(next);
+  }
+
+  @Test
+  public void cancelPreviousReplacesTheRunningRequest() throws Exception {
+    scheduler.setOptions(new PayRequestScheduler.Options(PayRequestScheduler.Policy.CANCEL_PREVIOUS, 0, 4));
+    RecordingPromise replaced = submit();
+    RecordingPromise replacing = submit();
+
+    assertRejected(replaced, Errors.CANCELLED);
+    assertEquals(2, sheet.launched.size());
+    sheet.close(true);
+    assertResolved(replacing);
+    assertEquals(1, replaced.settleCount.get());
+  }
+
+  @Test
+  public void lostResultTimesOutAndFreesTheSlot() throws Exception {
+    scheduler.setOptions(new PayRequestScheduler.Options(PayRequestScheduler.Policy.REJECT_NEW, 50, 4));
+    LatchedPromise lost = submit();
+    assertTrue(lost.settledLatch.await(5, TimeUnit.SECONDS));
+    awaitScheduler();
+    assertRejected(lost, "timeout");
+
+    scheduler.setOptions(new PayRequestScheduler.Options(PayRequestScheduler.Policy.REJECT_NEW, 0, 4));
+    RecordingPromise next = submit();
+    assertEquals(2, sheet.launched.size());
+    sheet.close(true);
+    assertResolved(next);
+    assertEquals(1, lost.settleCount.get());
+  }
+
+  @Test
+  public void timedOutQueuedRequestIsNeverLaunched() throws Exception {
+    scheduler.setOptions(new PayRequestScheduler.Options(PayRequestScheduler.Policy.QUEUE, 200, 4));
+    LatchedPromise running = submit();
+    scheduler.setOptions(new PayRequestScheduler.Options(PayRequestScheduler.Policy.QUEUE, 50, 4));
+    LatchedPromise queued = submit();
+    assertTrue(queued.settledLatch.await(5, TimeUnit.SECONDS));
+    assertFalse(running.isSettled());
+    assertTrue(running.settledLatch.await(5, TimeUnit.SECONDS));
+    awaitScheduler();
+
+    assertRejected(running, "timeout");
+    assertRejected(queued, "timeout");
+    assertEquals(1, sheet.launched.size());
+  }
+
+  private LatchedPromise submit() {
+    LatchedPromise promise = new LatchedPromise();
+    scheduler.submit(promise, sheet);
+    return promise;
+  }
+
+  // The slot is freed right after the promise settles, on the deadline's thread
+  private void awaitScheduler() throws Exception {
+    executor.submit(new Runnable() {
+      @Override
+      public void run() {
+      }
+    }).get(5, TimeUnit.SECONDS);
+  }
+
+  private static void assertResolved(RecordingPromise promise) {
+    assertTrue(promise.isSettled());
+    assertTrue(promise.resolved);
+    assertEquals(1, promise.settleCount.get());
+  }
+
+  private static void assertRejected(RecordingPromise promise, String errorCode) {
+    assertTrue(promise.isSettled());
+    assertFalse(promise.resolved);
+    assertEquals(errorCode, promise.errorCode);
+    assertEquals(1, promise.settleCount.get());
+  }
+
+  private static JavaOnlyMap errorCode(String code) {
+    return JavaOnlyMap.of("errorCode", code, "description", code);
+  }
+
+  private static final class LatchedPromise extends RecordingPromise {
+
+    final CountDownLatch settledLatch;
+
+    LatchedPromise() {
+      this(new CountDownLatch(1));
+    }
+
+    private LatchedPromise(final CountDownLatch settledLatch) {
+      super(new Listener() {
+        @Override
+        public void onSettled(RecordingPromise promise) {
+          settledLatch.countDown();
+        }
+      });
+      this.settledLatch = settledLatch;
+    }
+  }
+
+  /**
+   * Opens a sheet per launched request and, like GoogleApiPayFlowImpl.onActivityResult, takes the pending request
+   * before settling it when the sheet closes.
+   */
+  private static final class FakeSheet implements PayRequestScheduler.Launcher {
+
+    final PendingPayment pending = new PendingPayment();
+    final List<Promise> launched = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void launch(@NonNull Promise promise) {
+      launched.add(promise);
+      PendingPayment.Request replaced = pending.start(promise);
+      if (replaced != null && replaced.promise != promise) {
+        replaced.promise.reject(Errors.CANCELLED, "Replaced by a newer Google Pay request");
+      }
+    }
+
+    void close(boolean paid) {
+      PendingPayment.Request request = pending.take();
+      assertNotNull("no sheet is showing", request);
+      if (paid) {
+        request.promise.resolve("tok_pay");
+      } else {
+        request.promise.reject("purchaseCancelled", "Purchase was cancelled");
+      }
+    }
+  }
+}
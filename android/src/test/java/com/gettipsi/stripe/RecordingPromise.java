@@ -0,0 +1,101 @@
+package com.gettipsi.stripe;
+
+import android.support.annotation.Nullable;
+
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records when and how a bridge promise settled. Implements every Promise overload without @Override so it
+ * compiles against any React Native version.
+ */
+class RecordingPromise implements Promise {
+
+  interface Listener {
+    void onSettled(RecordingPromise promise);
+  }
+
+  private final AtomicBoolean settled = new AtomicBoolean();
+  private final Listener listener;
+
+  volatile long startedAtNanos;
+  volatile long settledAtNanos;
+  volatile boolean resolved;
+  @Nullable
+  volatile Object value;
+  final AtomicInteger settleCount = new AtomicInteger();
+  @Nullable
+  volatile String errorCode;
+
+  RecordingPromise(Listener listener) {
+    this.listener = listener;
+  }
+
+  boolean isSettled() {
+    return settled.get();
+  }
+
+  long latencyNanos() {
+    return settledAtNanos - startedAtNanos;
+  }
+
+  public void resolve(@Nullable Object value) {
+    this.value = value;
+    settle(true, null);
+  }
+
+  public void reject(String code, String message) {
+    settle(false, code);
+  }
+
+  public void reject(String code, Throwable throwable) {
+    settle(false, code);
+  }
+
+  public void reject(String code, String message, Throwable throwable) {
+    settle(false, code);
+  }
+
+  public void reject(Throwable throwable) {
+    settle(false, throwable.getClass().getSimpleName());
+  }
+
+  public void reject(Throwable throwable, WritableMap userInfo) {
+    settle(false, throwable.getClass().getSimpleName());
+  }
+
+  public void reject(String code, WritableMap userInfo) {
+    settle(false, code);
+  }
+
+  public void reject(String code, Throwable throwable, WritableMap userInfo) {
+    settle(false, code);
+  }
+
+  public void reject(String code, String message, WritableMap userInfo) {
+    settle(false, code);
+  }
+
+  public void reject(String code, String message, Throwable throwable, WritableMap userInfo) {
+    settle(false, code);
+  }
+
+  public void reject(String message) {
+    settle(false, message);
+  }
+
+  private void settle(boolean resolved, @Nullable String errorCode) {
+    long now = System.nanoTime();
+    settleCount.incrementAndGet();
+    // A promise settled twice is a bug in the module, the first outcome is the one JS saw
+    if (settled.compareAndSet(false, true)) {
+      this.settledAtNanos = now;
+      this.resolved = resolved;
+      this.errorCode = errorCode;
+      listener.onSettled(this);
+    }
+  }
+}
@@ -0,0 +1,175 @@
+package com.gettipsi.stripe;
+
+import android.app.Activity;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.robolectric.annotation.LooperMode.Mode.PAUSED;
+
+/**
+ * Drives StripeModule through its bridge methods against {@link MockStripeApi} and {@link FakePayFlow}.
+ * Excluded from the regular unit tests, run it with
+ * <pre>
+ *   ./gradlew testDebugUnitTest -PloadTest -PloadTest.calls=500 -PloadTest.concurrency=500 -PloadTest.sources=200
+ * </pre>
+ * Every flow prints its report, and fails when a promise was never settled or settled more than once.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, shadows = ShadowArguments.class, instrumentedPackages = "com.facebook.react.bridge")
+@LooperMode(PAUSED)
+public class StripeModuleLoadTest {
+
+  private static final int CALLS = Integer.getInteger("loadTest.calls", 500);
+  private static final int CONCURRENCY = Integer.getInteger("loadTest.concurrency", 500);
+  private static final int SOURCES = Integer.getInteger("loadTest.sources", 200);
+  private static final int PENDING_POLLS = Integer.getInteger("loadTest.pendingPolls", 2);
+  private static final long SERVER_LATENCY_MS = Long.getLong("loadTest.serverLatencyMs", 50);
+  private static final long PAY_FLOW_LATENCY_MS = Long.getLong("loadTest.payFlowLatencyMs", 200);
+  private static final long TIMEOUT_MS = Long.getLong("loadTest.timeoutMs", 120000);
+
+  private static final Pattern ERROR_CODE = Pattern.compile("(\\w+):\\s*\\{\\s*errorCode:\\s*'(\\w+)'");
+
+  private MockStripeApi api;
+  private ReactApplicationContext reactContext;
+  private StripeModule module;
+
+  @Before
+  public void setUp() throws Exception {
+    api = new MockStripeApi(PENDING_POLLS, SERVER_LATENCY_MS);
+    api.start();
+
+    reactContext = new ReactApplicationContext(RuntimeEnvironment.application);
+    module = new StripeModule(reactContext);
+    module.setPayFlow(new FakePayFlow(PAY_FLOW_LATENCY_MS));
+    module.init(JavaOnlyMap.of(
+      "publishableKey", "pk_test_loadtest",
+      "androidPayMode", "test",
+      "maxPendingOperations", Math.max(CALLS, SOURCES),
+      "sourcePolling", JavaOnlyMap.of(
+        "initialDelayMs", 20,
+        "maxDelayMs", 200,
+        "maxAttempts", PENDING_POLLS + 3
+      )
+    ), errorCodes());
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    api.stop();
+  }
+
+  @Test
+  public void createPaymentMethod() throws Exception {
+    LoadHarness.Report report = LoadHarness.run("createPaymentMethod", CALLS, CONCURRENCY, TIMEOUT_MS,
+      new LoadHarness.Call() {
+        @Override
+        public void invoke(int index, Promise promise) {
+          // Distinct metadata, identical params would share one request
+          module.createPaymentMethod(JavaOnlyMap.of(
+            "card", JavaOnlyMap.of("number", "4242424242424242", "expMonth", 8, "expYear", 2030, "cvc", "123"),
+            "metadata", JavaOnlyMap.of("loadTestCall", String.valueOf(index))
+          ), promise);
+        }
+      });
+
+    assertSettledOnce(report);
+  }
+
+  @Test
+  public void sourceRedirectPolling() throws Exception {
+    final Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+    reactContext.onHostResume(activity);
+    final Handler main = new Handler(Looper.getMainLooper());
+
+    LoadHarness.Report report = LoadHarness.run("sourceRedirectPolling", SOURCES, SOURCES, TIMEOUT_MS,
+      new LoadHarness.Call() {
+        @Override
+        public void invoke(int index, final Promise promise) {
+          // Creates the source, opens its redirect, then comes back from the bank page right away:
+          // the promise settles once polling sees the source chargeable
+          module.createSourceWithParams(JavaOnlyMap.of(
+            "type", "ideal",
+            "amount", 1099,
+            "name", "Jenny Rosen",
+            "returnURL", "example://stripe-redirect",
+            "bank", "ing"
+          ), new RecordingPromise(new RecordingPromise.Listener() {
+            @Override
+            public void onSettled(RecordingPromise created) {
+              if (!created.resolved) {
+                promise.reject(created.errorCode, "createSourceWithParams failed");
+                return;
+              }
+              final String sourceId = ((ReadableMap) created.value).getString("sourceId");
+              module.openGateWaySource(sourceId, promise);
+              main.post(new Runnable() {
+                @Override
+                public void run() {
+                  module.processRedirect(sourceId, Uri.parse("example://stripe-redirect?source=" + sourceId
+                    + "&client_secret=" + MockStripeApi.clientSecretOf(sourceId)));
+                }
+              });
+            }
+          }));
+        }
+      });
+
+    assertSettledOnce(report);
+  }
+
+  @Test
+  public void paymentRequestWithAndroidPay() throws Exception {
+    LoadHarness.Report report = LoadHarness.run("paymentRequestWithAndroidPay", CALLS, CONCURRENCY, TIMEOUT_MS,
+      new LoadHarness.Call() {
+        @Override
+        public void invoke(int index, Promise promise) {
+          module.paymentRequestWithAndroidPay(JavaOnlyMap.of("total_price", "10.99", "currency_code", "USD"), promise);
+        }
+      });
+
+    assertSettledOnce(report);
+  }
+
+  private void assertSettledOnce(LoadHarness.Report report) {
+    System.out.println(report);
+    System.out.println("  mock api requests " + api.requestCount());
+    assertEquals("unresolved promises", 0, report.unresolved);
+    assertEquals("promises settled more than once", 0, report.settledMoreThanOnce);
+  }
+
+  /**
+   * The same error codes the JS side passes to init, read from src/errorCodes.js.
+   */
+  private static ReadableMap errorCodes() throws Exception {
+    String source = new String(Files.readAllBytes(new File("../src/errorCodes.js").toPath()), StandardCharsets.UTF_8);
+    JavaOnlyMap errorCodes = new JavaOnlyMap();
+    Matcher matcher = ERROR_CODE.matcher(source);
+    while (matcher.find()) {
+      errorCodes.putMap(matcher.group(1), JavaOnlyMap.of("errorCode", matcher.group(2), "description", matcher.group(1)));
+    }
+    return errorCodes;
+  }
+}
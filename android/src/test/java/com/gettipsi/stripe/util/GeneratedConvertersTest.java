@@ -0,0 +1,219 @@
+package com.gettipsi.stripe.util;
+
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
+import com.facebook.react.bridge.WritableMap;
+import com.gettipsi.stripe.ShadowArguments;
+import com.google.android.gms.identity.intents.model.UserAddress;
+import com.stripe.android.PaymentIntentResult;
+import com.stripe.android.SetupIntentResult;
+import com.stripe.android.model.BankAccount;
+import com.stripe.android.model.PaymentMethod;
+import com.stripe.android.model.Source;
+import com.stripe.android.model.Token;
+
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * The converters generated from models.spec must produce the same maps as the hand-written ones they replaced,
+ * kept in {@link LegacyConverters}. Both run on the same SDK models, parsed from API responses.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, shadows = ShadowArguments.class, instrumentedPackages = "com.facebook.react.bridge")
+public class GeneratedConvertersTest {
+
+  private static final String CARD_TOKEN =
+    "{\"id\":\"tok_1\",\"object\":\"token\",\"client_ip\":null,\"created\":1574000000,\"livemode\":false,"
+      + "\"type\":\"card\",\"used\":false,"
+      + "\"card\":{\"id\":\"card_1\",\"object\":\"card\",\"address_city\":\"San Francisco\",\"address_country\":\"US\","
+      + "\"address_line1\":\"510 Townsend St\",\"address_line1_check\":\"unchecked\",\"address_line2\":null,"
+      + "\"address_state\":\"CA\",\"address_zip\":\"94103\",\"address_zip_check\":\"unchecked\",\"brand\":\"Visa\","
+      + "\"country\":\"US\",\"currency\":\"usd\",\"cvc_check\":\"unchecked\",\"exp_month\":8,\"exp_year\":2030,"
+      + "\"fingerprint\":\"Xt5EWLLDS7FJjR1c\",\"funding\":\"credit\",\"last4\":\"4242\",\"metadata\":{},"
+      + "\"name\":\"Jenny Rosen\"}}";
+
+  private static final String BANK_ACCOUNT_TOKEN =
+    "{\"id\":\"btok_1\",\"object\":\"token\",\"client_ip\":null,\"created\":1574000000,\"livemode\":false,"
+      + "\"type\":\"bank_account\",\"used\":false,"
+      + "\"bank_account\":{\"id\":\"ba_1\",\"object\":\"bank_account\",\"account_holder_name\":\"Jane Austen\","
+      + "\"account_holder_type\":\"individual\",\"bank_name\":\"STRIPE TEST BANK\",\"country\":\"US\","
+      + "\"currency\":\"usd\",\"fingerprint\":\"1JWtPxqbdX5Gamtc\",\"last4\":\"6789\","
+      + "\"routing_number\":\"110000000\",\"status\":\"new\"}}";
+
+  private static final String SOURCE =
+    "{\"id\":\"src_1\",\"object\":\"source\",\"amount\":1099,\"client_secret\":\"src_client_secret_1\","
+      + "\"code_verification\":{\"attempts_remaining\":3,\"status\":\"pending\"},"
+      + "\"created\":1574000000,\"currency\":\"eur\",\"flow\":\"redirect\",\"livemode\":false,"
+      + "\"metadata\":{\"order_id\":\"6735\",\"channel\":\"app\"},"
+      + "\"owner\":{\"address\":{\"city\":\"Amsterdam\",\"country\":\"NL\",\"line1\":\"Damrak 1\",\"line2\":null,"
+      + "\"postal_code\":\"1012 LG\",\"state\":null},\"email\":\"jenny.rosen@example.com\",\"name\":\"Jenny Rosen\","
+      + "\"phone\":null,\"verified_address\":null,\"verified_email\":null,\"verified_name\":\"J. Rosen\","
+      + "\"verified_phone\":null},"
+      + "\"receiver\":{\"address\":\"NL55INGB0000000000\",\"amount_charged\":0,\"amount_received\":1099,"
+      + "\"amount_returned\":0},"
+      + "\"redirect\":{\"return_url\":\"example://stripe-redirect\",\"status\":\"pending\","
+      + "\"url\":\"https://hooks.stripe.com/redirect/authenticate/src_1\"},"
+      + "\"statement_descriptor\":null,\"status\":\"pending\",\"type\":\"ideal\",\"usage\":\"single_use\","
+      + "\"ideal\":{\"bank\":\"ing\",\"bic\":\"INGBNL2A\",\"iban_last4\":\"0000\",\"statement_descriptor\":\"ORDER 6735\"}}";
+
+  private static final String BARE_SOURCE =
+    "{\"id\":\"src_2\",\"object\":\"source\",\"amount\":500,\"client_secret\":\"src_client_secret_2\","
+      + "\"created\":1574000000,\"currency\":\"eur\",\"flow\":\"none\",\"livemode\":true,\"metadata\":{},"
+      + "\"status\":\"chargeable\",\"type\":\"sofort\",\"usage\":\"single_use\",\"sofort\":{\"country\":\"DE\"}}";
+
+  private static final String PAYMENT_METHOD =
+    "{\"id\":\"pm_1\",\"object\":\"payment_method\",\"created\":1574000000,\"customer\":\"cus_1\","
+      + "\"livemode\":false,\"metadata\":{\"order_id\":\"6735\"},\"type\":\"card\","
+      + "\"billing_details\":{\"address\":{\"city\":\"San Francisco\",\"country\":\"US\",\"line1\":\"510 Townsend St\","
+      + "\"line2\":null,\"postal_code\":\"94103\",\"state\":\"CA\"},\"email\":\"jenny.rosen@example.com\","
+      + "\"name\":\"Jenny Rosen\",\"phone\":null},"
+      + "\"card\":{\"brand\":\"visa\",\"checks\":{\"address_line1_check\":null,\"address_postal_code_check\":null,"
+      + "\"cvc_check\":\"unchecked\"},\"country\":\"US\",\"exp_month\":8,\"exp_year\":2030,\"funding\":\"credit\","
+      + "\"last4\":\"4242\",\"three_d_secure_usage\":{\"supported\":true},\"wallet\":null}}";
+
+  private static final String BARE_PAYMENT_METHOD =
+    "{\"id\":\"pm_2\",\"object\":\"payment_method\",\"created\":1574000000,\"customer\":null,"
+      + "\"livemode\":true,\"metadata\":{},\"type\":\"card\"}";
+
+  @Test
+  public void cardToken() throws Exception {
+    Token token = Token.fromJson(new JSONObject(CARD_TOKEN));
+    assertNotNull(token);
+    assertSameMap(LegacyConverters.convertTokenToWritableMap(token), GeneratedConverters.convertToken(token));
+  }
+
+  @Test
+  public void bankAccountToken() throws Exception {
+    Token token = Token.fromJson(new JSONObject(BANK_ACCOUNT_TOKEN));
+    assertNotNull(token);
+    assertSameMap(LegacyConverters.convertTokenToWritableMap(token), GeneratedConverters.convertToken(token));
+    assertSameMap(
+      LegacyConverters.convertBankAccountToWritableMap(token.getBankAccount()),
+      GeneratedConverters.convertBankAccount(token.getBankAccount()));
+  }
+
+  @Test
+  public void source() throws Exception {
+    Source source = Source.fromJson(new JSONObject(SOURCE));
+    assertNotNull(source);
+    assertSameMap(LegacyConverters.convertSourceToWritableMap(source), GeneratedConverters.convertSource(source));
+  }
+
+  @Test
+  public void sourceWithoutNestedObjects() throws Exception {
+    Source source = Source.fromJson(new JSONObject(BARE_SOURCE));
+    assertNotNull(source);
+    assertSameMap(LegacyConverters.convertSourceToWritableMap(source), GeneratedConverters.convertSource(source));
+  }
+
+  @Test
+  public void paymentMethod() throws Exception {
+    PaymentMethod paymentMethod = PaymentMethod.fromJson(new JSONObject(PAYMENT_METHOD));
+    assertNotNull(paymentMethod);
+    assertSameMap(
+      LegacyConverters.convertPaymentMethodToWritableMap(paymentMethod),
+      GeneratedConverters.convertPaymentMethod(paymentMethod));
+  }
+
+  @Test
+  public void paymentMethodWithoutNestedObjects() throws Exception {
+    PaymentMethod paymentMethod = PaymentMethod.fromJson(new JSONObject(BARE_PAYMENT_METHOD));
+    assertNotNull(paymentMethod);
+    assertSameMap(
+      LegacyConverters.convertPaymentMethodToWritableMap(paymentMethod),
+      GeneratedConverters.convertPaymentMethod(paymentMethod));
+  }
+
+  @Test
+  public void nullModels() {
+    assertSameMap(LegacyConverters.convertTokenToWritableMap(null), GeneratedConverters.convertToken(null));
+    assertSameMap(
+      LegacyConverters.convertBankAccountToWritableMap(null), GeneratedConverters.convertBankAccount((BankAccount) null));
+    assertSameMap(LegacyConverters.convertSourceToWritableMap(null), GeneratedConverters.convertSource(null));
+    assertSameMap(
+      LegacyConverters.convertPaymentMethodToWritableMap(null), GeneratedConverters.convertPaymentMethod(null));
+    assertSameMap(
+      LegacyConverters.convertPaymentIntentResultToWritableMap(null),
+      GeneratedConverters.convertPaymentIntentResult((PaymentIntentResult) null));
+    assertSameMap(
+      LegacyConverters.convertSetupIntentResultToWritableMap(null),
+      GeneratedConverters.convertSetupIntentResult((SetupIntentResult) null));
+    assertSameMap(
+      LegacyConverters.convertAddressToWritableMap((UserAddress) null),
+      GeneratedConverters.convertUserAddress(null));
+  }
+
+  private static void assertSameMap(WritableMap expected, WritableMap actual) {
+    assertEquals(plain(expected), plain(actual));
+  }
+
+  // Numbers are compared as doubles, an int and a double of the same value are the same number in JS
+  private static Map<String, Object> plain(ReadableMap map) {
+    Map<String, Object> result = new HashMap<>();
+    ReadableMapKeySetIterator iterator = map.keySetIterator();
+    while (iterator.hasNextKey()) {
+      String key = iterator.nextKey();
+      switch (map.getType(key)) {
+        case Null:
+          result.put(key, null);
+          break;
+        case Boolean:
+          result.put(key, map.getBoolean(key));
+          break;
+        case Number:
+          result.put(key, map.getDouble(key));
+          break;
+        case String:
+          result.put(key, map.getString(key));
+          break;
+        case Map:
+          result.put(key, plain(map.getMap(key)));
+          break;
+        case Array:
+          result.put(key, plain(map.getArray(key)));
+          break;
+      }
+    }
+    return result;
+  }
+
+  private static List<Object> plain(ReadableArray array) {
+    List<Object> result = new ArrayList<>();
+    for (int i = 0; i < array.size(); i++) {
+      switch (array.getType(i)) {
+        case Null:
+          result.add(null);
+          break;
+        case Boolean:
+          result.add(array.getBoolean(i));
+          break;
+        case Number:
+          result.add(array.getDouble(i));
+          break;
+        case String:
+          result.add(array.getString(i));
+          break;
+        case Map:
+          result.add(plain(array.getMap(i)));
+          break;
+        case Array:
+          result.add(plain(array.getArray(i)));
+          break;
+      }
+    }
+    return result;
+  }
+}
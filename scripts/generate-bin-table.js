@@ -0,0 +1,159 @@
+#!/usr/bin/env node
+
+// Compiles BIN range CSVs into the binary table the Android module loads (com.gettipsi.stripe.util.BinTable).
+//
+//   node scripts/generate-bin-table.js [extra.csv ...]
+//
+// scripts/bin-ranges.csv is always read first, rows of later files win over earlier ones of the same width.
+// Overlapping ranges are flattened so every number maps to its narrowest range.
+//
+// Format, big endian: int magic 'TBIN', int version, int count,
+// then count rows of { int low, int high, byte brand, byte funding, char[2] country }, sorted by low.
+
+var fs = require('fs');
+var path = require('path');
+
+var MAGIC = 0x5442494e;
+var VERSION = 1;
+var DIGITS = 8;
+var ROW_BYTES = 12;
+
+var BRANDS = ['unknown', 'amex', 'diners', 'discover', 'jcb', 'mastercard', 'unionpay', 'visa'];
+var FUNDINGS = ['unknown', 'credit', 'debit', 'prepaid'];
+
+var ROOT = path.join(__dirname, '..');
+var SEED = path.join(__dirname, 'bin-ranges.csv');
+var OUTPUT = path.join(ROOT, 'android', 'src', 'main', 'res', 'raw', 'tipsi_stripe_bin_ranges.bin');
+
+function pad(prefix, digit) {
+  var padded = prefix;
+  while (padded.length < DIGITS) {
+    padded += digit;
+  }
+  return parseInt(padded, 10);
+}
+
+function fail(file, line, message) {
+  console.log(file + ':' + line + ': ' + message);
+  process.exit(1);
+}
+
+function readRanges(file, order, ranges) {
+  var lines = fs.readFileSync(file, 'utf8').split(/\r?\n/);
+  lines.forEach(function (raw, index) {
+    var line = raw.trim();
+    if (!line || line[0] === '#') {
+      return;
+    }
+    var columns = line.split(',').map(function (column) { return column.trim(); });
+    var low = columns[0];
+    var high = columns[1];
+    var brand = BRANDS.indexOf(columns[2] || 'unknown');
+    var funding = FUNDINGS.indexOf(columns[3] || 'unknown');
+    var country = (columns[4] || '').toUpperCase();
+
+    if (!/^\d{1,8}$/.test(low) || !/^\d{1,8}$/.test(high)) {
+      fail(file, index + 1, 'low and high must be 1 to ' + DIGITS + ' digits');
+    }
+    if (brand < 0 || funding < 0) {
+      fail(file, index + 1, 'unknown brand or funding');
+    }
+    if (country && !/^[A-Z]{2}$/.test(country)) {
+      fail(file, index + 1, 'country must be an ISO 3166-1 alpha-2 code');
+    }
+    var range = {
+      low: pad(low, '0'),
+      high: pad(high, '9'),
+      brand: brand,
+      funding: funding,
+      country: country,
+      order: order.next++,
+    };
+    if (range.low > range.high) {
+      fail(file, index + 1, 'low is above high');
+    }
+    ranges.push(range);
+  });
+}
+
+function narrower(a, b) {
+  var widthA = a.high - a.low;
+  var widthB = b.high - b.low;
+  return widthA !== widthB ? widthA < widthB : a.order > b.order;
+}
+
+function sameData(a, b) {
+  return a.brand === b.brand && a.funding === b.funding && a.country === b.country;
+}
+
+// Sweeps the range boundaries, every elementary interval takes the narrowest range covering it
+function flatten(ranges) {
+  var points = [];
+  ranges.forEach(function (range) {
+    points.push(range.low, range.high + 1);
+  });
+  points = points.sort(function (a, b) { return a - b; }).filter(function (point, index, all) {
+    return index === 0 || point !== all[index - 1];
+  });
+
+  var byLow = ranges.slice().sort(function (a, b) { return a.low - b.low; });
+  var next = 0;
+  var active = [];
+  var rows = [];
+
+  for (var i = 0; i < points.length - 1; i++) {
+    var start = points[i];
+    var end = points[i + 1] - 1;
+    while (next < byLow.length && byLow[next].low <= start) {
+      active.push(byLow[next++]);
+    }
+    active = active.filter(function (range) { return range.high >= start; });
+
+    var best = null;
+    active.forEach(function (range) {
+      if (!best || narrower(range, best)) {
+        best = range;
+      }
+    });
+    if (!best) {
+      continue;
+    }
+
+    var last = rows[rows.length - 1];
+    if (last && last.high + 1 === start && sameData(last, best)) {
+      last.high = end;
+    } else {
+      rows.push({ low: start, high: end, brand: best.brand, funding: best.funding, country: best.country });
+    }
+  }
+  return rows;
+}
+
+function write(rows) {
+  var buffer = Buffer.alloc(12 + rows.length * ROW_BYTES);
+  buffer.writeInt32BE(MAGIC, 0);
+  buffer.writeInt32BE(VERSION, 4);
+  buffer.writeInt32BE(rows.length, 8);
+  rows.forEach(function (row, index) {
+    var offset = 12 + index * ROW_BYTES;
+    buffer.writeInt32BE(row.low, offset);
+    buffer.writeInt32BE(row.high, offset + 4);
+    buffer.writeInt8(row.brand, offset + 8);
+    buffer.writeInt8(row.funding, offset + 9);
+    buffer.writeUInt8(row.country ? row.country.charCodeAt(0) : 0, offset + 10);
+    buffer.writeUInt8(row.country ? row.country.charCodeAt(1) : 0, offset + 11);
+  });
+
+  fs.mkdirSync(path.dirname(OUTPUT), { recursive: true });
+  fs.writeFileSync(OUTPUT, buffer);
+}
+
+var order = { next: 0 };
+var ranges = [];
+[SEED].concat(process.argv.slice(2)).forEach(function (file) {
+  readRanges(file, order, ranges);
+});
+
+var rows = flatten(ranges);
+write(rows);
+console.log('Wrote ' + rows.length + ' ranges to ' + path.relative(ROOT, OUTPUT));
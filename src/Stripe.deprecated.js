@@ -29,6 +29,10 @@ const deprecatedMethodsForInstance = (instance) => ({
   // @deprecated use paymentRequestWithNativePay
   paymentRequestWithAndroidPay: (options = {}) => {
     checkInit(instance)
+    // A request built by preparePaymentRequest, only the total may change
+    if (options.handle) {
+      return StripeModule.paymentRequestWithAndroidPay(options)
+    }
     checkArgs(
       types.paymentRequestWithAndroidPayOptionsPropTypes,
       options,
@@ -2,6 +2,7 @@ import { NativeModules, Platform } from 'react-native'
 import processTheme from './utils/processTheme'
 import checkArgs from './utils/checkArgs'
 import checkInit from './utils/checkInit'
+import androidOnly from './utils/androidOnly'
 import * as types from './utils/types'
 import errorCodes from './errorCodes'
 import deprecatedMethodsForInstance from './Stripe.deprecated'
@@ -70,6 +71,15 @@ import deprecatedMethodsForInstance from './Stripe.deprecated'
  */
 /* eslint-enable max-len */
 
+/**
+ * Android only: limits which fields of a result are converted and sent over the bridge.
+ * Can be passed along with the params of createTokenWithCard, createTokenWithBankAccount,
+ * createSourceWithParams and createPaymentMethod, or as the options of the batch and retrieve methods.
+ * @typedef {Object} ResultProjection
+ * @property {string[]} projection - field paths to return, e.g. ['sourceId', 'status', 'owner.email']
+ * @property {boolean} omitNulls - leave out null fields instead of sending them as null or empty maps
+ */
+
 /**
  * @typedef {Object} PaymentMethodParamsCardByToken
  * @property {string} token - Token String
@@ -138,6 +148,23 @@ import deprecatedMethodsForInstance from './Stripe.deprecated'
  * @property {string} paymentMethodId -- if available
  */
 
+/**
+ * @typedef {Object} LatencyStats - durations in milliseconds
+ * @property {number} count
+ * @property {number} mean
+ * @property {number} p50
+ * @property {number} p95
+ * @property {number} p99
+ * @property {number} max
+ */
+
+/**
+ * @typedef {Object} BinInfo
+ * @property {"unknown"|"amex"|"diners"|"discover"|"jcb"|"mastercard"|"unionpay"|"visa"} brand
+ * @property {"unknown"|"credit"|"debit"|"prepaid"} funding
+ * @property {string|null} country - ISO 3166-1 alpha-2 code of the issuing country
+ */
+
 const { StripeModule } = NativeModules
 
 class Stripe {
@@ -197,6 +224,17 @@ class Stripe {
       android: () => this.canMakeAndroidPayPayments(),
     })()
 
+  /**
+   * Android only. Readiness outcomes are reused for `androidPayReadiness.ttlMs` (30 seconds unless set
+   * in setOptions, 0 disables reuse). This makes the next check ask Google Pay again, e.g. after the
+   * user added a card. `androidPayReadiness: { prefetch: true }` starts the checks right away.
+   */
+  invalidateAndroidPayReadiness = androidOnly(
+    'Stripe.invalidateAndroidPayReadiness',
+    () => StripeModule.invalidateAndroidPayReadiness(),
+    () => Promise.resolve()
+  )
+
   potentiallyAvailableNativePayNetworks = () =>
     Platform.select({
       ios: () => StripeModule.potentiallyAvailableNativePayNetworks(),
@@ -207,6 +245,30 @@ class Stripe {
       },
     })()
 
+  /**
+   * Android only. Validates the Google Pay options and builds the request ahead of the tap.
+   * Pass the resolved handle as `paymentRequestWithNativePay({ handle, total_price })`,
+   * `total_price` only when the cart total changed since.
+   * @returns {Promise<string>} the request handle
+   */
+  preparePaymentRequest = androidOnly('Stripe.preparePaymentRequest', (options = {}) => {
+    checkInit(this)
+    checkArgs(
+      types.paymentRequestWithAndroidPayOptionsPropTypes,
+      options,
+      'options',
+      'Stripe.preparePaymentRequest'
+    )
+    return StripeModule.preparePaymentRequest(options)
+  })
+
+  /**
+   * On Android one Google Pay sheet is handled at a time. A request made while another runs follows
+   * `androidPayRequests.policy` from setOptions: 'rejectNew' (default) rejects it with `busy`, 'queue'
+   * runs it afterwards (up to `maxQueued`, 4 by default) and 'cancelPrevious' rejects the running one
+   * with `cancelled`. A request still unsettled after `androidPayRequests.timeoutMs` (10 minutes
+   * unless set, 0 disables the deadline) is rejected with `timeout`.
+   */
   paymentRequestWithNativePay(options = {}, items = []) {
     return Platform.select({
       ios: () => this.paymentRequestWithApplePay(items, options),
@@ -286,6 +348,15 @@ class Stripe {
     return StripeModule.openGateWaySourceParams()
   }
 
+  /**
+   * Android only. Opens the redirect of a specific source created by createSourceWithParams,
+   * several redirects can be in progress at the same time
+   * @param {string} sourceId
+   */
+  openGateWaySource = androidOnly('Stripe.openGateWaySource', (sourceId) =>
+    StripeModule.openGateWaySource(sourceId)
+  )
+
   /**
    * After calling this, you need to hit your backend with this method to get a clientSecret
    * @param {CreatePaymentMethodParams} params
@@ -297,6 +368,127 @@ class Stripe {
     return StripeModule.createPaymentMethod(params)
   }
 
+  /**
+   * Android only. Resolves from an in-memory cache when possible: sources in a terminal status
+   * are cached until evicted, pending ones for a couple of seconds. A cached source is only
+   * returned when `clientSecret` matches its own
+   * @param {string} sourceId
+   * @param {string} clientSecret
+   * @param {ResultProjection} options
+   */
+  retrieveSource = androidOnly(
+    'Stripe.retrieveSource',
+    (sourceId, clientSecret, options = {}) => {
+      checkInit(this)
+      return StripeModule.retrieveSource(sourceId, clientSecret, options)
+    }
+  )
+
+  /**
+   * Android only. Only PaymentMethods created (or selected in the card form) during this session are available
+   * @param {string} paymentMethodId
+   * @param {ResultProjection} options
+   * @returns {Promise<PaymentMethod>}
+   */
+  retrievePaymentMethod = androidOnly(
+    'Stripe.retrievePaymentMethod',
+    (paymentMethodId, options = {}) => {
+      checkInit(this)
+      return StripeModule.retrievePaymentMethod(paymentMethodId, options)
+    }
+  )
+
+  /**
+   * Android only. Hits, misses, evictions and size of the retrieveSource / retrievePaymentMethod caches
+   */
+  getCacheStats = androidOnly('Stripe.getCacheStats', () => StripeModule.getCacheStats())
+
+  /**
+   * Android only. Builds up to `count` (at most 4) card fields while the UI thread is idle,
+   * so mounting a PaymentCardTextField takes a ready one instead of inflating it. Call it
+   * some time before the checkout screen is shown.
+   * @param {number} count
+   */
+  prewarmCardFields = androidOnly(
+    'Stripe.prewarmCardFields',
+    (count = 1) => StripeModule.prewarmCardFields(count),
+    () => Promise.resolve()
+  )
+
+  /**
+   * Android only. Looks the card number (or its first 6-8 digits) up in the BIN table bundled with the module,
+   * no network call is made. The bundled table only knows card networks, regenerate it with
+   * `scripts/generate-bin-table.js` from your own BIN data to get funding and country.
+   * @param {string} number
+   * @returns {Promise<BinInfo|null>} null when no range covers the number
+   */
+  lookupBin = androidOnly('Stripe.lookupBin', (number) => StripeModule.lookupBin(`${number}`))
+
+  /**
+   * Android only. Latency histograms collected since start or the last reset, e.g.
+   * `{ createPaymentMethod: { total: {...}, sdk: {...}, resolve: {...} }, convert: { paymentMethod: {...} } }`.
+   * Set `metrics: { eventIntervalMs, resetOnEvent }` in setOptions to also receive them
+   * as periodic `StripeMetrics` device events.
+   * @returns {Promise<Object<string, Object<string, LatencyStats>>>}
+   */
+  getMetrics = androidOnly('Stripe.getMetrics', () => StripeModule.getMetrics())
+
+  /**
+   * Android only, a no-op elsewhere
+   */
+  resetMetrics = androidOnly(
+    'Stripe.resetMetrics',
+    () => StripeModule.resetMetrics(),
+    () => Promise.resolve()
+  )
+
+  /**
+   * Android only. Emits android.os.Trace sections (bridge calls, conversions, activity hops, source polling)
+   * for Perfetto and systrace captures. Off by default.
+   * @param {boolean} enabled
+   */
+  setTracingEnabled = androidOnly(
+    'Stripe.setTracingEnabled',
+    (enabled) => StripeModule.setTracingEnabled(!!enabled),
+    () => Promise.resolve()
+  )
+
+  /**
+   * Android only. Creates many PaymentMethods in one bridge call. Never rejects because of a single item:
+   * resolves with one `{ index, ok, result | error }` entry per params object, in input order.
+   * @param {CreatePaymentMethodParams[]} paramsList
+   * @param {{ concurrency: number } & ResultProjection} options
+   */
+  createPaymentMethodBatch = androidOnly(
+    'Stripe.createPaymentMethodBatch',
+    (paramsList = [], options = {}) => {
+      checkInit(this)
+      return StripeModule.createPaymentMethodBatch(paramsList, options)
+    }
+  )
+
+  /**
+   * Android only, like createPaymentMethodBatch
+   */
+  createTokenWithCardBatch = androidOnly(
+    'Stripe.createTokenWithCardBatch',
+    (paramsList = [], options = {}) => {
+      checkInit(this)
+      return StripeModule.createTokenWithCardBatch(paramsList, options)
+    }
+  )
+
+  /**
+   * Android only, like createPaymentMethodBatch
+   */
+  createSourceWithParamsBatch = androidOnly(
+    'Stripe.createSourceWithParamsBatch',
+    (paramsList = [], options = {}) => {
+      checkInit(this)
+      return StripeModule.createSourceWithParamsBatch(paramsList, options)
+    }
+  )
+
   /**
    * Takes a previously created paymentMethodId or a new paymentMethod, and then generates a paymentIntent
    * @param {ConfirmPaymentIntentParams} params
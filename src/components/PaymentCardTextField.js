@@ -24,10 +24,25 @@ const FieldStylePropType = PropTypes.shape({
  * @property {string} cvc
  */
 
+/**
+ * Per-field validation errors, a field without an error is left out. Android-only!
+ * @typedef {Object} PaymentCardTextFieldNativeEventErrors
+ * @property {"incomplete"|"invalid"} number
+ * @property {"incomplete"|"invalid"|"expired"} expiry
+ * @property {"incomplete"|"invalid"} cvc
+ */
+
 /**
  * @typedef {Object} PaymentCardTextFieldNativeEvent
  * @property {boolean}  valid
  * @property {PaymentCardTextFieldNativeEventParams} params
+ * @property {string} brand Android-only! one of unknown, amex, diners, discover, jcb, mastercard, unionpay, visa
+ * @property {"unknown"|"credit"|"debit"|"prepaid"} funding Android-only! from the bundled BIN table
+ * @property {string|null} country Android-only! issuing country from the bundled BIN table
+ * @property {boolean} numberComplete Android-only!
+ * @property {boolean} expiryComplete Android-only!
+ * @property {boolean} cvcComplete Android-only!
+ * @property {PaymentCardTextFieldNativeEventErrors} errors Android-only!
  */
 
 /**
@@ -61,6 +76,7 @@ const FieldStylePropType = PropTypes.shape({
  * @property {string} cardNumber Android-only!
  * @property {string} expDate Android-only!
  * @property {string} securityCode Android-only!
+ * @property {number} onChangeThrottleMs Android-only! At most one onChange per interval, the latest values win
  */
 
 const NativePaymentCardTextField = requireNativeComponent('TPSCardField', PaymentCardTextField, {
@@ -80,6 +96,13 @@ const NativePaymentCardTextField = requireNativeComponent('TPSCardField', Paymen
   },
 })
 
+const EMPTY_PARAMS = Object.freeze({
+  number: '',
+  expMonth: 0,
+  expYear: 0,
+  cvc: '',
+})
+
 /**
  * @type {import('react').ComponentClass<PaymentCardTextFieldProps>}
  */
@@ -108,6 +131,7 @@ export default class PaymentCardTextField extends Component {
         cardNumber: PropTypes.string,
         expDate: PropTypes.string,
         securityCode: PropTypes.string,
+        onChangeThrottleMs: PropTypes.number,
       },
     }),
   }
@@ -117,12 +141,8 @@ export default class PaymentCardTextField extends Component {
   }
 
   valid = false // eslint-disable-line react/sort-comp
-  params = {
-    number: '',
-    expMonth: 0,
-    expYear: 0,
-    cvc: '',
-  }
+  // What Android's first partial event is a diff against, see FieldState in CustomCardInputReactManager
+  params = { ...EMPTY_PARAMS }
 
   componentWillUnmount() {
     if (this.isFocused()) {
@@ -149,15 +169,16 @@ export default class PaymentCardTextField extends Component {
     const { nativeEvent } = event
 
     this.valid = nativeEvent.valid
-    this.params = nativeEvent.params
+    // Android only sends the fields that changed, callbacks still get all of them
+    this.params = { ...this.params, ...nativeEvent.params }
 
     if (onChange) {
       // Send the intended parameters back into JS
-      onChange({ ...nativeEvent })
+      onChange({ ...nativeEvent, params: this.params })
     }
 
     if (onParamsChange) {
-      onParamsChange(nativeEvent.valid, nativeEvent.params)
+      onParamsChange(nativeEvent.valid, this.params)
     }
   }
 
@@ -184,6 +205,7 @@ export default class PaymentCardTextField extends Component {
       expirationPlaceholder,
       cvcPlaceholder,
       keyboardAppearance,
+      onChangeThrottleMs,
       ...rest
     } = this.props
 
@@ -248,6 +270,7 @@ export default class PaymentCardTextField extends Component {
             cardNumber={cardNumber}
             expDate={expDate}
             securityCode={securityCode}
+            onChangeThrottleMs={onChangeThrottleMs}
           />
         </TouchableWithoutFeedback>
       </View>
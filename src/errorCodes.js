@@ -9,6 +9,14 @@ const errorCodes = {
     errorCode: 'cancelled',
     description: 'Cancelled by user',
   },
+  timeout: {
+    errorCode: 'timeout',
+    description: 'The request did not complete in time',
+  },
+  unsupported: {
+    errorCode: 'unsupported',
+    description: 'Not available on this platform',
+  },
   purchaseCancelled: {
     errorCode: 'purchaseCancelled',
     description: 'Purchase was cancelled',
@@ -116,6 +124,13 @@ const errorCodes = {
   permission: {
     errorCode: 'permission',
   },
+  /**
+   * Params that are missing or have the wrong type, the message lists all of them
+   * and on Android userInfo.problems has one { path, message } per problem
+   */
+  invalidParams: {
+    errorCode: 'invalidParams',
+  },
 }
 
 export default Object.freeze(errorCodes)
@@ -0,0 +1,21 @@
+import { Platform } from 'react-native'
+import errorCodes from '../errorCodes'
+
+/**
+ * Wraps a StripeModule method that only exists on Android. On other platforms `fallback` is called
+ * instead when given (e.g. to resolve a no-op), otherwise the call rejects with `unsupported`
+ * rather than throwing `undefined is not a function`.
+ */
+export default function androidOnly(methodName, method, fallback) {
+  if (Platform.OS === 'android') {
+    return method
+  }
+  return (
+    fallback ||
+    (() => {
+      const error = new Error(`${methodName} is only available on Android`)
+      error.code = errorCodes.unsupported.errorCode
+      return Promise.reject(error)
+    })
+  )
+}
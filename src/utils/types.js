@@ -147,6 +147,12 @@ export const paymentRequestWithCardFormOptionsPropTypes = {
   }),
 }
 
+// Android only, see ResultProjection in Stripe.js
+const resultProjectionPropTypes = {
+  projection: PropTypes.arrayOf(PropTypes.string),
+  omitNulls: PropTypes.bool,
+}
+
 export const createTokenWithCardParamsPropTypes = {
   number: PropTypes.string.isRequired,
   expMonth: PropTypes.number.isRequired,
@@ -167,6 +173,7 @@ export const createTokenWithCardParamsPropTypes = {
   last4: PropTypes.string,
   fingerprint: PropTypes.string,
   funding: PropTypes.string,
+  ...resultProjectionPropTypes,
 }
 
 export const createTokenWithBankAccountParamsPropTypes = {
@@ -176,6 +183,7 @@ export const createTokenWithBankAccountParamsPropTypes = {
   routingNumber: PropTypes.string,
   accountHolderName: PropTypes.string,
   accountHolderType: PropTypes.oneOf(['company', 'individual']),
+  ...resultProjectionPropTypes,
 }
 
 export const androidPayLineItemPropTypes = {
@@ -225,6 +233,7 @@ export const createSourceWithParamsPropType = {
   id: PropTypes.string,
   last4: PropTypes.string,
   mimic: PropTypes.string,
+  ...resultProjectionPropTypes,
 }
 
 // Corresponds to https://stripe.com/docs/api/payment_methods/create
@@ -260,6 +269,9 @@ export const createPaymentMethodPropType = {
   // TODO: Add documentation for metadata (supported on iOS and Android)
   metadata: PropTypes.object,
   // TODO: customerId support
+
+  // Only read by createPaymentMethod
+  ...resultProjectionPropTypes,
 }
 
 const confirmPaymentIntentPropTypeBase = {